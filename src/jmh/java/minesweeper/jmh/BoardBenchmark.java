@@ -0,0 +1,50 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+
+/**
+ * Board.makeMove on opening moves, from a single square to a flood fill over most of the board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardBenchmark {
+    @Param({"100", "1000"})
+    public int size;
+
+    // Mines per 1000 squares, low densities open large areas at once
+    @Param({"5", "150"})
+    public int density;
+
+    private Board board;
+
+    // Opening squares changes the board, so every call gets a freshly generated one
+    @Setup(Level.Invocation)
+    public void generateBoard() {
+        int mines = this.size * this.size * this.density / 1000;
+        MinefieldGenerator generator = new MinefieldGenerator(42);
+        this.board = new Board(generator, this.size, this.size, mines);
+        generator.generate(this.board, mines, 0, 0);
+        this.board.firstMove = false;
+    }
+
+    @Benchmark
+    public boolean openCascade() {
+        return this.board.makeMove(new Move(MoveType.OPEN, 0, 0));
+    }
+}
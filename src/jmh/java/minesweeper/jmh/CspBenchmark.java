@@ -0,0 +1,50 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minesweeper.bot.CSP;
+import minesweeper.model.Board;
+import minesweeper.structures.SquareMap;
+import minesweeper.structures.SquareSet;
+
+/**
+ * Solving stored frontier positions with CSP.findSafeSolutions
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CspBenchmark {
+    @Param({"small", "medium", "pathological"})
+    public String position;
+
+    private Board board;
+    private CSP csp;
+    private SquareSet frontier;
+
+    @Setup(Level.Trial)
+    public void loadPosition() {
+        this.board = FrontierPositions.load(this.position);
+    }
+
+    // findSafeSolutions records what it learns in the CSP, so every call gets a fresh one
+    @Setup(Level.Invocation)
+    public void buildCsp() {
+        this.frontier = new SquareSet(this.board.width, this.board.height);
+        this.csp = FrontierPositions.buildCsp(this.board, this.frontier);
+    }
+
+    @Benchmark
+    public SquareMap<Integer> findSafeSolutions() {
+        return this.csp.findSafeSolutions(this.frontier);
+    }
+}
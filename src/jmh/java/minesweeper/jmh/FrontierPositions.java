@@ -0,0 +1,132 @@
+package minesweeper.jmh;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import minesweeper.bot.CSP;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Square;
+import minesweeper.structures.SquareMap;
+import minesweeper.structures.SquareSet;
+
+/**
+ * Loads the stored corpus of board positions used by the solver benchmarks.
+ *
+ * <p>
+ * A position is a text file in resources/frontiers with one line per row of
+ * the board. Digits are opened squares, . unopened safe squares, * unopened
+ * mines and F flagged mines. Lines starting with # are comments.
+ * </p>
+ */
+public class FrontierPositions {
+
+    /**
+     * Load a stored position
+     *
+     * @param name Name of the position, e.g. small, medium or pathological
+     * @return Board in the stored state
+     */
+    public static Board load(String name) {
+        ArrayList<String> rows = new ArrayList<>();
+        try (InputStream in = FrontierPositions.class.getResourceAsStream("/frontiers/" + name + ".txt")) {
+            if (in == null) {
+                throw new IllegalArgumentException("No stored position " + name);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    rows.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read position " + name, e);
+        }
+
+        int width = rows.get(0).length();
+        int height = rows.size();
+        int mines = 0;
+        for (String row : rows) {
+            for (char c : row.toCharArray()) {
+                mines += c == '*' || c == 'F' ? 1 : 0;
+            }
+        }
+
+        Board board = new Board(new MinefieldGenerator(), width, height, mines);
+        board.firstMove = false;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                char c = rows.get(y).charAt(x);
+                if (c == '*' || c == 'F') {
+                    board.board[x][y].setMine();
+                    board.addMineSquareToList(board.board[x][y]);
+                    board.incrementAdjacentSquares(x, y);
+                }
+                if (c == 'F') {
+                    board.board[x][y].toggleFlagged();
+                }
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                char c = rows.get(y).charAt(x);
+                if (Character.isDigit(c)) {
+                    Square square = board.board[x][y];
+                    square.open();
+                    board.getOpenSquares().add(square);
+                    if (square.surroundingMines() != c - '0') {
+                        throw new IllegalStateException("Position " + name + " has a wrong number at ("
+                                + x + ", " + y + ")");
+                    }
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Build a CSP for a position the same way MyBot does for hints, when it has
+     * no ComponentCache
+     *
+     * @param board Board in the position to solve
+     * @param frontier Set that is filled with the constrained squares
+     * @return CSP with all constraints of the position added
+     */
+    public static CSP buildCsp(Board board, SquareSet frontier) {
+        SquareSet variables = new SquareSet(board.width, board.height);
+        SquareMap<int[]> domains = new SquareMap<>(board.width, board.height);
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                Square square = board.getSquareAt(x, y);
+                if (!square.isOpened()) {
+                    variables.add(square);
+                    domains.put(square, new int[] {0, 1});
+                }
+            }
+        }
+        CSP csp = new CSP(variables, domains);
+        for (Square number : board.getOpenSquares()) {
+            if (number.surroundingMines() == 0) {
+                continue;
+            }
+            SquareSet constrained = new SquareSet(board.width, board.height);
+            for (int x = number.getX() - 1; x <= number.getX() + 1; x++) {
+                for (int y = number.getY() - 1; y <= number.getY() + 1; y++) {
+                    if (board.withinBoard(x, y) && !board.getSquareAt(x, y).isOpened()) {
+                        constrained.add(board.getSquareAt(x, y));
+                    }
+                }
+            }
+            frontier.addAll(constrained);
+            csp.addConstraint(constrained, number.surroundingMines());
+        }
+        while (csp.updateConstraints()) {
+        }
+        return csp;
+    }
+}
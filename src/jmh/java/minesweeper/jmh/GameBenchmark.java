@@ -0,0 +1,56 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minesweeper.benchmark.BenchmarkRunner;
+import minesweeper.benchmark.GameResult;
+import minesweeper.bot.MyBot;
+
+/**
+ * Complete MyBot games on the standard presets, cycling through a fixed set of seeds.
+ * The bots have no ComponentCache, so every game is solved from scratch however
+ * often its seed comes round.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameBenchmark {
+    @Param({"beginner", "intermediate", "expert"})
+    public String preset;
+
+    private BenchmarkRunner runner;
+    private long[] seeds;
+    private int nextSeed;
+
+    @Setup
+    public void createRunner() {
+        switch (this.preset) {
+            case "beginner":
+                this.runner = new BenchmarkRunner(9, 9, 10, 1, MyBot::new);
+                break;
+            case "intermediate":
+                this.runner = new BenchmarkRunner(16, 16, 40, 1, MyBot::new);
+                break;
+            default:
+                this.runner = new BenchmarkRunner(30, 16, 99, 1, MyBot::new);
+                break;
+        }
+        this.seeds = BenchmarkRunner.seeds(64, 42);
+    }
+
+    @Benchmark
+    public GameResult playGame() {
+        int game = this.nextSeed;
+        this.nextSeed = (this.nextSeed + 1) % this.seeds.length;
+        return this.runner.play(game, new MyBot(), this.seeds[game]);
+    }
+}
@@ -0,0 +1,46 @@
+package minesweeper.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+
+/**
+ * MinefieldGenerator.generate on boards of several sizes, at 20% mine density
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneratorBenchmark {
+    @Param({"30", "100", "1000"})
+    public int size;
+
+    @Param({"2"})
+    public int version;
+
+    private MinefieldGenerator generator;
+    private Board board;
+
+    // Mines are placed onto the board, so every call gets an empty one
+    @Setup(Level.Invocation)
+    public void createBoard() {
+        this.generator = new MinefieldGenerator(42, this.version);
+        this.board = new Board(this.generator, this.size, this.size, this.size * this.size / 5);
+    }
+
+    @Benchmark
+    public Board generate() {
+        this.generator.generate(this.board, this.size * this.size / 5, 0, 0);
+        return this.board;
+    }
+}
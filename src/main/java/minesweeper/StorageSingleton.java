@@ -1,5 +1,7 @@
 package minesweeper;
 
+import minesweeper.bot.GameRunner;
+
 /**
  * Singleton class for miscellaneous storage
  * Used for transferring state between UI scenes without variable passing
@@ -12,6 +14,15 @@ public class StorageSingleton {
     // Animation speed
     public double animationSpeed = 1050.0;
 
+    // Bot game animation applies all pending moves on every frame
+    public boolean turboMode = false;
+
+    // Runs the bot games of all game views
+    public final GameRunner botGames = GameRunner.virtualThreads();
+
+    // Computes the hints of the Help (bot) button, one at a time
+    public final GameRunner hints = GameRunner.platformThreads(1);
+
     /**
      * Private constructor for creating one instance of the singleton
      */
@@ -16,6 +16,9 @@ import minesweeper.generator.MinefieldGenerator;
 import minesweeper.bot.Bot;
 import minesweeper.bot.BotExecutor;
 import minesweeper.bot.MyBot;
+import minesweeper.benchmark.BenchmarkCli;
+import minesweeper.benchmark.BenchmarkResult;
+import minesweeper.benchmark.BenchmarkRunner;
 
 public class TestApp {
 
@@ -37,6 +40,11 @@ public class TestApp {
     }
 
     public static void main(String[] args) {
+        // With command line arguments, run the non-interactive benchmark instead
+        if (args.length > 0) {
+            BenchmarkCli.main(args);
+            return;
+        }
         Scanner input = new Scanner(System.in);
         System.out.println("Type the desired settings for the test:");
         System.out.println("Width (squares):");
@@ -64,31 +72,28 @@ public class TestApp {
         System.out.println("Number of mines: " + mines);
         System.out.println(n + " sets of 100 games");
 
+        //Play a 100 sets of 100 games on all available cores
+        long masterSeed = new Random().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("Master seed: " + masterSeed + ", threads: " + threads);
+        BenchmarkRunner runner = new BenchmarkRunner(width, height, mines, threads, MyBot::new);
+        BenchmarkResult result = runner.run(n * 100, masterSeed);
+
         //Record rate of won games
         int[] winrates = new int[n];
         int sum = 0;
-        Random rng = new Random();
-        boolean allLossesWereGuesses = true;
-        //Play a 100 sets of 100 games
         for (int set = 1; set <= n; set++) {
             int wonGames = 0;
-            //Play 100 games and save the winrate
             for (int game = 0; game < 100; game++) {
-                long seed = Math.abs(rng.nextLong());
-                TestApp app = new TestApp(seed, width, height, mines);
-                if (app.board.gameWon) {
+                if (result.games[(set - 1) * 100 + game].won) {
                     wonGames++;
-                } else {
-                    MyBot lostBot = (MyBot) app.bot;
-                    if (!lostBot.wasGuess) {
-                        allLossesWereGuesses = false;
-                    }
                 }
             }
             winrates[set - 1] = wonGames;
             sum += wonGames;
             System.out.println("\nSet " + set + " had a win rate of " + wonGames + "%\n");
         }
+        boolean allLossesWereGuesses = result.allLossesWereGuesses();
 
         //Calculate mean
         double mean = 1.0 * sum / n;
@@ -0,0 +1,273 @@
+package minesweeper.benchmark;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import minesweeper.bot.Bot;
+import minesweeper.bot.ComponentCache;
+import minesweeper.bot.EndgameTablebase;
+import minesweeper.bot.GuessLookahead;
+import minesweeper.bot.OpeningBook;
+import minesweeper.bot.TranspositionTable;
+import minesweeper.model.SolverStats;
+
+/**
+ * Non-interactive command line front end for the headless benchmark.
+ *
+ * <p>
+ * Example: {@code --preset expert --games 10000 --seed 42 --threads 8 --format jsonl --output results.jsonl}
+ * </p>
+ */
+public class BenchmarkCli {
+    static final String USAGE = "Options:\n"
+            + "  --preset beginner|intermediate|expert  Board of 9x9/10, 16x16/40 or 30x16/99\n"
+            + "  --width N --height N --mines N         Custom board, overrides the preset\n"
+            + "  --games N                              Number of games (default 1000)\n"
+            + "  --seed N                               Master seed (default random)\n"
+            + "  --threads N                            Worker threads (default all cores)\n"
+            + "  --bot CLASS                            Bot implementation (default minesweeper.bot.MyBot)\n"
+            + "  --lookahead-ms N                       Time the bot may look ahead for each guess (default 0, off)\n"
+            + "  --tablebase FILE                       Endgame tablebase written by TablebaseGenerator\n"
+            + "  --opening-book FILE                    Opening book written by OpeningBookGenerator\n"
+            + "  --component-cache-mb N                 Memory for solutions of frontier components shared by\n"
+            + "                                         the games (default 0, off)\n"
+            + "  --format csv|jsonl                     Record format (default csv)\n"
+            + "  --output FILE                          Results file (default standard output)\n"
+            + "  --help                                 Show this help";
+
+    int width = 30;
+    int height = 16;
+    int mines = 99;
+    int games = 1000;
+    long seed = new Random().nextLong();
+    int threads = Runtime.getRuntime().availableProcessors();
+    String botClass = "minesweeper.bot.MyBot";
+    long lookaheadMillis = 0;
+    String tablebase;
+    String openingBook;
+    /**
+     * Solved positions of the lookahead of the bots, shared by all the games, if the bots look ahead
+     */
+    TranspositionTable transpositions;
+    long componentCacheMegabytes = 0;
+    /**
+     * Solutions of frontier components shared by the bots, if enabled
+     */
+    ComponentCache components;
+    /**
+     * Endgame tablebase shared by the bots, if given
+     */
+    EndgameTablebase endgames;
+    String format = GameResultWriter.CSV;
+    String output;
+
+    /**
+     * Parse the command line arguments
+     *
+     * @param args Arguments given to main
+     * @throws IllegalArgumentException If an argument is unknown or malformed
+     */
+    void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--help")) {
+                throw new IllegalArgumentException("Headless benchmark of a minesweeper bot");
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--preset":
+                    setPreset(value);
+                    break;
+                case "--width":
+                    this.width = Integer.parseInt(value);
+                    break;
+                case "--height":
+                    this.height = Integer.parseInt(value);
+                    break;
+                case "--mines":
+                    this.mines = Integer.parseInt(value);
+                    break;
+                case "--games":
+                    this.games = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    this.seed = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    this.threads = Integer.parseInt(value);
+                    break;
+                case "--bot":
+                    this.botClass = value;
+                    break;
+                case "--lookahead-ms":
+                    this.lookaheadMillis = Long.parseLong(value);
+                    break;
+                case "--tablebase":
+                    this.tablebase = value;
+                    break;
+                case "--opening-book":
+                    this.openingBook = value;
+                    break;
+                case "--component-cache-mb":
+                    this.componentCacheMegabytes = Long.parseLong(value);
+                    break;
+                case "--format":
+                    this.format = value;
+                    break;
+                case "--output":
+                    this.output = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option);
+            }
+        }
+    }
+
+    private void setPreset(String preset) {
+        switch (preset) {
+            case "beginner":
+                this.width = 9;
+                this.height = 9;
+                this.mines = 10;
+                break;
+            case "intermediate":
+                this.width = 16;
+                this.height = 16;
+                this.mines = 40;
+                break;
+            case "expert":
+                this.width = 30;
+                this.height = 16;
+                this.mines = 99;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown preset " + preset);
+        }
+    }
+
+    /**
+     * Creates Bots of the configured class. With a lookahead time, a
+     * tablebase, an opening book or a component cache the bots share one
+     * GuessLookahead, EndgameTablebase, OpeningBook and ComponentCache, given
+     * to their constructor.
+     */
+    Supplier<Bot> botFactory() {
+        Class<? extends Bot> type;
+        try {
+            type = Class.forName(this.botClass).asSubclass(Bot.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Not a Bot class: " + this.botClass);
+        }
+        if (this.lookaheadMillis > 0 || this.tablebase != null || this.openingBook != null
+                || this.componentCacheMegabytes > 0) {
+            this.transpositions = this.lookaheadMillis > 0
+                    ? new TranspositionTable(TranspositionTable.DEFAULT_BUDGET_BYTES) : null;
+            GuessLookahead lookahead = this.lookaheadMillis > 0 ? new GuessLookahead(ForkJoinPool.commonPool(),
+                    GuessLookahead.DEFAULT_DEPTH, GuessLookahead.DEFAULT_CANDIDATES, this.lookaheadMillis,
+                    this.transpositions) : null;
+            this.endgames = this.tablebase == null ? null : new EndgameTablebase(Paths.get(this.tablebase));
+            EndgameTablebase endgames = this.endgames;
+            OpeningBook book = this.openingBook == null ? null : new OpeningBook(Paths.get(this.openingBook));
+            this.components = this.componentCacheMegabytes > 0
+                    ? new ComponentCache(this.componentCacheMegabytes << 20) : null;
+            ComponentCache cache = this.components;
+            try {
+                type.getDeclaredConstructor(GuessLookahead.class, EndgameTablebase.class, OpeningBook.class,
+                        ComponentCache.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(this.botClass
+                        + " does not support --lookahead-ms, --tablebase, --opening-book or --component-cache-mb");
+            }
+            return () -> {
+                try {
+                    return type.getDeclaredConstructor(GuessLookahead.class, EndgameTablebase.class,
+                            OpeningBook.class, ComponentCache.class).newInstance(lookahead, endgames, book, cache);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Could not create " + this.botClass, e);
+                }
+            };
+        }
+        return () -> {
+            try {
+                return type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create " + this.botClass, e);
+            }
+        };
+    }
+
+    /**
+     * Run the benchmark and write the records
+     *
+     * @param out Stream for the records
+     * @param log Stream for the run summary
+     * @return The results of the run
+     */
+    BenchmarkResult run(PrintStream out, PrintStream log) {
+        log.println("Board " + this.width + "x" + this.height + ", " + this.mines + " mines, " + this.games
+                + " games, master seed " + this.seed + ", " + this.threads + " threads, bot " + this.botClass
+                + (this.lookaheadMillis > 0 ? ", lookahead " + this.lookaheadMillis + " ms" : "")
+                + (this.tablebase != null ? ", tablebase " + this.tablebase : "")
+                + (this.openingBook != null ? ", opening book " + this.openingBook : "")
+                + (this.componentCacheMegabytes > 0
+                        ? ", component cache " + this.componentCacheMegabytes + " MiB" : ""));
+        GameResultWriter writer = new GameResultWriter(out, this.format, this.games);
+        BenchmarkRunner runner = new BenchmarkRunner(this.width, this.height, this.mines, this.threads,
+                botFactory());
+        BenchmarkResult result = runner.run(this.games, this.seed, writer);
+        log.println("Won " + result.getWins() + "/" + this.games + " games in "
+                + result.wallTimeNanos / 1000000 + " ms");
+        log.println("Move wall time: " + result.getMoveWallTimes().summary());
+        log.println("Move CPU time:  " + result.getMoveCpuTimes().summary());
+        SolverStats solver = result.getSolverStats();
+        log.println("Solver: " + solver);
+        log.println(String.format("Solver time: propagation %.1f ms, search %.1f ms, guessing %.1f ms",
+                solver.propagationNanos / 1e6, solver.searchNanos / 1e6, solver.guessNanos / 1e6));
+        if (this.transpositions != null) {
+            // Included in the move CPU times, though the pool's threads spent it
+            log.println(String.format("Lookahead CPU time on the pool: %.1f ms", solver.lookaheadCpuNanos / 1e6));
+        }
+        if (this.endgames != null) {
+            log.println("Endgame tablebase: " + this.endgames.getHits() + "/" + this.endgames.getLookups() + " hits");
+        }
+        if (this.components != null) {
+            log.println("Component cache: " + this.components.getHits() + "/" + this.components.getLookups()
+                    + " hits, " + this.components.getBytes() / 1024 + " KiB");
+        }
+        if (this.transpositions != null) {
+            // Hits across games are the ones a table for a single game would not have had
+            TranspositionTable table = this.transpositions;
+            log.println("Transposition table: " + table.getHits() + "/" + table.getLookups() + " hits, "
+                    + table.getCrossGameHits() + " from other games, " + table.getBytes() / 1024 + " KiB");
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+        BenchmarkCli cli = new BenchmarkCli();
+        try {
+            cli.parse(args);
+            if (cli.output == null) {
+                cli.run(System.out, System.err);
+            } else {
+                try (PrintStream out = new PrintStream(cli.output)) {
+                    cli.run(out, System.err);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (FileNotFoundException e) {
+            System.err.println("Could not open " + cli.output + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package minesweeper.benchmark;
+
+import minesweeper.model.SolverStats;
+import minesweeper.structures.LatencyHistogram;
+
+/**
+ * Results of a benchmark run, in the order the games were seeded
+ */
+public class BenchmarkResult {
+    public final GameResult[] games;
+    public final long masterSeed;
+    public final long wallTimeNanos;
+
+    public BenchmarkResult(GameResult[] games, long masterSeed, long wallTimeNanos) {
+        this.games = games;
+        this.masterSeed = masterSeed;
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    /**
+     * Number of games won
+     * @return Won games
+     */
+    public int getWins() {
+        int wins = 0;
+        for (GameResult game : this.games) {
+            if (game.won) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Check whether every lost game was lost on a guess
+     * @return True if no game was lost on a move the bot considered safe
+     */
+    public boolean allLossesWereGuesses() {
+        for (GameResult game : this.games) {
+            if (!game.won && !game.lostOnGuess) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wall clock time of every makeMove call of the run
+     * @return Histogram merged from all games
+     */
+    public LatencyHistogram getMoveWallTimes() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (GameResult game : this.games) {
+            merged.merge(game.moveWallTimes);
+        }
+        return merged;
+    }
+
+    /**
+     * Solver work of the whole run
+     * @return Stats added together from all games
+     */
+    public SolverStats getSolverStats() {
+        SolverStats total = new SolverStats();
+        for (GameResult game : this.games) {
+            total.add(game.solverStats);
+        }
+        return total;
+    }
+
+    /**
+     * CPU time of every makeMove call of the run
+     * @return Histogram merged from all games
+     */
+    public LatencyHistogram getMoveCpuTimes() {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (GameResult game : this.games) {
+            merged.merge(game.moveCpuTimes);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,162 @@
+package minesweeper.benchmark;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import minesweeper.bot.Bot;
+import minesweeper.bot.MoveTimer;
+import minesweeper.bot.MyBot;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.model.SolverStats;
+
+/**
+ * Plays a batch of headless bot games on a pool of worker threads.
+ *
+ * <p>
+ * The seeds of the games are split from a single master seed, so a run can be
+ * reproduced exactly with any number of threads. Every worker creates its own
+ * Bot and plays its games on Boards and MinefieldGenerators of its own, so the
+ * workers share nothing but the index of the next game to play. Each result is
+ * written to its own slot of the result array.
+ * </p>
+ */
+public class BenchmarkRunner {
+    private final int width;
+    private final int height;
+    private final int mines;
+    private final int threads;
+    private final Supplier<Bot> botFactory;
+
+    /**
+     * Create a runner for games of a given board configuration
+     *
+     * @param width Width of the boards
+     * @param height Height of the boards
+     * @param mines Number of mines on the boards
+     * @param threads Number of worker threads
+     * @param botFactory Creates a new Bot for each worker
+     */
+    public BenchmarkRunner(int width, int height, int mines, int threads, Supplier<Bot> botFactory) {
+        this.width = width;
+        this.height = height;
+        this.mines = mines;
+        this.threads = threads;
+        this.botFactory = botFactory;
+    }
+
+    /**
+     * Derive the seeds of a run from its master seed
+     *
+     * @param games Number of games
+     * @param masterSeed The master seed of the run
+     * @return Seed of each game
+     */
+    public static long[] seeds(int games, long masterSeed) {
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        long[] seeds = new long[games];
+        for (int i = 0; i < games; i++) {
+            seeds[i] = master.split().nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Play the given number of games and wait for all of them to finish
+     *
+     * @param games Number of games to play
+     * @param masterSeed Seed from which the seeds of the games are derived
+     * @return Results of the games, in the order of their seeds
+     */
+    public BenchmarkResult run(int games, long masterSeed) {
+        return run(games, masterSeed, result -> { });
+    }
+
+    /**
+     * Play the given number of games, passing each result to a listener as soon
+     * as the game has ended
+     *
+     * @param games Number of games to play
+     * @param masterSeed Seed from which the seeds of the games are derived
+     * @param listener Called from the worker threads, in the order the games end
+     * @return Results of the games, in the order of their seeds
+     */
+    public BenchmarkResult run(int games, long masterSeed, Consumer<GameResult> listener) {
+        long startTime = System.nanoTime();
+        long[] seeds = seeds(games, masterSeed);
+        GameResult[] results = new GameResult[games];
+        AtomicInteger nextGame = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        ArrayList<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < this.threads; i++) {
+            workers.add(pool.submit(() -> {
+                Bot bot = this.botFactory.get();
+                int game;
+                while ((game = nextGame.getAndIncrement()) < games) {
+                    results[game] = play(game, bot, seeds[game]);
+                    listener.accept(results[game]);
+                }
+            }));
+        }
+        try {
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Benchmark game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new BenchmarkResult(results, masterSeed, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Play a single game until it is won or lost
+     *
+     * @param game Position of the game in the run
+     * @param bot The Bot playing the game
+     * @param seed Seed of the minefield
+     * @return Result of the game
+     */
+    public GameResult play(int game, Bot bot, long seed) {
+        MoveTimer timer = new MoveTimer();
+        Board board = new Board(new MinefieldGenerator(seed), this.width, this.height, this.mines);
+        int moves = 0;
+        int guesses = 0;
+        int peakFrontier = 0;
+        SolverStats solverStats = new SolverStats();
+        boolean wasGuess = false;
+        while (!board.gameLost && !board.gameWon) {
+            Move move = timer.makeMove(bot, board);
+            wasGuess = false;
+            if (bot instanceof MyBot) {
+                MyBot myBot = (MyBot) bot;
+                wasGuess = myBot.wasGuess;
+                peakFrontier = Math.max(peakFrontier, myBot.frontierSize);
+            }
+            if (wasGuess) {
+                guesses++;
+            }
+            if (move.solverStats != null) {
+                solverStats.add(move.solverStats);
+            }
+            board.makeMove(move);
+            moves++;
+        }
+        return new GameResult(game, seed, board.gameWon, moves, guesses, board.gameLost && wasGuess,
+                timer.isCpuTimed() ? timer.getCpuTimes().getTotal() : -1, peakFrontier,
+                timer.getWallTimes(), timer.getCpuTimes(), solverStats);
+    }
+}
@@ -0,0 +1,58 @@
+package minesweeper.benchmark;
+
+import minesweeper.model.SolverStats;
+import minesweeper.structures.LatencyHistogram;
+
+/**
+ * Outcome of a single headless bot game
+ */
+public class GameResult {
+    /**
+     * Position of the game in the run, matching the order of the seeds
+     */
+    public final int game;
+    public final long seed;
+    public final boolean won;
+    public final int moves;
+    public final int guesses;
+    /**
+     * True if the game was lost and the losing move was a guess
+     */
+    public final boolean lostOnGuess;
+    /**
+     * CPU time the bot spent in makeMove during the game, or -1 if not available
+     */
+    public final long botCpuNanos;
+    /**
+     * Largest number of frontier squares the bot had to consider on a single move
+     */
+    public final int peakFrontier;
+    /**
+     * Wall clock time of each makeMove call
+     */
+    public final LatencyHistogram moveWallTimes;
+    /**
+     * CPU time of each makeMove call, empty if not available
+     */
+    public final LatencyHistogram moveCpuTimes;
+    /**
+     * Solver work summed over the moves of the game, empty if the bot did not report any
+     */
+    public final SolverStats solverStats;
+
+    public GameResult(int game, long seed, boolean won, int moves, int guesses, boolean lostOnGuess,
+            long botCpuNanos, int peakFrontier, LatencyHistogram moveWallTimes, LatencyHistogram moveCpuTimes,
+            SolverStats solverStats) {
+        this.game = game;
+        this.seed = seed;
+        this.won = won;
+        this.moves = moves;
+        this.guesses = guesses;
+        this.lostOnGuess = lostOnGuess;
+        this.botCpuNanos = botCpuNanos;
+        this.peakFrontier = peakFrontier;
+        this.moveWallTimes = moveWallTimes;
+        this.moveCpuTimes = moveCpuTimes;
+        this.solverStats = solverStats;
+    }
+}
@@ -0,0 +1,88 @@
+package minesweeper.benchmark;
+
+import java.io.PrintStream;
+import java.util.function.Consumer;
+import minesweeper.model.SolverStats;
+import minesweeper.structures.LatencyHistogram;
+
+/**
+ * Writes one CSV or JSON lines record per game.
+ *
+ * <p>
+ * Results may arrive from several worker threads in any order. They are
+ * buffered until all earlier games have been written, so the output is always
+ * in game order and two runs with the same master seed can be diffed directly.
+ * </p>
+ */
+public class GameResultWriter implements Consumer<GameResult> {
+    public static final String CSV = "csv";
+    public static final String JSON_LINES = "jsonl";
+
+    private final PrintStream out;
+    private final boolean json;
+    private final GameResult[] pending;
+    private int nextToWrite = 0;
+
+    /**
+     * Create a writer for a run of a given number of games
+     *
+     * @param out Stream to write the records to
+     * @param format CSV or JSON_LINES
+     * @param games Number of games in the run
+     */
+    public GameResultWriter(PrintStream out, String format, int games) {
+        if (!CSV.equals(format) && !JSON_LINES.equals(format)) {
+            throw new IllegalArgumentException("Unknown output format " + format);
+        }
+        this.out = out;
+        this.json = JSON_LINES.equals(format);
+        this.pending = new GameResult[games];
+        if (!this.json) {
+            this.out.println("game,seed,won,moves,guesses,bot_cpu_ns,peak_frontier,"
+                    + "move_p50_ns,move_p99_ns,move_max_ns,search_nodes,backtracks,propagation_steps,"
+                    + "solutions,component_cache_hits,component_cache_misses,"
+                    + "max_constraints,max_components,largest_component,"
+                    + "propagation_ns,search_ns,guess_ns");
+        }
+    }
+
+    @Override
+    public synchronized void accept(GameResult result) {
+        this.pending[result.game] = result;
+        while (this.nextToWrite < this.pending.length && this.pending[this.nextToWrite] != null) {
+            this.out.println(format(this.pending[this.nextToWrite]));
+            this.pending[this.nextToWrite] = null;
+            this.nextToWrite++;
+        }
+        this.out.flush();
+    }
+
+    private String format(GameResult result) {
+        LatencyHistogram moveTimes = result.moveWallTimes;
+        SolverStats solver = result.solverStats;
+        if (this.json) {
+            return "{\"game\":" + result.game + ",\"seed\":" + result.seed + ",\"won\":" + result.won
+                    + ",\"moves\":" + result.moves + ",\"guesses\":" + result.guesses
+                    + ",\"bot_cpu_ns\":" + result.botCpuNanos + ",\"peak_frontier\":" + result.peakFrontier
+                    + ",\"move_p50_ns\":" + moveTimes.getPercentile(0.5)
+                    + ",\"move_p99_ns\":" + moveTimes.getPercentile(0.99)
+                    + ",\"move_max_ns\":" + moveTimes.getMax()
+                    + ",\"search_nodes\":" + solver.searchNodes + ",\"backtracks\":" + solver.backtracks
+                    + ",\"propagation_steps\":" + solver.propagationSteps + ",\"solutions\":" + solver.solutions
+                    + ",\"component_cache_hits\":" + solver.componentCacheHits
+                    + ",\"component_cache_misses\":" + solver.componentCacheMisses
+                    + ",\"max_constraints\":" + solver.constraintCount
+                    + ",\"max_components\":" + solver.componentCount
+                    + ",\"largest_component\":" + solver.largestComponent
+                    + ",\"propagation_ns\":" + solver.propagationNanos + ",\"search_ns\":" + solver.searchNanos
+                    + ",\"guess_ns\":" + solver.guessNanos + "}";
+        }
+        return result.game + "," + result.seed + "," + result.won + "," + result.moves + "," + result.guesses
+                + "," + result.botCpuNanos + "," + result.peakFrontier + "," + moveTimes.getPercentile(0.5)
+                + "," + moveTimes.getPercentile(0.99) + "," + moveTimes.getMax() + "," + solver.searchNodes
+                + "," + solver.backtracks + "," + solver.propagationSteps + "," + solver.solutions
+                + "," + solver.componentCacheHits + "," + solver.componentCacheMisses
+                + "," + solver.constraintCount + "," + solver.componentCount + "," + solver.largestComponent
+                + "," + solver.propagationNanos + "," + solver.searchNanos + "," + solver.guessNanos;
+    }
+}
@@ -2,17 +2,22 @@
 package minesweeper.bot;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import minesweeper.model.Board;
 import minesweeper.model.Move;
+import minesweeper.structures.MoveRingBuffer;
 
 /**
-* This class is used to encapsulate the bot to a separate thread so it can be run concurrently with the GUI updater
+* This class is used to encapsulate a bot game as a task, so it can be run concurrently with the GUI updater
+* or with other games, see GameRunner. The game stops early if the running thread is interrupted.
 */
-public class BotExecutor extends Thread {
+public class BotExecutor implements Runnable {
 
     private BlockingQueue<Move> queue;
+    private MoveRingBuffer channel;
     private Bot bot;
     private Board board;
+    private final MoveTimer timer = new MoveTimer();
 
     public BotExecutor(BlockingQueue<Move> moveQueue, Bot bot, Board board) {
         this.queue = moveQueue;
@@ -20,14 +25,44 @@ public class BotExecutor extends Thread {
         this.board = board;
     }
 
+    /**
+     * Create a game that passes its moves through a bounded channel. When the
+     * channel is full, the bot waits according to the channel's backpressure policy.
+     *
+     * @param channel Channel with this game as its only producer
+     * @param bot The bot making the moves
+     * @param board The bot's own board
+     */
+    public BotExecutor(MoveRingBuffer channel, Bot bot, Board board) {
+        this.channel = channel;
+        this.bot = bot;
+        this.board = board;
+    }
+
     @Override
     public void run() {
-        //Run bot while game has not ended
-        while (!this.board.gameLost && !this.board.gameWon) {
+        //Run bot while game has not ended or been cancelled
+        while (!this.board.gameLost && !this.board.gameWon && !Thread.currentThread().isInterrupted()) {
             // Try to add new move from bot to queue
             // Bot makes moves to its own board and then the move is added to the supply queue
-            Move move = this.bot.makeMove(this.board);
-            this.queue.offer(move);
+            Move move;
+            try {
+                move = this.timer.makeMove(this.bot, this.board);
+            } catch (CancellationException e) {
+                // The game was cancelled in the middle of the bot's search
+                return;
+            }
+            if (this.channel == null) {
+                this.queue.offer(move);
+            } else {
+                try {
+                    this.channel.put(move);
+                } catch (InterruptedException e) {
+                    // The game was cancelled while waiting for room in the channel
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
             this.board.makeMove(move);
         }
 //        // This line can be used to quickly see if game was completed and if
@@ -35,4 +70,12 @@ public class BotExecutor extends Thread {
 //        System.out.println(board.gameWon);
     }
 
+    /**
+     * Wall clock and CPU time the bot took for each move of this game,
+     * complete once the game has finished
+     * @return The MoveTimer used for the bot's moves
+     */
+    public MoveTimer getMoveTimer() {
+        return this.timer;
+    }
 }
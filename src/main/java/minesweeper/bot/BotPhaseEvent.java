@@ -0,0 +1,46 @@
+package minesweeper.bot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one phase of MyBot.makeMove().
+ *
+ * <p>
+ * Disabled by default, enable it with config/jfr/minesweeper.jfc. While the
+ * event is disabled, start() and commit() do no more than check that it is.
+ * </p>
+ */
+@Name("minesweeper.BotPhase")
+@Label("Bot Phase")
+@Description("A phase of choosing a move")
+@Category({"Minesweeper", "Bot"})
+@Enabled(false)
+@StackTrace(false)
+class BotPhaseEvent extends Event {
+    // Updating the solver with squares opened since the last move
+    static final String DELTA = "delta";
+    static final String PROPAGATION = "propagation";
+    static final String SEARCH = "search";
+    static final String GUESS = "guess";
+
+    @Label("Phase")
+    String phase;
+
+    /**
+     * Begin timing a phase
+     * @param phase DELTA, PROPAGATION, SEARCH or GUESS
+     * @return Event to be committed when the phase is over
+     */
+    static BotPhaseEvent start(String phase) {
+        BotPhaseEvent event = new BotPhaseEvent();
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+}
@@ -1,6 +1,10 @@
 
 package minesweeper.bot;
 
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+import minesweeper.model.SolverStats;
 import minesweeper.model.Square;
 import minesweeper.structures.ConstraintSet;
 import minesweeper.structures.MyList;
@@ -23,10 +27,20 @@ import minesweeper.structures.SquareSet;
  * Given these three elements, the backtrackingSearch() method iterates through
  * possible mine configurations to find ones that satisfy all constraints. The
  * search is started with the findSafeSolutions() method, which then returns a
- * summary of the solutions.
+ * summary of the solutions. Groups of squares that no constraint links are
+ * independent, so findSafeSolutions() searches each group on its own, and if
+ * a ComponentCache is set, looks the group up by its canonical form first.
+ * </p>
+ *
+ * <p>
+ * The solver counts the work it does in a SolverStats object, which is
+ * collected and reset with takeStats(), typically once per move.
  * </p>
  */
 public class CSP {
+    // The interrupt flag is checked once per this many + 1 search nodes
+    private static final long INTERRUPT_CHECK_MASK = 1023;
+
     private SquareSet variables;
     private SquareMap<int[]> domains;
     private SquareMap<MyList<MinesweeperConstraint>> constraints;
@@ -36,6 +50,9 @@ public class CSP {
     private SquareSet mineSquares;
     private long solutionCount;
     private SquareMap<Long> solutionSummary;
+    private int constraintsCreated;
+    private ComponentCache componentCache;
+    private SolverStats stats = new SolverStats();
 
     public CSP(SquareSet variables, SquareMap<int[]> domains) {
         this.variables = variables;
@@ -61,7 +78,14 @@ public class CSP {
      * @see #reduceDomain(minesweeper.model.Square, int)
      */
     public boolean addConstraint(SquareSet squares, int mineIndicator) {
-        SquareSet updatedSquareList = new SquareSet(variables.width, variables.height);
+        long start = System.nanoTime();
+        boolean added = simplifyAndAddConstraint(squares, mineIndicator);
+        stats.propagationNanos += System.nanoTime() - start;
+        return added;
+    }
+
+    private boolean simplifyAndAddConstraint(SquareSet squares, int mineIndicator) {
+        SquareSet updatedSquareList = new SquareSet(variables.width, variables.height, squares.size());
         int updatedMineCount = mineIndicator;
         for (Square square : squares.getSquares()) {
             // Is there only one possible solution to this square?
@@ -76,18 +100,21 @@ public class CSP {
         }
         if (updatedMineCount == 0) {
             // None of the squares are mines
+            stats.propagationSteps += updatedSquareList.size();
             for (Square square : updatedSquareList.getSquares()) {
                 reduceDomain(square, 1);
             }
             return false;
         } else if (updatedMineCount == updatedSquareList.size()) {
             // All of the squares are mines
+            stats.propagationSteps += updatedSquareList.size();
             for (Square square : updatedSquareList.getSquares()) {
                 reduceDomain(square, 0);
             }
             return false;
         } else {
-            MinesweeperConstraint newConstraint = new MinesweeperConstraint(updatedMineCount, updatedSquareList);
+            MinesweeperConstraint newConstraint = new MinesweeperConstraint(updatedMineCount, updatedSquareList,
+                    constraintsCreated++);
             // The new constraint will be linked to every square it concerns
             for (Square square : updatedSquareList.getSquares()) {
                 if (!constraints.containsKey(square)) {
@@ -134,6 +161,10 @@ public class CSP {
      * @see #isConsistent(minesweeper.model.Square, minesweeper.structures.SquareMap)
      */
     private void backtrackingSearch(SquareMap<Integer> assignment) {
+        // An interrupted thread gives up the search, e.g. a hint the player no longer waits for
+        if ((stats.searchNodes++ & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Search interrupted");
+        }
         if (assignment.size() == this.constrainedVariables.size()) {
             // If all the squares that are currently of interest have a number
             // (0 for no mine or 1 for a mine) assigned, a solution has been found
@@ -157,6 +188,8 @@ public class CSP {
             if (isConsistent(unAssigned, assignment)) {
                 // Here the magic of recursion happens
                 backtrackingSearch(assignment);
+            } else {
+                stats.backtracks++;
             }
         }
         // The square must be removed from the assignment before backtracking
@@ -189,18 +222,58 @@ public class CSP {
         backtrackingSearch(assignment);
     }
 
+    /**
+     * Use a cache for the solutions of components, which may be shared with
+     * other CSPs and threads.
+     *
+     * @param componentCache The cache, or null to search every component
+     */
+    public void setComponentCache(ComponentCache componentCache) {
+        this.componentCache = componentCache;
+    }
+
     /**
      * Perform the backtracking search and summarize the findings.
      *
+     * The unknown squares are split into components linked by constraints and
+     * the solutions of each component are found separately. The number of
+     * solutions of all the squares is the product of those of the components,
+     * and the chance of a square being a mine only depends on its own
+     * component.
+     *
      * @param constrainedVariables The set of Squares that have constraints
      * @return A mapping of Squares to the percentage of solutions that assign
      * them as mines
+     * @throws CancellationException If the calling thread is interrupted during the search
      * @see #startSearch()
      */
     public SquareMap<Integer> findSafeSolutions(SquareSet constrainedVariables) {
+        long start = System.nanoTime();
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long nodesBefore = stats.searchNodes;
+        if (Thread.currentThread().isInterrupted()) {
+            // Also when every component would be found in the cache
+            throw new CancellationException("Search interrupted");
+        }
         this.constrainedVariables = constrainedVariables;
+        stats.constraintCount = Math.max(stats.constraintCount, constraintSet.size());
 
-        startSearch();
+        SquareMap<Long> mineSolutions = new SquareMap<>(variables.width, variables.height);
+        SquareMap<Long> componentSolutions = new SquareMap<>(variables.width, variables.height);
+        long totalSolutions = 1;
+        MyList<SquareSet> components = findComponents();
+        for (int i = 0; i < components.size() && totalSolutions > 0; i++) {
+            SquareSet component = components.get(i);
+            long solutions = solveComponent(component, mineSolutions);
+            for (Square square : component.getSquares()) {
+                componentSolutions.put(square, solutions);
+            }
+            totalSolutions = multiplySaturated(totalSolutions, solutions);
+        }
+        this.constrainedVariables = constrainedVariables;
+        this.solutionCount = totalSolutions;
+        stats.solutions += solutionCount;
 
         SquareMap<Integer> mineProbabilities = new SquareMap<>(variables.width, variables.height);
 
@@ -212,13 +285,15 @@ public class CSP {
                 mineProbabilities.put(square, summary);
                 continue;
             }
-            long mineSolutions = solutionSummary.get(square);
-            if (mineSolutions == 0) {
+            // With no solutions at all, no solution assigns the square as a mine either
+            long squareMineSolutions = solutionCount == 0 ? 0 : mineSolutions.get(square);
+            long squareSolutions = solutionCount == 0 ? 0 : componentSolutions.get(square);
+            if (squareMineSolutions == 0) {
                 // None of the solutions assigned this square as mine
                 mineProbabilities.put(square, 0);
                 // Record this square as known safe
                 reduceDomain(square, 1);
-            } else if (mineSolutions == solutionCount) {
+            } else if (squareMineSolutions == squareSolutions) {
                 // This square is mine in all solutions
                 mineProbabilities.put(square, 100);
                 // Record this square as known mine
@@ -226,11 +301,18 @@ public class CSP {
             } else {
                 // This is not an exact percentage, just an approximation to guide
                 // the bot in case no safe squares are found
-                double mineP =  1.0 * mineSolutions / solutionCount;
+                double mineP =  1.0 * squareMineSolutions / squareSolutions;
                 int minePercentage = (int) (mineP * 100);
                 mineProbabilities.put(square, minePercentage);
             }
         }
+        stats.searchNanos += System.nanoTime() - start;
+        if (event.shouldCommit()) {
+            event.frontierSize = constrainedVariables.size();
+            event.searchNodes = stats.searchNodes - nodesBefore;
+            event.solutions = solutionCount;
+            event.commit();
+        }
         return mineProbabilities;
     }
 
@@ -352,6 +434,7 @@ public class CSP {
      * @see #reduceDomain(minesweeper.model.Square, int)
      */
     public boolean updateConstraints() {
+        long start = System.nanoTime();
         MyList<MinesweeperConstraint> constraintList = constraintSet.getList();
         int nonTrivial = 0;
         for (int i = 0; i < constraintList.size(); i++) {
@@ -362,8 +445,9 @@ public class CSP {
             }
             // The constraint is trivial, so either all squares are mines or none
             constraintSet.remove(constraint);
-            SquareSet squareSet = new SquareSet(constraint.getSquares().width, constraint.getSquares().height);
+            SquareSet squareSet = new SquareSet(variables.width, variables.height, constraint.getSquares().size());
             squareSet.addAll(constraint.getSquares());
+            stats.propagationSteps += squareSet.size();
             if (constraint.triviality() == 0) {
                 for (Square square : squareSet.getSquares()) {
                     reduceDomain(square, 1);
@@ -374,9 +458,162 @@ public class CSP {
                 }
             }
         }
+        stats.propagationNanos += System.nanoTime() - start;
         return nonTrivial != constraintList.size();
     }
 
+    /**
+     * Split the unknown squares of the search into independent groups, where
+     * two squares are in the same group if a constraint links them. The number
+     * of groups and the size of the largest are recorded in the stats.
+     *
+     * @return The groups, in the order of their first square in the search
+     */
+    private MyList<SquareSet> findComponents() {
+        int height = variables.height;
+        // Union-find forest indexed by square id, -1 for squares outside the search
+        int[] parent = new int[variables.width * height];
+        Arrays.fill(parent, -1);
+        Square[] unknown = unknownVariables();
+        for (Square square : unknown) {
+            int id = square.getX() * height + square.getY();
+            parent[id] = id;
+        }
+        for (Square square : unknown) {
+            if (!constraints.containsKey(square)) {
+                continue;
+            }
+            MyList<MinesweeperConstraint> constraintList = constraints.get(square);
+            int root = findRoot(parent, square.getX() * height + square.getY());
+            for (int i = 0; i < constraintList.size(); i++) {
+                for (Square other : constraintList.get(i).getSquares().getSquares()) {
+                    int id = other.getX() * height + other.getY();
+                    if (parent[id] != -1) {
+                        parent[findRoot(parent, id)] = root;
+                    }
+                }
+            }
+        }
+        // The group of each root, by the id of the root
+        SquareSet[] groups = new SquareSet[parent.length];
+        MyList<SquareSet> components = new MyList<>();
+        int largest = 0;
+        for (Square square : unknown) {
+            int root = findRoot(parent, square.getX() * height + square.getY());
+            if (groups[root] == null) {
+                groups[root] = new SquareSet(variables.width, height);
+                components.add(groups[root]);
+            }
+            groups[root].add(square);
+            largest = Math.max(largest, groups[root].size());
+        }
+        stats.componentCount = Math.max(stats.componentCount, components.size());
+        stats.largestComponent = Math.max(stats.largestComponent, largest);
+        return components;
+    }
+
+    private Square[] unknownVariables() {
+        SquareSet unknown = new SquareSet(variables.width, variables.height);
+        for (Square square : constrainedVariables.getSquares()) {
+            if (domains.get(square).length == 2) {
+                unknown.add(square);
+            }
+        }
+        return unknown.getSquares();
+    }
+
+    /**
+     * Find the solutions of one component, from the cache if possible.
+     *
+     * @param component The unknown squares of the component
+     * @param mineSolutions Map the number of solutions with a mine on each square is put in
+     * @return Number of solutions of the component
+     */
+    private long solveComponent(SquareSet component, SquareMap<Long> mineSolutions) {
+        CanonicalComponent canonical = null;
+        if (componentCache != null) {
+            canonical = new CanonicalComponent(component.getSquares(), componentConstraints(component));
+            ComponentCache.Result cached = componentCache.get(canonical.encoding);
+            if (cached != null) {
+                stats.componentCacheHits++;
+                for (int i = 0; i < canonical.squares.length; i++) {
+                    mineSolutions.put(canonical.squares[i], cached.mineSolutions[i]);
+                }
+                return cached.solutionCount;
+            }
+            stats.componentCacheMisses++;
+        }
+        this.constrainedVariables = component;
+        startSearch();
+        for (Square square : component.getSquares()) {
+            mineSolutions.put(square, solutionSummary.get(square));
+        }
+        if (canonical != null) {
+            long[] canonicalMineSolutions = new long[canonical.squares.length];
+            for (int i = 0; i < canonical.squares.length; i++) {
+                canonicalMineSolutions[i] = solutionSummary.get(canonical.squares[i]);
+            }
+            componentCache.put(canonical.encoding, new ComponentCache.Result(canonicalMineSolutions, solutionCount));
+        }
+        return solutionCount;
+    }
+
+    /**
+     * The distinct constraints on the squares of a component. A constraint
+     * that also covers squares outside the search is never checked by it, so
+     * it is left out.
+     */
+    private MyList<MinesweeperConstraint> componentConstraints(SquareSet component) {
+        MyList<MinesweeperConstraint> found = new MyList<>();
+        for (Square square : component.getSquares()) {
+            if (!constraints.containsKey(square)) {
+                continue;
+            }
+            MyList<MinesweeperConstraint> constraintList = constraints.get(square);
+            for (int i = 0; i < constraintList.size(); i++) {
+                MinesweeperConstraint constraint = constraintList.get(i);
+                if (!containsSame(found, constraint) && coversOnly(constraint, component)) {
+                    found.add(constraint);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean containsSame(MyList<MinesweeperConstraint> list, MinesweeperConstraint constraint) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == constraint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean coversOnly(MinesweeperConstraint constraint, SquareSet component) {
+        for (Square square : constraint.getSquares().getSquares()) {
+            if (!component.contains(square)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long multiplySaturated(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static int findRoot(int[] parent, int id) {
+        while (parent[id] != id) {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
     /**
      * Updates the total of solutions found and adds one to the tally of mine
      * solutions for each square that is assigned as mine in this solution.
@@ -390,6 +627,24 @@ public class CSP {
         solutionCount++;
     }
 
+    /**
+     * Get the counters of the work done since the last call of takeStats()
+     * @return Counters that are still being updated
+     */
+    public SolverStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Collect the counters of the work done since the last call and start new ones
+     * @return Counters of the finished move
+     */
+    public SolverStats takeStats() {
+        SolverStats taken = stats;
+        stats = new SolverStats();
+        return taken;
+    }
+
     /**
      * This method is to facilitate testing.
      * @return The amount of solutions found in last backtracking search.
@@ -0,0 +1,172 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+
+/**
+ * A connected group of unknown squares and the constraints between them, in a
+ * form that is the same for every rotation, reflection and translation of the
+ * group.
+ *
+ * <p>
+ * The solutions of a group depend only on which squares each constraint
+ * covers and how many mines it has, so a 1-2-1 against the top wall has the
+ * same solutions as one against the left wall. For each of the 8 symmetries of
+ * the square, the coordinates of the squares are transformed and moved to
+ * start from 0, 0, the squares are sorted by their new coordinates, and the
+ * group is encoded as the coordinates followed by the sorted constraints, each
+ * as its mine count and the indices of its squares. The smallest of the 8
+ * encodings is the canonical one, and the squares are kept in the order of
+ * that encoding, so a result computed for the canonical form maps back to the
+ * squares of any group with the same encoding.
+ * </p>
+ *
+ * <p>
+ * The squares may also carry labels, such as the number of flags around
+ * them, which are encoded after the coordinates of each square.
+ * </p>
+ */
+final class CanonicalComponent {
+    // The symmetries of the square as {xx, xy, yx, yy}, x' = xx * x + xy * y and y' = yx * x + yy * y
+    private static final int[][] TRANSFORMS = {
+        {1, 0, 0, 1}, {0, -1, 1, 0}, {-1, 0, 0, -1}, {0, 1, -1, 0},
+        {-1, 0, 0, 1}, {1, 0, 0, -1}, {0, 1, 1, 0}, {0, -1, -1, 0}
+    };
+
+    /**
+     * The canonical encoding, equal for groups that are symmetric to each other
+     */
+    final int[] encoding;
+    /**
+     * The squares of the group in canonical order
+     */
+    final Square[] squares;
+
+    /**
+     * Find the canonical form of a group
+     *
+     * @param variables The unknown squares of the group
+     * @param constraints The constraints linking them, covering no other squares
+     */
+    CanonicalComponent(Square[] variables, MyList<MinesweeperConstraint> constraints) {
+        this(variables, constraints, null);
+    }
+
+    /**
+     * Find the canonical form of a group with labelled squares
+     *
+     * @param variables The unknown squares of the group
+     * @param constraints The constraints linking them, covering no other squares
+     * @param labels A label for each of the variables, or null
+     */
+    CanonicalComponent(Square[] variables, MyList<MinesweeperConstraint> constraints, int[] labels) {
+        HashMap<Integer, Integer> indices = new HashMap<>();
+        for (int i = 0; i < variables.length; i++) {
+            indices.put(variables[i].getX() << 16 | variables[i].getY(), i);
+        }
+        // The constraints by the original indices of their squares
+        int[][] covered = new int[constraints.size()][];
+        for (int c = 0; c < covered.length; c++) {
+            Square[] squares = constraints.get(c).getSquares().getSquares();
+            covered[c] = new int[squares.length];
+            for (int i = 0; i < squares.length; i++) {
+                covered[c][i] = indices.get(squares[i].getX() << 16 | squares[i].getY());
+            }
+        }
+        int[] best = null;
+        long[] bestOrder = null;
+        for (int[] transform : TRANSFORMS) {
+            long[] order = order(variables, transform);
+            int[] encoding = encode(order, covered, constraints, labels);
+            if (best == null || compare(encoding, best) < 0) {
+                best = encoding;
+                bestOrder = order;
+            }
+        }
+        this.encoding = best;
+        this.squares = new Square[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            this.squares[i] = variables[(int) bestOrder[i]];
+        }
+    }
+
+    /**
+     * Sort the squares by their transformed coordinates
+     *
+     * @return For each position in the order, the transformed coordinates in
+     * the upper 32 bits and the original index of the square in the lower
+     */
+    private static long[] order(Square[] variables, int[] transform) {
+        int[] xs = new int[variables.length];
+        int[] ys = new int[variables.length];
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        for (int i = 0; i < variables.length; i++) {
+            int x = variables[i].getX();
+            int y = variables[i].getY();
+            xs[i] = transform[0] * x + transform[1] * y;
+            ys[i] = transform[2] * x + transform[3] * y;
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+        }
+        long[] order = new long[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            long coordinates = (long) (xs[i] - minX) << 16 | (ys[i] - minY);
+            order[i] = coordinates << 32 | i;
+        }
+        Arrays.sort(order);
+        return order;
+    }
+
+    private static int[] encode(long[] order, int[][] covered, MyList<MinesweeperConstraint> constraints,
+            int[] labels) {
+        int[] rank = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rank[(int) order[i]] = i;
+        }
+        int[][] encoded = new int[covered.length][];
+        int length = 2 + (labels == null ? 2 : 3) * order.length;
+        for (int c = 0; c < covered.length; c++) {
+            encoded[c] = new int[covered[c].length + 2];
+            encoded[c][0] = constraints.get(c).mineIndicator;
+            encoded[c][1] = covered[c].length;
+            for (int i = 0; i < covered[c].length; i++) {
+                encoded[c][i + 2] = rank[covered[c][i]];
+            }
+            Arrays.sort(encoded[c], 2, encoded[c].length);
+            length += encoded[c].length;
+        }
+        Arrays.sort(encoded, CanonicalComponent::compare);
+
+        int[] encoding = new int[length];
+        int next = 0;
+        encoding[next++] = order.length;
+        for (long square : order) {
+            encoding[next++] = (int) (square >>> 48);
+            encoding[next++] = (int) (square >>> 32) & 0xFFFF;
+            if (labels != null) {
+                encoding[next++] = labels[(int) square];
+            }
+        }
+        encoding[next++] = encoded.length;
+        for (int[] constraint : encoded) {
+            System.arraycopy(constraint, 0, encoding, next, constraint.length);
+            next += constraint.length;
+        }
+        return encoding;
+    }
+
+    private static int compare(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return Integer.compare(a.length, b.length);
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+}
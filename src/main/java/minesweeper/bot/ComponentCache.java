@@ -0,0 +1,199 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the solutions of frontier components by their canonical form, see
+ * CanonicalComponent. A cache given to several bots lets the components seen
+ * in one game, in any orientation, be solved at once in the next. Since the
+ * search is then skipped, the solver counts of a game depend on the games
+ * played before it, so the cache is only used when asked for.
+ *
+ * <p>
+ * The key is the full canonical encoding, so unlike the hashes of a
+ * TranspositionTable it never confuses two components. The table is split
+ * into stripes with a lock each, and every stripe gets an equal part of the
+ * memory budget. The least recently used components of a stripe are evicted
+ * when it goes over its budget.
+ * </p>
+ */
+public class ComponentCache {
+    public static final long DEFAULT_BUDGET_BYTES = 32L << 20;
+
+    private static final int STRIPES = 16;
+    // Rough size of an entry without its arrays, used for the memory budget
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Create an empty cache
+     * @param budgetBytes Approximate number of bytes the entries may take
+     */
+    public ComponentCache(long budgetBytes) {
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe(budgetBytes / STRIPES);
+        }
+    }
+
+    /**
+     * Look up the solutions of a component
+     * @param encoding Canonical encoding of the component
+     * @return The solutions in canonical order, or null if the component is not cached
+     */
+    Result get(int[] encoding) {
+        this.lookups.incrementAndGet();
+        Key key = new Key(encoding);
+        Result result = stripe(key).get(key);
+        if (result != null) {
+            this.hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Store the solutions of a component
+     * @param encoding Canonical encoding of the component
+     * @param result The solutions in canonical order
+     */
+    void put(int[] encoding, Result result) {
+        Key key = new Key(encoding);
+        stripe(key).put(key, result);
+    }
+
+    private Stripe stripe(Key key) {
+        int hash = key.hash;
+        return this.stripes[(hash ^ hash >>> 16) & (STRIPES - 1)];
+    }
+
+    /**
+     * Number of lookups made
+     * @return Lookups since the cache was created
+     */
+    public long getLookups() {
+        return this.lookups.get();
+    }
+
+    /**
+     * Number of lookups that found their component
+     * @return Hits since the cache was created
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Approximate memory taken by the entries
+     * @return Bytes used, at most the budget given to the constructor
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for (Stripe stripe : this.stripes) {
+            bytes += stripe.getBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Remove every entry, e.g. to measure a cold start
+     */
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Solutions of a component in the canonical order of its squares
+     */
+    static final class Result {
+        /**
+         * Number of solutions with a mine on each square
+         */
+        final long[] mineSolutions;
+        final long solutionCount;
+
+        Result(long[] mineSolutions, long solutionCount) {
+            this.mineSolutions = mineSolutions;
+            this.solutionCount = solutionCount;
+        }
+    }
+
+    private static final class Key {
+        final int[] encoding;
+        final int hash;
+
+        Key(int[] encoding) {
+            this.encoding = encoding;
+            this.hash = Arrays.hashCode(encoding);
+        }
+
+        int bytes() {
+            return 4 * this.encoding.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(this.encoding, ((Key) obj).encoding);
+        }
+    }
+
+    /**
+     * Part of the cache guarded by its own lock, in order of last use
+     */
+    private static final class Stripe {
+        private final LinkedHashMap<Key, Result> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final long budget;
+        private long bytes = 0;
+
+        Stripe(long budget) {
+            this.budget = budget;
+        }
+
+        private static long bytes(Key key, Result result) {
+            return ENTRY_OVERHEAD_BYTES + key.bytes() + 8 * result.mineSolutions.length;
+        }
+
+        synchronized Result get(Key key) {
+            return this.entries.get(key);
+        }
+
+        synchronized void put(Key key, Result result) {
+            long size = bytes(key, result);
+            if (size > this.budget) {
+                return;
+            }
+            Result old = this.entries.put(key, result);
+            if (old != null) {
+                this.bytes -= bytes(key, old);
+            }
+            this.bytes += size;
+            Iterator<Map.Entry<Key, Result>> eldest = this.entries.entrySet().iterator();
+            while (this.bytes > this.budget) {
+                Map.Entry<Key, Result> entry = eldest.next();
+                this.bytes -= bytes(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        }
+
+        synchronized long getBytes() {
+            return this.bytes;
+        }
+
+        synchronized void clear() {
+            this.entries.clear();
+            this.bytes = 0;
+        }
+    }
+}
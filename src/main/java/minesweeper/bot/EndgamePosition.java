@@ -0,0 +1,164 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import minesweeper.model.BoardState;
+import minesweeper.model.NeighbourTable;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+import minesweeper.structures.SquareSet;
+
+/**
+ * The squares of a board that are neither opened nor flagged, when only a few
+ * of them are left, with everything that is known about them.
+ *
+ * <p>
+ * What is known is the constraint of every opened number next to them, the
+ * number of flags around each of them and the number of mines not yet flagged.
+ * Unlike the CSP, which leaves the squares without constraints out, the
+ * position covers every square left, so the number of mines is exact. The
+ * position is kept in canonical form, see CanonicalComponent, and its key is
+ * the canonical encoding followed by the number of mines, so the same
+ * position in any corner and orientation of any board has the same key.
+ * </p>
+ */
+final class EndgamePosition {
+    /**
+     * The squares in canonical order
+     */
+    final Square[] squares;
+    /**
+     * Key of the position in an EndgameTablebase
+     */
+    final int[] key;
+    /**
+     * Number of mines among the squares
+     */
+    final int mines;
+    /**
+     * For each square, the number of flags around it
+     */
+    final int[] flagsAround;
+    /**
+     * For each square, the squares of the position around it as a bit mask of canonical indices
+     */
+    final int[] neighbourMasks;
+    /**
+     * The constraints as bit masks of canonical indices, and the number of mines in each
+     */
+    final int[] constraintMasks;
+    final int[] constraintMines;
+
+    private EndgamePosition(Square[] squares, int[] key, int mines, int[] flagsAround, int[] neighbourMasks,
+            int[] constraintMasks, int[] constraintMines) {
+        this.squares = squares;
+        this.key = key;
+        this.mines = mines;
+        this.flagsAround = flagsAround;
+        this.neighbourMasks = neighbourMasks;
+        this.constraintMasks = constraintMasks;
+        this.constraintMines = constraintMines;
+    }
+
+    /**
+     * Find the endgame position of a board
+     *
+     * @param board The board
+     * @param maxSquares Largest number of squares in a position
+     * @return The position, or null if more squares are left, none are, or
+     * the board is not a grid
+     */
+    static EndgamePosition of(BoardState board, int maxSquares) {
+        int size = board.getWidth() * board.getHeight();
+        MyList<Square> unknown = new MyList<>();
+        for (int id = 0; id < size; id++) {
+            Square square = board.getSquareById(id);
+            if (!square.isOpened() && !square.isFlagged()) {
+                if (unknown.size() == maxSquares) {
+                    return null;
+                }
+                unknown.add(square);
+            }
+        }
+        if (unknown.size() == 0) {
+            return null;
+        }
+        Square[] variables = new Square[unknown.size()];
+        int[] labels = new int[variables.length];
+        NeighbourTable table = board.getNeighbourTable();
+        SquareSet constraining = new SquareSet(board.getWidth(), board.getHeight());
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = unknown.get(i);
+            int id = board.getSquareId(variables[i].getX(), variables[i].getY());
+            for (int j = table.offsets[id]; j < table.offsets[id + 1]; j++) {
+                Square neighbour = board.getSquareById(table.neighbours[j]);
+                if (neighbour.isFlagged()) {
+                    labels[i]++;
+                } else if (neighbour.isOpened()) {
+                    constraining.add(neighbour);
+                }
+            }
+        }
+        MyList<MinesweeperConstraint> constraints = new MyList<>();
+        for (Square number : constraining.getSquares()) {
+            int id = board.getSquareId(number.getX(), number.getY());
+            SquareSet around = new SquareSet(board.getWidth(), board.getHeight(), table.count(id));
+            int flags = 0;
+            for (int j = table.offsets[id]; j < table.offsets[id + 1]; j++) {
+                Square neighbour = board.getSquareById(table.neighbours[j]);
+                if (neighbour.isFlagged()) {
+                    flags++;
+                } else if (!neighbour.isOpened()) {
+                    around.add(neighbour);
+                }
+            }
+            MinesweeperConstraint constraint = new MinesweeperConstraint(number.surroundingMines() - flags, around);
+            if (!constraints.contains(constraint)) {
+                constraints.add(constraint);
+            }
+        }
+
+        CanonicalComponent canonical = new CanonicalComponent(variables, constraints, labels);
+        Square[] squares = canonical.squares;
+        int[] index = new int[size];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < squares.length; i++) {
+            index[board.getSquareId(squares[i].getX(), squares[i].getY())] = i;
+        }
+        int[] flagsAround = new int[squares.length];
+        int[] neighbourMasks = new int[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            int id = board.getSquareId(squares[i].getX(), squares[i].getY());
+            for (int j = table.offsets[id]; j < table.offsets[id + 1]; j++) {
+                int neighbour = index[table.neighbours[j]];
+                if (neighbour != -1) {
+                    neighbourMasks[i] |= 1 << neighbour;
+                }
+                if (board.getSquareById(table.neighbours[j]).isFlagged()) {
+                    flagsAround[i]++;
+                }
+            }
+            // The key does not hold the neighbours, they follow from the coordinates on a grid
+            for (int k = 0; k < squares.length; k++) {
+                boolean touching = k != i && Math.abs(squares[k].getX() - squares[i].getX()) <= 1
+                        && Math.abs(squares[k].getY() - squares[i].getY()) <= 1;
+                if (touching != ((neighbourMasks[i] >>> k & 1) == 1)) {
+                    return null;
+                }
+            }
+        }
+        int[] constraintMasks = new int[constraints.size()];
+        int[] constraintMines = new int[constraints.size()];
+        for (int c = 0; c < constraints.size(); c++) {
+            for (Square square : constraints.get(c).getSquares().getSquares()) {
+                constraintMasks[c] |= 1 << index[board.getSquareId(square.getX(), square.getY())];
+            }
+            constraintMines[c] = constraints.get(c).mineIndicator;
+        }
+
+        int mines = board.getUnflaggedMines();
+        int[] key = Arrays.copyOf(canonical.encoding, canonical.encoding.length + 1);
+        key[key.length - 1] = mines;
+        return new EndgamePosition(squares, key, mines, flagsAround, neighbourMasks, constraintMasks,
+                constraintMines);
+    }
+}
@@ -0,0 +1,277 @@
+package minesweeper.bot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exact solutions of endgame positions, precomputed by TablebaseGenerator
+ * and read from a memory mapped file.
+ *
+ * <p>
+ * The file starts with a header of the magic number, the format version, the
+ * largest number of squares in a position and the number of slots of the hash
+ * table that follows. A slot is the 64 bit hash of a position key, 0 for an
+ * empty slot, and the offset of the entry of the position in the file. Since
+ * several keys may have the same hash, an entry begins with its key: the
+ * length and the values as shorts. Then come the number of squares, the
+ * number of mine configurations, the number of configurations with a mine on
+ * each square in canonical order, the index of the best guess and the chance
+ * of winning from the position as a fraction of 65535.
+ * </p>
+ *
+ * <p>
+ * The file is mapped on the first lookup, so a tablebase costs nothing until a
+ * game reaches an endgame, and the entries stay outside the Java heap. A
+ * lookup is a hash probe and a few reads, with no search. The buffer is only
+ * read with absolute positions, so it can be shared by threads.
+ * </p>
+ */
+public class EndgameTablebase {
+    public static final int MAX_SQUARES = 10;
+
+    static final int MAGIC = 0x4D535442;
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 12;
+
+    private final Path file;
+    private volatile ByteBuffer buffer;
+    private int slots;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Create a tablebase that is read from a file when first needed
+     * @param file File written by TablebaseGenerator
+     */
+    public EndgameTablebase(Path file) {
+        this.file = file;
+    }
+
+    private ByteBuffer buffer() {
+        ByteBuffer mapped = this.buffer;
+        if (mapped == null) {
+            synchronized (this) {
+                mapped = this.buffer;
+                if (mapped == null) {
+                    mapped = map();
+                    this.buffer = mapped;
+                }
+            }
+        }
+        return mapped;
+    }
+
+    private ByteBuffer map() {
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IllegalStateException(this.file + " is not an endgame tablebase of version " + VERSION);
+            }
+            if (mapped.getInt(8) != MAX_SQUARES) {
+                throw new IllegalStateException(this.file + " has positions of up to " + mapped.getInt(8)
+                        + " squares, not " + MAX_SQUARES);
+            }
+            int slots = mapped.getInt(12);
+            if (slots <= 0 || Integer.bitCount(slots) != 1) {
+                throw new IllegalStateException(this.file + " has " + slots + " slots, not a power of two");
+            }
+            if (mapped.limit() < HEADER_BYTES + (long) slots * SLOT_BYTES) {
+                throw new IllegalStateException(this.file + " is truncated");
+            }
+            this.slots = slots;
+            return mapped;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read tablebase " + this.file, e);
+        }
+    }
+
+    /**
+     * Hash a position key, never 0 since that marks an empty slot
+     * @param key Key of a position, see EndgamePosition
+     * @return 64 bit hash of the key
+     */
+    static long hash(int[] key) {
+        long hash = key.length;
+        for (int value : key) {
+            hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Look up the solution of a position
+     * @param key Key of the position, see EndgamePosition
+     * @return The solution, or null if the position is not in the tablebase
+     * @throws UncheckedIOException If the file can not be read
+     * @throws IllegalStateException If the file is not a tablebase, or is damaged
+     */
+    Result lookup(int[] key) {
+        ByteBuffer mapped = buffer();
+        this.lookups.incrementAndGet();
+        long hash = hash(key);
+        int mask = this.slots - 1;
+        int slot = (int) hash & mask;
+        // The writer leaves at least half of the slots empty, so a probe ends well before going round
+        for (int probes = 0; probes < this.slots; probes++, slot = (slot + 1) & mask) {
+            int position = HEADER_BYTES + slot * SLOT_BYTES;
+            long stored = mapped.getLong(position);
+            if (stored == 0) {
+                return null;
+            }
+            if (stored == hash) {
+                Result result = read(mapped, mapped.getInt(position + 8), key);
+                if (result != null) {
+                    this.hits.incrementAndGet();
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of positions looked up
+     * @return Lookups since the tablebase was created
+     */
+    public long getLookups() {
+        return this.lookups.get();
+    }
+
+    /**
+     * Number of lookups that found their position
+     * @return Hits since the tablebase was created
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    private Result read(ByteBuffer mapped, int position, int[] key) {
+        // The key length and the key
+        checkBounds(mapped, position, 2 + 2 * key.length);
+        if (mapped.getShort(position) != key.length) {
+            return null;
+        }
+        position += 2;
+        for (int value : key) {
+            if (mapped.getShort(position) != value) {
+                return null;
+            }
+            position += 2;
+        }
+        // The number of squares, the number of solutions, a count for each square, the best guess and its chance
+        checkBounds(mapped, position, 1);
+        int squares = mapped.get(position++);
+        if (squares < 0 || squares > MAX_SQUARES) {
+            throw new IllegalStateException(this.file + " has an entry of " + squares + " squares");
+        }
+        checkBounds(mapped, position, 2 + 2 * squares + 1 + 2);
+        int solutions = mapped.getShort(position) & 0xFFFF;
+        position += 2;
+        int[] mineSolutions = new int[squares];
+        for (int i = 0; i < squares; i++) {
+            mineSolutions[i] = mapped.getShort(position) & 0xFFFF;
+            position += 2;
+        }
+        int bestGuess = mapped.get(position++);
+        if (bestGuess < 0 || bestGuess >= squares) {
+            throw new IllegalStateException(this.file + " has an entry with no square to open");
+        }
+        double winChance = (mapped.getShort(position) & 0xFFFF) / 65535.0;
+        return new Result(solutions, mineSolutions, bestGuess, winChance);
+    }
+
+    private void checkBounds(ByteBuffer mapped, int position, int bytes) {
+        if (position < HEADER_BYTES + this.slots * SLOT_BYTES || position > mapped.limit() - bytes) {
+            throw new IllegalStateException(this.file + " is truncated");
+        }
+    }
+
+    /**
+     * Write a tablebase file
+     * @param file File to be written
+     * @param keys Keys of the positions
+     * @param results Solutions of the positions, in the same order
+     * @throws IOException If the file can not be written
+     */
+    static void write(Path file, List<int[]> keys, List<Result> results) throws IOException {
+        int slots = Integer.highestOneBit(Math.max(1, keys.size()) * 2) * 2;
+        int dataStart = HEADER_BYTES + slots * SLOT_BYTES;
+        long[] slotHashes = new long[slots];
+        int[] slotOffsets = new int[slots];
+        int offset = dataStart;
+        for (int i = 0; i < keys.size(); i++) {
+            long hash = hash(keys.get(i));
+            int slot = (int) hash & (slots - 1);
+            while (slotHashes[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            slotHashes[slot] = hash;
+            slotOffsets[slot] = offset;
+            offset += 2 + 2 * keys.get(i).length + 1 + 2 + 2 * results.get(i).mineSolutions.length + 1 + 2;
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(MAX_SQUARES);
+            out.writeInt(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                out.writeLong(slotHashes[slot]);
+                out.writeInt(slotOffsets[slot]);
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                int[] key = keys.get(i);
+                Result result = results.get(i);
+                out.writeShort(key.length);
+                for (int value : key) {
+                    out.writeShort(value);
+                }
+                out.writeByte(result.mineSolutions.length);
+                out.writeShort(result.solutions);
+                for (int mineSolutions : result.mineSolutions) {
+                    out.writeShort(mineSolutions);
+                }
+                out.writeByte(result.bestGuess);
+                out.writeShort((int) Math.round(result.winChance * 65535));
+            }
+        }
+    }
+
+    /**
+     * Exact solution of an endgame position, with the squares in canonical order
+     */
+    static final class Result {
+        /**
+         * Number of ways to place the remaining mines on the squares
+         */
+        final int solutions;
+        /**
+         * Number of those with a mine on each square
+         */
+        final int[] mineSolutions;
+        /**
+         * Index of the square to open, a safe one if there is one
+         */
+        final int bestGuess;
+        /**
+         * Chance of winning the game from the position by opening the best guesses
+         */
+        final double winChance;
+
+        Result(int solutions, int[] mineSolutions, int bestGuess, double winChance) {
+            this.solutions = solutions;
+            this.mineSolutions = mineSolutions;
+            this.bestGuess = bestGuess;
+            this.winChance = winChance;
+        }
+    }
+}
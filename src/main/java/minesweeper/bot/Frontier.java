@@ -0,0 +1,250 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import minesweeper.model.BoardState;
+import minesweeper.model.NeighbourTable;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+
+/**
+ * The opened numbers of a position that have unopened squares around them,
+ * with those squares, which is all MyBot.solve() needs of the position.
+ *
+ * <p>
+ * GuessLookahead finds the frontier of the board a search starts from once,
+ * and the frontier of each hypothetical position of the search from it with
+ * reveal(): the revealed squares leave the constraints around them and their
+ * numbers add constraints of their own, so a position is solved without
+ * going through the board. The squares are given by their ids on the board,
+ * and the frontier keeps the smallest rectangle of the board holding them,
+ * which the solver works in instead of the whole board.
+ * </p>
+ *
+ * <p>
+ * Numbers that share no unopened squares, directly or through other
+ * numbers, constrain independent groups of squares, so a frontier can be
+ * split into components that are solved one at a time, see components().
+ * </p>
+ */
+final class Frontier {
+    final BoardState board;
+    /**
+     * Ids of the numbers and the number each shows
+     */
+    final int[] numberIds;
+    final int[] numbers;
+    /**
+     * For each number, the ids of the squares around it that are neither opened nor revealed
+     */
+    final int[][] around;
+    /**
+     * The rectangle of the board holding the numbers and the squares around them
+     */
+    final int originX;
+    final int originY;
+    final int width;
+    final int height;
+
+    private Frontier(BoardState board, int[] numberIds, int[] numbers, int[][] around) {
+        this.board = board;
+        this.numberIds = numberIds;
+        this.numbers = numbers;
+        this.around = around;
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = -1;
+        int maxY = -1;
+        for (int c = 0; c < numberIds.length; c++) {
+            Square number = board.getSquareById(numberIds[c]);
+            minX = Math.min(minX, number.getX());
+            minY = Math.min(minY, number.getY());
+            maxX = Math.max(maxX, number.getX());
+            maxY = Math.max(maxY, number.getY());
+            for (int id : around[c]) {
+                Square square = board.getSquareById(id);
+                minX = Math.min(minX, square.getX());
+                minY = Math.min(minY, square.getY());
+                maxX = Math.max(maxX, square.getX());
+                maxY = Math.max(maxY, square.getY());
+            }
+        }
+        this.originX = maxX == -1 ? 0 : minX;
+        this.originY = maxY == -1 ? 0 : minY;
+        this.width = maxX + 1 - this.originX;
+        this.height = maxY + 1 - this.originY;
+    }
+
+    /**
+     * Find the frontier of a position
+     * @param board The position
+     * @return Its frontier
+     */
+    static Frontier of(BoardState board) {
+        MyList<Square> numberSquares = new MyList<>();
+        MyList<int[]> unopened = new MyList<>();
+        for (Square square : board.getOpenSquares()) {
+            int[] squares = unopenedAround(board, board.getSquareId(square.getX(), square.getY()), new long[0]);
+            // Unlike on a real board, a hypothetical zero may have unopened neighbours, known to be safe
+            if (squares.length > 0) {
+                numberSquares.add(square);
+                unopened.add(squares);
+            }
+        }
+        int[] numberIds = new int[numberSquares.size()];
+        int[] numbers = new int[numberIds.length];
+        int[][] around = new int[numberIds.length][];
+        for (int c = 0; c < numberIds.length; c++) {
+            Square number = numberSquares.get(c);
+            numberIds[c] = board.getSquareId(number.getX(), number.getY());
+            numbers[c] = number.surroundingMines();
+            around[c] = unopened.get(c);
+        }
+        return new Frontier(board, numberIds, numbers, around);
+    }
+
+    /**
+     * Find the frontier of the position reached by opening squares of this one
+     * @param reveals The squares opened, each as its id shifted left by 8 bits plus the number it shows
+     * @return The frontier of the new position
+     */
+    Frontier reveal(long[] reveals) {
+        if (reveals.length == 0) {
+            return this;
+        }
+        int count = 0;
+        int[] numberIds = new int[this.numberIds.length + reveals.length];
+        int[] numbers = new int[numberIds.length];
+        int[][] around = new int[numberIds.length][];
+        for (int c = 0; c < this.numberIds.length; c++) {
+            int[] squares = without(this.around[c], reveals);
+            if (squares.length > 0) {
+                numberIds[count] = this.numberIds[c];
+                numbers[count] = this.numbers[c];
+                around[count] = squares;
+                count++;
+            }
+        }
+        for (long reveal : reveals) {
+            int id = (int) (reveal >>> 8);
+            int[] squares = unopenedAround(this.board, id, reveals);
+            if (squares.length > 0) {
+                numberIds[count] = id;
+                numbers[count] = (int) (reveal & 0xFF);
+                around[count] = squares;
+                count++;
+            }
+        }
+        return new Frontier(this.board, Arrays.copyOf(numberIds, count), Arrays.copyOf(numbers, count),
+                Arrays.copyOf(around, count));
+    }
+
+    /**
+     * Split the frontier into groups of numbers linked by the unopened squares they share
+     * @return The groups, in the order of their first number
+     */
+    Frontier[] components() {
+        int count = this.numberIds.length;
+        // Union-find forest of the numbers, and the first number seen around each square of the rectangle
+        int[] parent = new int[count];
+        int[] firstNumber = new int[this.width * this.height];
+        Arrays.fill(firstNumber, -1);
+        for (int c = 0; c < count; c++) {
+            parent[c] = c;
+            for (int id : this.around[c]) {
+                Square square = this.board.getSquareById(id);
+                int index = (square.getX() - this.originX) * this.height + square.getY() - this.originY;
+                if (firstNumber[index] == -1) {
+                    firstNumber[index] = c;
+                } else {
+                    parent[root(parent, c)] = root(parent, firstNumber[index]);
+                }
+            }
+        }
+        // The group of each root, by the index of the root
+        int[] group = new int[count];
+        Arrays.fill(group, -1);
+        int[] sizes = new int[count];
+        int groups = 0;
+        for (int c = 0; c < count; c++) {
+            int root = root(parent, c);
+            if (group[root] == -1) {
+                group[root] = groups++;
+            }
+            sizes[group[root]]++;
+        }
+        Frontier[] components = new Frontier[groups];
+        int[][] numberIds = new int[groups][];
+        int[][] numbers = new int[groups][];
+        int[][][] around = new int[groups][][];
+        int[] next = new int[groups];
+        for (int g = 0; g < groups; g++) {
+            numberIds[g] = new int[sizes[g]];
+            numbers[g] = new int[sizes[g]];
+            around[g] = new int[sizes[g]][];
+        }
+        for (int c = 0; c < count; c++) {
+            int g = group[root(parent, c)];
+            numberIds[g][next[g]] = this.numberIds[c];
+            numbers[g][next[g]] = this.numbers[c];
+            around[g][next[g]] = this.around[c];
+            next[g]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            components[g] = new Frontier(this.board, numberIds[g], numbers[g], around[g]);
+        }
+        return components;
+    }
+
+    private static int root(int[] parent, int c) {
+        while (parent[c] != c) {
+            parent[c] = parent[parent[c]];
+            c = parent[c];
+        }
+        return c;
+    }
+
+    private static int[] unopenedAround(BoardState board, int id, long[] reveals) {
+        NeighbourTable table = board.getNeighbourTable();
+        int[] squares = new int[table.count(id)];
+        int count = 0;
+        for (int i = table.offsets[id]; i < table.offsets[id + 1]; i++) {
+            int neighbour = table.neighbours[i];
+            if (!board.getSquareById(neighbour).isOpened() && !revealed(reveals, neighbour)) {
+                squares[count++] = neighbour;
+            }
+        }
+        return count == squares.length ? squares : Arrays.copyOf(squares, count);
+    }
+
+    /**
+     * The squares that are not revealed, the same array if none are
+     */
+    private static int[] without(int[] squares, long[] reveals) {
+        int count = 0;
+        for (int id : squares) {
+            if (!revealed(reveals, id)) {
+                count++;
+            }
+        }
+        if (count == squares.length) {
+            return squares;
+        }
+        int[] left = new int[count];
+        count = 0;
+        for (int id : squares) {
+            if (!revealed(reveals, id)) {
+                left[count++] = id;
+            }
+        }
+        return left;
+    }
+
+    private static boolean revealed(long[] reveals, int squareId) {
+        for (long reveal : reveals) {
+            if ((int) (reveal >>> 8) == squareId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
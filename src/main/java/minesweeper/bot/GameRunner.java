@@ -0,0 +1,103 @@
+package minesweeper.bot;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bot games concurrently on an ExecutorService.
+ *
+ * <p>
+ * Each submitted BotExecutor gets a Future that completes when its game has
+ * ended. Cancelling the Future interrupts the bot, which stops after its
+ * current move. By default the games run on virtual threads, one per game, so
+ * thousands of simultaneous games are practical. On a JDK without virtual
+ * threads, or with platformThreads(), they run on platform daemon threads.
+ * </p>
+ */
+public class GameRunner implements AutoCloseable {
+    private final ExecutorService executor;
+    private final boolean virtual;
+
+    private GameRunner(ExecutorService executor, boolean virtual) {
+        this.executor = executor;
+        this.virtual = virtual;
+    }
+
+    /**
+     * Create a runner that starts a virtual thread for every game, falling back
+     * to a growing pool of platform threads if the JDK has no virtual threads
+     * @return A new GameRunner
+     */
+    public static GameRunner virtualThreads() {
+        try {
+            // Looked up reflectively, so the project still builds and runs on older JDKs
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new GameRunner(executor, true);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException
+                | UnsupportedOperationException e) {
+            // Missing, or a preview feature that has not been enabled
+            return new GameRunner(Executors.newCachedThreadPool(daemonThreads()), false);
+        }
+    }
+
+    /**
+     * Create a runner with a fixed number of platform threads. Games beyond the
+     * number of threads wait for earlier ones to finish.
+     * @param threads Number of threads
+     * @return A new GameRunner
+     */
+    public static GameRunner platformThreads(int threads) {
+        return new GameRunner(Executors.newFixedThreadPool(threads, daemonThreads()), false);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger created = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "bot-game-" + created.incrementAndGet());
+            // A running bot game must not keep the application open
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Start playing a game
+     * @param game The bot, board and move queue of the game
+     * @return Future that completes with the game when it has ended, or is cancelled
+     */
+    public Future<BotExecutor> submit(BotExecutor game) {
+        return this.executor.submit(game, game);
+    }
+
+    /**
+     * Run some other bot computation, such as a hint for the player
+     * @param task The computation, which should give up when its thread is interrupted
+     * @param <T> Type of the result
+     * @return Future that completes with the result of the task
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return this.executor.submit(task);
+    }
+
+    /**
+     * Check whether games run on virtual threads
+     * @return True if every game gets its own virtual thread
+     */
+    public boolean usesVirtualThreads() {
+        return this.virtual;
+    }
+
+    /**
+     * Cancel all unfinished games and stop accepting new ones
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,603 @@
+package minesweeper.bot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import minesweeper.model.Board;
+import minesweeper.model.NeighbourTable;
+import minesweeper.model.SolverStats;
+import minesweeper.model.Square;
+import minesweeper.structures.SquareMap;
+
+/**
+ * Bounded depth expectimax search for choosing a guess.
+ *
+ * <p>
+ * The value of a position is the probability of surviving the guesses made
+ * from it, up to a given depth. A position with a square known to be safe is
+ * worth 1, since the bot can make progress without guessing. Guessing square
+ * c with mine probability p is worth (1 - p) times the expected value of the
+ * positions where c shows each possible number n. Every such position is
+ * solved with the CSP from the Frontier of the board, with the reveals that
+ * lead to it, so the board itself is never copied, modified or gone through.
+ * </p>
+ *
+ * <p>
+ * The chance of each number comes from the solution counts of those
+ * positions, but the counts can not be compared as they are. The squares
+ * around c that had no constraint before become constrained by its number,
+ * and counting every solution once would make each of them a mine in half
+ * of the cases. So the counts are first split by the number of mines the
+ * reveal puts on those squares, and each part is weighted by the chance of
+ * that many mines on unconstrained squares at the density of the unknown
+ * squares of the board, see numberChances().
+ * </p>
+ *
+ * <p>
+ * The candidates, and the numbers they might show, are evaluated in parallel
+ * as tasks of a ForkJoinPool. The same reveals in a different order lead to
+ * the same position, the next guess of the game starts from a position the
+ * last search may already have solved, and the frontier of a position may
+ * turn up again anywhere in another game, so solved positions are kept in a
+ * TranspositionTable by their frontier, by default the one shared by the
+ * whole JVM. The values of the positions depend on the time budget and are
+ * only kept for one search. The search deepens one level at a time until the time
+ * budget runs out, and the result of the deepest level that was completed is
+ * used. If not even the second level is completed, the guess is the one the
+ * bot makes without looking ahead. Like the bot's own guessing, the solutions
+ * of the constrained squares ignore the total number of mines, so the values
+ * are an approximation.
+ * </p>
+ *
+ * <p>
+ * The tasks run on the threads of the pool rather than the one asking for
+ * the guess, so their CPU time can be added to the SolverStats of the move.
+ * Each task counts the time it takes apart from the tasks it starts, which
+ * count their own, so a thread running tasks of several searches at once
+ * gives each search only the time of its own tasks.
+ * </p>
+ */
+public class GuessLookahead {
+    public static final int DEFAULT_DEPTH = 3;
+    public static final int DEFAULT_CANDIDATES = 6;
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private final ForkJoinPool pool;
+    private final int maxDepth;
+    private final int candidates;
+    private final long budgetNanos;
+    private final TranspositionTable transpositions;
+
+    /**
+     * Create a lookahead using the common ForkJoinPool, i.e. every core
+     * @param budgetMillis Time allowed for choosing one guess
+     */
+    public GuessLookahead(long budgetMillis) {
+        this(ForkJoinPool.commonPool(), DEFAULT_DEPTH, DEFAULT_CANDIDATES, budgetMillis);
+    }
+
+    /**
+     * Create a lookahead using the shared TranspositionTable
+     * @param pool Pool the positions are evaluated on
+     * @param maxDepth Largest number of consecutive guesses looked at
+     * @param candidates Number of least likely mines considered in each position
+     * @param budgetMillis Time allowed for choosing one guess
+     */
+    public GuessLookahead(ForkJoinPool pool, int maxDepth, int candidates, long budgetMillis) {
+        this(pool, maxDepth, candidates, budgetMillis, TranspositionTable.shared());
+    }
+
+    /**
+     * Create a lookahead
+     * @param pool Pool the positions are evaluated on
+     * @param maxDepth Largest number of consecutive guesses looked at
+     * @param candidates Number of least likely mines considered in each position
+     * @param budgetMillis Time allowed for choosing one guess
+     * @param transpositions Cache of solved positions
+     */
+    public GuessLookahead(ForkJoinPool pool, int maxDepth, int candidates, long budgetMillis,
+            TranspositionTable transpositions) {
+        this.transpositions = transpositions;
+        this.pool = pool;
+        this.maxDepth = maxDepth;
+        this.candidates = candidates;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /**
+     * Choose the guess with the best chance of surviving the following guesses
+     *
+     * @param bot Bot used for solving the positions
+     * @param board Current board, not modified while the guess is chosen
+     * @param probabilities Mine probabilities of the constrained squares on the board
+     * @param mystery An unconstrained square to be considered too, or null
+     * @param mysteryChance Mine probability of the unconstrained squares in percent
+     * @param leastLikelyMine The guess the bot makes without looking ahead,
+     * chosen if there is no time to look further
+     * @return The square to be opened
+     */
+    public Square chooseGuess(MyBot bot, Board board, SquareMap<Integer> probabilities,
+            Square mystery, int mysteryChance, Square leastLikelyMine) {
+        return chooseGuess(bot, board, probabilities, mystery, mysteryChance, leastLikelyMine, null);
+    }
+
+    /**
+     * Choose the guess with the best chance of surviving the following guesses,
+     * and count the CPU time the pool spent on it
+     *
+     * @param bot Bot used for solving the positions
+     * @param board Current board, not modified while the guess is chosen
+     * @param probabilities Mine probabilities of the constrained squares on the board
+     * @param mystery An unconstrained square to be considered too, or null
+     * @param mysteryChance Mine probability of the unconstrained squares in percent
+     * @param leastLikelyMine The guess the bot makes without looking ahead,
+     * chosen if there is no time to look further
+     * @param stats Stats of the move, whose lookaheadCpuNanos is increased by
+     * the CPU time of other threads, or null to not measure it
+     * @return The square to be opened
+     */
+    public Square chooseGuess(MyBot bot, Board board, SquareMap<Integer> probabilities,
+            Square mystery, int mysteryChance, Square leastLikelyMine, SolverStats stats) {
+        Search search = new Search(bot, board, System.nanoTime() + this.budgetNanos,
+                stats != null && threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled());
+        try {
+            return chooseGuess(search, probabilities, mystery, mysteryChance, leastLikelyMine);
+        } finally {
+            if (stats != null) {
+                stats.lookaheadCpuNanos += search.cpuNanos.get();
+            }
+        }
+    }
+
+    private Square chooseGuess(Search search, SquareMap<Integer> probabilities, Square mystery,
+            int mysteryChance, Square leastLikelyMine) {
+        Solution solution = Solution.of(probabilities, 0);
+        List<Guess> guesses = search.candidates(solution);
+        if (mystery != null) {
+            guesses.add(new Guess(mystery, mysteryChance));
+        }
+        if (guesses.isEmpty()) {
+            return leastLikelyMine;
+        }
+        // A depth of one is the bot's own guess, which needs no search. It goes
+        // first, so the deeper levels keep it when another guess is only as good.
+        Guess best = null;
+        for (Guess guess : guesses) {
+            if (guess.square == leastLikelyMine) {
+                best = guess;
+            }
+        }
+        if (best == null) {
+            int chance = probabilities.containsKey(leastLikelyMine) ? probabilities.get(leastLikelyMine)
+                    : mysteryChance;
+            best = new Guess(leastLikelyMine, chance);
+        } else {
+            guesses.remove(best);
+        }
+        guesses.add(0, best);
+        for (int depth = 2; depth <= this.maxDepth; depth++) {
+            List<GuessTask> tasks = new ArrayList<>();
+            for (Guess guess : guesses) {
+                tasks.add(new GuessTask(search, search.start, solution, guess, depth));
+            }
+            Guess deepest = this.pool.invoke(new BestGuessTask(search, tasks));
+            if (search.timedOut) {
+                break;
+            }
+            best = deepest;
+        }
+        return best.square;
+    }
+
+    /**
+     * Find the chance of each number a guessed square may show, if it is safe.
+     *
+     * <p>
+     * Let u be the number of unopened squares around the square with no
+     * constraint before it is opened, and T(x) the number of solutions of the
+     * position before it is opened with x mines on its other neighbours. Each
+     * of those extends to C(u, n - x) solutions of the position where the
+     * square shows n, so the counts S(n) of those positions give T(x) one at a
+     * time from T(x) = S(x) - sum over y &lt; x of T(y) C(u, x - y). The chance
+     * of n is then proportional to the sum over x of T(x) times the binomial
+     * chance of n - x mines on u squares of the given density.
+     * </p>
+     *
+     * @param solutions For each number, the number of solutions of the
+     * position where the square shows it
+     * @param unconstrained Number of squares around the square that had no
+     * constraint before it was opened
+     * @param density Chance of an unconstrained square being a mine
+     * @return The chance of each number, or null if no number can be shown
+     */
+    static double[] numberChances(long[] solutions, int unconstrained, double density) {
+        double[] binomial = new double[unconstrained + 1];
+        binomial[0] = 1;
+        for (int k = 1; k <= unconstrained; k++) {
+            binomial[k] = binomial[k - 1] * (unconstrained - k + 1) / k;
+        }
+        int numbers = solutions.length;
+        double[] constrained = new double[numbers];
+        for (int x = 0; x < numbers; x++) {
+            double rest = solutions[x];
+            for (int y = Math.max(0, x - unconstrained); y < x; y++) {
+                rest -= constrained[y] * binomial[x - y];
+            }
+            // Rounding may leave a little below zero where there are no solutions
+            constrained[x] = Math.max(0, rest);
+        }
+        double[] chances = new double[numbers];
+        double total = 0;
+        for (int n = 0; n < numbers; n++) {
+            for (int x = Math.max(0, n - unconstrained); x <= n; x++) {
+                int mines = n - x;
+                chances[n] += constrained[x] * binomial[mines] * Math.pow(density, mines)
+                        * Math.pow(1 - density, unconstrained - mines);
+            }
+            total += chances[n];
+        }
+        if (total == 0) {
+            return null;
+        }
+        for (int n = 0; n < numbers; n++) {
+            chances[n] /= total;
+        }
+        return chances;
+    }
+
+    /**
+     * A square that may be guessed and its mine probability in percent
+     */
+    private static class Guess {
+        final Square square;
+        final int mineChance;
+        double value;
+
+        Guess(Square square, int mineChance) {
+            this.square = square;
+            this.mineChance = mineChance;
+        }
+    }
+
+    /**
+     * A position reached from the board by hypothetical reveals, identified by
+     * the set of reveals regardless of their order
+     */
+    private static final class Position {
+        // Sorted, each reveal is the square id shifted left by 8 bits plus the number shown
+        final long[] reveals;
+
+        Position(long[] reveals) {
+            this.reveals = reveals;
+        }
+
+        Position reveal(int squareId, int number) {
+            long[] added = Arrays.copyOf(this.reveals, this.reveals.length + 1);
+            added[this.reveals.length] = (long) squareId << 8 | number;
+            Arrays.sort(added);
+            return new Position(added);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.reveals);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Position && Arrays.equals(this.reveals, ((Position) obj).reveals);
+        }
+    }
+
+    /**
+     * State shared by the tasks choosing one guess
+     */
+    private class Search {
+        final MyBot bot;
+        final Board board;
+        final long deadline;
+        final Position start;
+        // Numbers of the board and the unopened squares around them, the positions are solved from
+        final Frontier frontier;
+        // Chance of a square without constraints being safe
+        final double unconstrainedSafe;
+        // Values of the positions for each depth
+        final List<ConcurrentHashMap<Position, Double>> values = new ArrayList<>();
+        volatile boolean timedOut = false;
+        // The thread asking for the guess, whose CPU time is measured by the caller, if at all
+        final Thread caller = Thread.currentThread();
+        final boolean cpuTimed;
+        // CPU time the tasks took on other threads
+        final AtomicLong cpuNanos = new AtomicLong();
+
+        Search(MyBot bot, Board board, long deadline, boolean cpuTimed) {
+            this.bot = bot;
+            this.board = board;
+            this.deadline = deadline;
+            this.cpuTimed = cpuTimed;
+            this.start = new Position(new long[0]);
+            this.frontier = Frontier.of(board);
+            int unknown = board.getUnopenedSquaresCount() - board.getFlaggedSquaresCount();
+            this.unconstrainedSafe = unknown == 0 ? 1 : 1 - (double) board.getUnflaggedMines() / unknown;
+            for (int depth = 0; depth <= maxDepth; depth++) {
+                this.values.add(new ConcurrentHashMap<>());
+            }
+        }
+
+        long cpuTime() {
+            return this.cpuTimed ? threadBean.getCurrentThreadCpuTime() : 0;
+        }
+
+        /**
+         * Count the CPU time of the current thread since the given one, unless it is the caller's
+         */
+        void addCpuTime(long since) {
+            if (this.cpuTimed && Thread.currentThread() != this.caller) {
+                this.cpuNanos.addAndGet(threadBean.getCurrentThreadCpuTime() - since);
+            }
+        }
+
+        boolean outOfTime() {
+            if (!this.timedOut && System.nanoTime() > this.deadline) {
+                this.timedOut = true;
+            }
+            return this.timedOut;
+        }
+
+        /**
+         * Solve a position one component of its frontier at a time, so that
+         * the components other positions and games share are only solved once
+         */
+        Solution solve(Position position) {
+            Frontier[] components = this.frontier.reveal(position.reveals).components();
+            Solution[] parts = new Solution[components.length];
+            for (int i = 0; i < components.length; i++) {
+                long hash = TranspositionTable.hash(components[i]);
+                parts[i] = transpositions.get(hash, components[i], this.board.getId());
+                if (parts[i] == null) {
+                    parts[i] = this.bot.solve(components[i]);
+                    transpositions.put(hash, components[i], parts[i], this.board.getId());
+                }
+                if (parts[i].count == 0) {
+                    // The position can not be reached, whatever the other components hold
+                    return new Solution(new Square[0], new int[0], 0);
+                }
+            }
+            return Solution.combine(parts);
+        }
+
+        /**
+         * The least likely mines among the constrained squares, at most the configured number
+         */
+        List<Guess> candidates(Solution solution) {
+            List<Guess> guesses = new ArrayList<>();
+            for (int i = 0; i < solution.squares.length; i++) {
+                Square square = solution.squares[i];
+                int chance = solution.percentages[i];
+                if (chance < 100 && !square.isFlagged()) {
+                    guesses.add(new Guess(square, chance));
+                }
+            }
+            guesses.sort((a, b) -> Integer.compare(a.mineChance, b.mineChance));
+            return new ArrayList<>(guesses.subList(0, Math.min(candidates, guesses.size())));
+        }
+
+        /**
+         * Number of unopened squares around a square in a position, the largest number it can show
+         */
+        int unopenedNeighbours(Square square, Position position) {
+            NeighbourTable table = this.board.getNeighbourTable();
+            int id = this.board.getSquareId(square.getX(), square.getY());
+            int count = 0;
+            for (int i = table.offsets[id]; i < table.offsets[id + 1]; i++) {
+                int neighbour = table.neighbours[i];
+                if (!this.board.getSquareById(neighbour).isOpened() && !revealed(position, neighbour)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Number of squares around a square that have no constraint in a position
+         */
+        int unconstrainedNeighbours(Square square, Position position, Solution solution) {
+            NeighbourTable table = this.board.getNeighbourTable();
+            int id = this.board.getSquareId(square.getX(), square.getY());
+            int count = 0;
+            for (int i = table.offsets[id]; i < table.offsets[id + 1]; i++) {
+                Square neighbour = this.board.getSquareById(table.neighbours[i]);
+                if (!neighbour.isOpened() && !neighbour.isFlagged() && !revealed(position, table.neighbours[i])
+                        && !solution.contains(neighbour)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean revealed(Position position, int squareId) {
+            for (long reveal : position.reveals) {
+                if ((int) (reveal >>> 8) == squareId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A task of a search, which counts its CPU time apart from the tasks it starts
+     */
+    private abstract static class SearchTask<V> extends RecursiveTask<V> {
+        private static final long serialVersionUID = 1L;
+
+        final Search search;
+        private long cpuStart;
+
+        SearchTask(Search search) {
+            this.search = search;
+        }
+
+        @Override
+        protected final V compute() {
+            this.cpuStart = this.search.cpuTime();
+            try {
+                return evaluate();
+            } finally {
+                this.search.addCpuTime(this.cpuStart);
+            }
+        }
+
+        abstract V evaluate();
+
+        /**
+         * Run tasks and wait for them, without counting the time the current thread spends on them
+         */
+        void invokeTasks(List<? extends SearchTask<?>> tasks) {
+            this.search.addCpuTime(this.cpuStart);
+            invokeAll(tasks);
+            this.cpuStart = this.search.cpuTime();
+        }
+    }
+
+    /**
+     * Evaluates the guesses of a position in parallel and picks the best
+     */
+    private static class BestGuessTask extends SearchTask<Guess> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<GuessTask> tasks;
+
+        BestGuessTask(Search search, List<GuessTask> tasks) {
+            super(search);
+            this.tasks = tasks;
+        }
+
+        @Override
+        Guess evaluate() {
+            invokeTasks(this.tasks);
+            Guess best = null;
+            for (GuessTask task : this.tasks) {
+                task.guess.value = task.join();
+                if (best == null || task.guess.value > best.value) {
+                    best = task.guess;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Value of guessing a square in a position, looking the given number of guesses ahead
+     */
+    private static class GuessTask extends SearchTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final Position position;
+        // Mine probabilities of the constrained squares of the position
+        private final Solution solution;
+        private final Guess guess;
+        private final int depth;
+
+        GuessTask(Search search, Position position, Solution solution, Guess guess, int depth) {
+            super(search);
+            this.position = position;
+            this.solution = solution;
+            this.guess = guess;
+            this.depth = depth;
+        }
+
+        @Override
+        Double evaluate() {
+            double safe = 1 - this.guess.mineChance / 100.0;
+            Square square = this.guess.square;
+            // A flagged square is only guessed when every square left is a certain mine
+            if (this.depth <= 1 || square.isFlagged() || this.search.outOfTime()) {
+                return safe;
+            }
+            int id = this.search.board.getSquareId(square.getX(), square.getY());
+            int numbers = this.search.unopenedNeighbours(square, this.position) + 1;
+            List<OutcomeTask> outcomes = new ArrayList<>(numbers);
+            for (int number = 0; number < numbers; number++) {
+                Position revealed = this.position.reveal(id, number);
+                outcomes.add(new OutcomeTask(this.search, revealed, this.depth - 1));
+            }
+            invokeTasks(outcomes);
+            double[] values = new double[numbers];
+            long[] solutions = new long[numbers];
+            for (int number = 0; number < numbers; number++) {
+                values[number] = outcomes.get(number).join();
+                solutions[number] = outcomes.get(number).solutions;
+            }
+            int unconstrained = this.search.unconstrainedNeighbours(square, this.position, this.solution);
+            double[] chances = numberChances(solutions, unconstrained, 1 - this.search.unconstrainedSafe);
+            if (chances == null) {
+                return safe;
+            }
+            double weighted = 0;
+            for (int number = 0; number < numbers; number++) {
+                weighted += chances[number] * values[number];
+            }
+            return safe * weighted;
+        }
+    }
+
+    /**
+     * Value of a position reached by a reveal, with the number of solutions
+     * that tells how likely the reveal is
+     */
+    private static class OutcomeTask extends SearchTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final Position position;
+        private final int depth;
+        long solutions;
+
+        OutcomeTask(Search search, Position position, int depth) {
+            super(search);
+            this.position = position;
+            this.depth = depth;
+        }
+
+        @Override
+        Double evaluate() {
+            Solution solution = this.search.solve(this.position);
+            this.solutions = solution.count;
+            if (solution.count == 0) {
+                // The number can not be shown, so its value does not matter
+                return 0.0;
+            }
+            ConcurrentHashMap<Position, Double> table = this.search.values.get(this.depth);
+            Double known = table.get(this.position);
+            if (known != null) {
+                return known;
+            }
+            List<Guess> guesses = this.search.candidates(solution);
+            // Only unconstrained squares left to guess, or a safe square to open
+            double value = guesses.isEmpty() ? this.search.unconstrainedSafe : 1;
+            if (!guesses.isEmpty() && guesses.get(0).mineChance > 0) {
+                List<GuessTask> tasks = new ArrayList<>();
+                for (Guess guess : guesses) {
+                    tasks.add(new GuessTask(this.search, this.position, solution, guess, this.depth));
+                }
+                invokeTasks(tasks);
+                value = 0;
+                for (GuessTask task : tasks) {
+                    value = Math.max(value, task.join());
+                }
+            }
+            if (!this.search.timedOut) {
+                // A value found after running out of time is cut short, and not stored
+                table.put(this.position, value);
+            }
+            return value;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 
 package minesweeper.bot;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import minesweeper.model.Square;
 import minesweeper.structures.SquareMap;
 import minesweeper.structures.SquareSet;
@@ -10,12 +11,27 @@ import minesweeper.structures.SquareSet;
  * must equal a certain number.
  */
 public class MinesweeperConstraint {
+    private static final AtomicInteger nextId = new AtomicInteger();
+
     private SquareSet squares;
     public int mineIndicator;
+    private final int id;
 
     public MinesweeperConstraint(int mineIndicator, SquareSet squares) {
+        this(mineIndicator, squares, nextId.getAndIncrement());
+    }
+
+    /**
+     * Create a constraint with a given id, used as its hash code.
+     *
+     * @param mineIndicator Number of mines in the squares
+     * @param squares The squares this constraint concerns
+     * @param id Id of the constraint, e.g. its creation order within a CSP
+     */
+    public MinesweeperConstraint(int mineIndicator, SquareSet squares, int id) {
         this.squares = squares;
         this.mineIndicator = mineIndicator;
+        this.id = id;
     }
 
     public SquareSet getSquares() {
@@ -76,6 +92,17 @@ public class MinesweeperConstraint {
         return -1;
     }
 
+    /**
+     * The hash code is the id of the constraint rather than derived from its
+     * contents, as the squares and mine count change while the constraint is
+     * stored in a ConstraintSet. Unlike an identity hash code it is the same on
+     * every run, so the order of constraints in a ConstraintSet is too.
+     */
+    @Override
+    public int hashCode() {
+        return this.id;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
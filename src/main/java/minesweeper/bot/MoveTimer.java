@@ -0,0 +1,73 @@
+package minesweeper.bot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.structures.LatencyHistogram;
+
+/**
+ * Asks a bot for moves and records the wall clock and CPU time each makeMove call takes.
+ *
+ * <p>
+ * Move.timestamp is taken when the Move is constructed, which may be long
+ * before the bot returns it, so it can't be used to tell how long the bot
+ * computed. A MoveTimer is used by a single thread at a time, but the CPU
+ * time of a move includes the time other threads spent for it, as reported
+ * in its SolverStats, such as the tasks of a GuessLookahead.
+ * </p>
+ */
+public class MoveTimer {
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private final LatencyHistogram wallTimes = new LatencyHistogram();
+    private final LatencyHistogram cpuTimes = new LatencyHistogram();
+    private final boolean cpuTimed;
+
+    public MoveTimer() {
+        this.cpuTimed = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * Ask the bot for a move and record how long it took
+     *
+     * @param bot The bot to ask
+     * @param board Current board state
+     * @return The bot's move
+     */
+    public Move makeMove(Bot bot, Board board) {
+        long cpuBefore = this.cpuTimed ? threadBean.getCurrentThreadCpuTime() : 0;
+        long wallBefore = System.nanoTime();
+        Move move = bot.makeMove(board);
+        this.wallTimes.record(System.nanoTime() - wallBefore);
+        if (this.cpuTimed) {
+            long helpers = move.solverStats == null ? 0 : move.solverStats.lookaheadCpuNanos;
+            this.cpuTimes.record(threadBean.getCurrentThreadCpuTime() - cpuBefore + helpers);
+        }
+        return move;
+    }
+
+    /**
+     * Wall clock time of each makeMove call
+     * @return Histogram of durations in nanoseconds
+     */
+    public LatencyHistogram getWallTimes() {
+        return this.wallTimes;
+    }
+
+    /**
+     * CPU time of each makeMove call, empty if the JVM does not measure thread CPU time
+     * @return Histogram of durations in nanoseconds
+     */
+    public LatencyHistogram getCpuTimes() {
+        return this.cpuTimes;
+    }
+
+    /**
+     * Whether CPU times are being recorded
+     * @return True if the JVM measures thread CPU time
+     */
+    public boolean isCpuTimed() {
+        return this.cpuTimed;
+    }
+}
@@ -2,9 +2,12 @@ package minesweeper.bot;
 
 import java.util.ArrayList;
 import minesweeper.model.Board;
+import minesweeper.model.BoardState;
+import minesweeper.model.ChangeJournal;
 import minesweeper.model.GameStats;
 import minesweeper.model.Move;
 import minesweeper.model.MoveType;
+import minesweeper.model.NeighbourTable;
 import minesweeper.model.Highlight;
 import minesweeper.model.Square;
 import minesweeper.structures.MyList;
@@ -32,7 +35,104 @@ public class MyBot implements Bot {
     private GameStats gameStats;
     private CSP csp;
     private SquareSet numberSquares;
+    /**
+     * Changes made to the board of the current game since the last move
+     */
+    private ChangeJournal.Reader boardChanges;
+    private final int[] changeBatch = new int[256];
     public boolean wasGuess;
+    /**
+     * Number of unopened squares next to opened numbers when the last move was made
+     */
+    public int frontierSize;
+    /**
+     * Used for choosing guesses if set, otherwise the least likely mine is guessed
+     */
+    private final GuessLookahead lookahead;
+    /**
+     * Exact solutions of small endgames, consulted before searching if set
+     */
+    private final EndgameTablebase tablebase;
+    /**
+     * Outcomes of first moves and early guesses in earlier games, consulted at game start if set
+     */
+    private final OpeningBook openingBook;
+    /**
+     * Solutions of frontier components, looked up before searching them if set
+     */
+    private final ComponentCache componentCache;
+    /**
+     * Whether a guess has been made in the current game
+     */
+    private boolean hasGuessed;
+    /**
+     * Incremental solver of getPossibleMoves(), valid for the board with the id
+     * hintBoardId up to version hintCspVersion, when hintOpenCount squares were
+     * open. The numbers it has constraints for, and the unopened squares
+     * around them, are kept as the squares are opened.
+     */
+    private CSP hintCsp;
+    private SquareSet hintNumberSquares;
+    private SquareSet hintFrontier;
+    private int hintOpenCount;
+    private long hintBoardId = -1;
+    private long hintCspVersion = -1;
+    /**
+     * Result of the last completed hint and the board version it was computed for
+     */
+    private long hintVersion = -1;
+    private SquareMap<Integer> hintProbabilities;
+    private ArrayList<Move> hintMoves;
+
+    /**
+     * Create a bot that guesses the least likely mine
+     */
+    public MyBot() {
+        this(null);
+    }
+
+    /**
+     * Create a bot that chooses its guesses by looking ahead
+     * @param lookahead The lookahead used for guesses, or null to guess the least likely mine
+     */
+    public MyBot(GuessLookahead lookahead) {
+        this(lookahead, null);
+    }
+
+    /**
+     * Create a bot that plays endgames from a tablebase
+     * @param lookahead The lookahead used for guesses, or null to guess the least likely mine
+     * @param tablebase Solved endgames, or null to search them like other positions
+     */
+    public MyBot(GuessLookahead lookahead, EndgameTablebase tablebase) {
+        this(lookahead, tablebase, null);
+    }
+
+    /**
+     * Create a bot that starts its games from an opening book
+     * @param lookahead The lookahead used for guesses, or null to guess the least likely mine
+     * @param tablebase Solved endgames, or null to search them like other positions
+     * @param openingBook Outcomes of earlier games, or null to always start near the upper left corner
+     */
+    public MyBot(GuessLookahead lookahead, EndgameTablebase tablebase, OpeningBook openingBook) {
+        this(lookahead, tablebase, openingBook, null);
+    }
+
+    /**
+     * Create a bot that reuses the solutions of frontier components. The
+     * counts of the solver then depend on what the cache already holds.
+     * @param lookahead The lookahead used for guesses, or null to guess the least likely mine
+     * @param tablebase Solved endgames, or null to search them like other positions
+     * @param openingBook Outcomes of earlier games, or null to always start near the upper left corner
+     * @param componentCache Cache shared with other bots, or null to search every component
+     */
+    public MyBot(GuessLookahead lookahead, EndgameTablebase tablebase, OpeningBook openingBook,
+            ComponentCache componentCache) {
+        this.lookahead = lookahead;
+        this.tablebase = tablebase;
+        this.openingBook = openingBook;
+        this.componentCache = componentCache;
+    }
 
     /**
      * Make a single decision based on the given Board state.
@@ -42,15 +142,32 @@ public class MyBot implements Bot {
      */
     @Override
     public Move makeMove(Board board) {
+        Move move = chooseMove(board);
+        // The work done by the solver is reported with the move it led to
+        if (csp != null) {
+            move.solverStats = csp.takeStats();
+        }
+        return move;
+    }
+
+    private Move chooseMove(Board board) {
         SquareSet squaresOfInterest = new SquareSet(board.width, board.height);
         wasGuess = false;
+        frontierSize = 0;
 
         if (board.firstMove) {
             return getFirstMove(board);
         } else {
-            // If it's not the first move, update csp with open squares
-            for (Square openSquare : board.getOpenSquares()) {
-                csp.reduceDomain(openSquare, 1);
+            BotPhaseEvent delta = BotPhaseEvent.start(BotPhaseEvent.DELTA);
+            // If it's not the first move, update csp with the squares opened since the last move
+            int count = boardChanges.read(changeBatch);
+            while (count > 0) {
+                for (int i = 0; i < count; i++) {
+                    if (ChangeJournal.type(changeBatch[i]) == ChangeJournal.OPENED) {
+                        csp.reduceDomain(board.getSquareById(ChangeJournal.squareId(changeBatch[i])), 1);
+                    }
+                }
+                count = boardChanges.read(changeBatch);
             }
             //  Also update csp with new constraints and constrained squares.
             for (Square square : getConstrainingSquares(board).getSquares()) {
@@ -61,11 +178,15 @@ public class MyBot implements Bot {
                     csp.addConstraint(constrainedBySquare, square.surroundingMines());
                 }
             }
+            delta.commit();
         }
+        frontierSize = squaresOfInterest.size();
         // Adding constraints may have already found known squares due to all mine or
         // zero mine constraints, so updating constraints
+        BotPhaseEvent propagation = BotPhaseEvent.start(BotPhaseEvent.PROPAGATION);
         while (csp.updateConstraints()) {
         }
+        propagation.commit();
         // Checking if constraint simplification has found safe squares
         Square safe = csp.getSafeSquare();
         if (safe != null) {
@@ -80,8 +201,15 @@ public class MyBot implements Bot {
 //            System.out.println("Making a flagging move: " + newMove.locationString());
             return newMove;
         }
+        if (tablebase != null) {
+            Move endgameMove = getEndgameMove(board);
+            if (endgameMove != null) {
+                return endgameMove;
+            }
+        }
         // Make an opening move based on the list of possible moves csp creates
         // Opening move is created for the first safe square in the solution summary
+        BotPhaseEvent search = BotPhaseEvent.start(BotPhaseEvent.SEARCH);
         SquareMap<Integer> solutionSummary = csp.findSafeSolutions(squaresOfInterest);
         // Tracking the squares that are uncertain, to use for guessing if needed
         int sumOfMineProbability = 0;
@@ -89,6 +217,7 @@ public class MyBot implements Bot {
         for (int i = 0; i < solutionSquares.size(); i++) {
             Square square = solutionSquares.get(i);
             if (solutionSummary.get(square).equals(0)) {
+                search.commit();
                 Move newMove = new Move(MoveType.OPEN, square.getX(), square.getY());
 //                System.out.println("Making a move: " + newMove.locationString());
                 return newMove;
@@ -96,7 +225,10 @@ public class MyBot implements Bot {
                 sumOfMineProbability += solutionSummary.get(square);
             }
         }
+        search.commit();
         // If we get here, the move will have to rely on guesswork
+        BotPhaseEvent guess = BotPhaseEvent.start(BotPhaseEvent.GUESS);
+        long guessStart = System.nanoTime();
         // Get unopened squares that have no constraints
         SquareSet mysterySquares = new SquareSet(board.width, board.height);
         for (int x = 0; x < board.width; x++) {
@@ -112,11 +244,14 @@ public class MyBot implements Bot {
         // by approximating with the sumOfMineProbability gathered earlier
         Square leastLikelyMine;
         Integer lowestLikelihood;
+        Square mystery = null;
+        int mysteryChance = 100;
         if (!mysterySquares.isEmpty()) {
             int mysteryMines = board.getUnflaggedMines() - sumOfMineProbability / 100;
-            int mysteryChance = mysteryMines * 100 / mysterySquares.size();
+            mysteryChance = mysteryMines * 100 / mysterySquares.size();
             lowestLikelihood = mysteryChance;
-            leastLikelyMine = mysterySquares.getSquares()[0];
+            mystery = getMysteryGuess(board, mysterySquares);
+            leastLikelyMine = mystery;
         } else {
             lowestLikelihood = 100;
             leastLikelyMine = new Square(0, 0);
@@ -132,7 +267,15 @@ public class MyBot implements Bot {
                 leastLikelyMine = square;
             }
         }
+        if (lookahead != null) {
+            // Looks further ahead than the lowest probability, when the time budget allows
+            leastLikelyMine = lookahead.chooseGuess(this, board, solutionSummary, mystery, mysteryChance,
+                    leastLikelyMine, csp.getStats());
+        }
         wasGuess = true;
+        hasGuessed = true;
+        csp.getStats().guessNanos += System.nanoTime() - guessStart;
+        guess.commit();
         Move riskyMove = new Move(MoveType.OPEN, leastLikelyMine.getX(), leastLikelyMine.getY());
 //        System.out.println("Making a risky move: " + riskyMove.locationString());
         return riskyMove;
@@ -146,6 +289,12 @@ public class MyBot implements Bot {
      * Squares that could be either are given a black highlight (not visible in
      * current UI).
      *
+     * The result is cached by the board's id and version, so asking again for
+     * an unchanged board returns at once. When the same board has only moved
+     * forward, the csp of the previous hint is updated with the squares opened
+     * since, found from the order the board opened its squares in, instead of
+     * being built again.
+     *
      * @param board The current board state.
      * @return List of highlight moves for current board.
      */
@@ -153,26 +302,51 @@ public class MyBot implements Bot {
     public ArrayList<Move> getPossibleMoves(Board board) {
         // This method has to use ArrayList, because it instructs the UI to draw
         // highlights on the board. I do not want to tamper with that.
-        ArrayList<Move> movesToMake = new ArrayList<>();
-        
-        // Creates a new csp and finds all the constraints
-        CSP solver = createCsp(board);
-        SquareSet constrainedSquares = new SquareSet(board.width, board.height);
-        for (Square square : getConstrainingSquares(board).getSquares()) {
-            SquareSet constrainedBySquare = getConstrainedSquares(board, square);
-            constrainedSquares.addAll(constrainedBySquare);
-            solver.addConstraint(constrainedBySquare, square.surroundingMines());
+        if (board.getId() == hintBoardId && board.getVersion() == hintVersion) {
+            // Nothing has changed since the last hint
+            return new ArrayList<>(hintMoves);
+        }
+        if (board.getId() != hintBoardId || board.getVersion() < hintCspVersion
+                || board.getOpenCount() < hintOpenCount) {
+            // A different game, creates a new csp
+            hintCsp = createCsp(board);
+            hintNumberSquares = new SquareSet(board.width, board.height);
+            hintFrontier = new SquareSet(board.width, board.height);
+            hintOpenCount = 0;
+            hintBoardId = board.getId();
+            hintVersion = -1;
+        }
+        hintCspVersion = board.getVersion();
+
+        // The squares opened since the csp was last updated are now known to be safe
+        SquareSet variables = hintCsp.getVariables();
+        int openCount = board.getOpenCount();
+        for (int i = hintOpenCount; i < openCount; i++) {
+            Square openSquare = board.getSquareById(board.getOpenedSquareId(i));
+            if (variables.contains(openSquare)) {
+                hintCsp.reduceDomain(openSquare, 1);
+            }
+            hintFrontier.remove(openSquare);
+        }
+        // Adds the constraints of their numbers
+        for (int i = hintOpenCount; i < openCount; i++) {
+            Square square = board.getSquareById(board.getOpenedSquareId(i));
+            if (square.surroundingMines() != 0 && !hintNumberSquares.contains(square)) {
+                SquareSet constrainedBySquare = getConstrainedSquares(board, square);
+                hintFrontier.addAll(constrainedBySquare);
+                hintNumberSquares.add(square);
+                hintCsp.addConstraint(constrainedBySquare, square.surroundingMines());
+            }
         }
+        hintOpenCount = openCount;
         // How about an update loop?
-        while (solver.updateConstraints()) {
+        while (hintCsp.updateConstraints()) {
         }
         // Excecute the search for solutions
-        SquareMap<Integer> solutionSummary = solver.findSafeSolutions(constrainedSquares);
-        if (solutionSummary.size() == 0) {
-            return movesToMake;
-        }
-        
+        SquareMap<Integer> solutionSummary = hintCsp.findSafeSolutions(hintFrontier);
+
         // Adding highlight moves according to the solution summary
+        ArrayList<Move> movesToMake = new ArrayList<>();
         MyList<Square> solutionSquares = solutionSummary.keySet();
         for (int i = 0; i < solutionSquares.size(); i++) {
             Square square = solutionSquares.get(i);
@@ -188,7 +362,91 @@ public class MyBot implements Bot {
             }
             movesToMake.add(moveToMake);
         }
-        return movesToMake;
+        // Only a completed search is cached, an interrupted one throws before this
+        hintVersion = board.getVersion();
+        hintProbabilities = solutionSummary;
+        hintMoves = movesToMake;
+        return new ArrayList<>(movesToMake);
+    }
+
+    /**
+     * Solve a board state from scratch, e.g. a BoardOverlay with hypothetical
+     * reveals for evaluating a guess. Nothing is cached between calls.
+     *
+     * @param board Board state to be solved
+     * @return Mapping of the unopened Squares next to opened numbers to the
+     * percentage of solutions that assign them as mines
+     */
+    public SquareMap<Integer> getProbabilities(BoardState board) {
+        return solve(board).toMap(board.getWidth(), board.getHeight());
+    }
+
+    /**
+     * Solve a board state from scratch. Uses no mutable fields of the bot, so
+     * it can be called from several threads at once, as GuessLookahead does.
+     *
+     * @param board Board state to be solved
+     * @return The mine probabilities and the number of solutions
+     */
+    Solution solve(BoardState board) {
+        return solve(Frontier.of(board));
+    }
+
+    /**
+     * Solve the frontier of a board state. The csp is built in the rectangle
+     * of the frontier, with squares of its own moved to start from 0, 0, so
+     * its work does not depend on the size of the board.
+     *
+     * @param frontier The numbers and the unopened squares around them
+     * @return The mine probabilities and the number of solutions
+     */
+    Solution solve(Frontier frontier) {
+        int width = frontier.width;
+        int height = frontier.height;
+        Square[] local = new Square[width * height];
+        SquareSet variables = new SquareSet(width, height);
+        SquareMap<int[]> domains = new SquareMap<>(width, height);
+        SquareSet[] constrained = new SquareSet[frontier.numberIds.length];
+        for (int c = 0; c < constrained.length; c++) {
+            constrained[c] = new SquareSet(width, height, frontier.around[c].length);
+            for (int id : frontier.around[c]) {
+                Square square = frontier.board.getSquareById(id);
+                int index = (square.getX() - frontier.originX) * height + square.getY() - frontier.originY;
+                if (local[index] == null) {
+                    local[index] = new Square(square.getX() - frontier.originX, square.getY() - frontier.originY);
+                    variables.add(local[index]);
+                    domains.put(local[index], new int[] {0, 1});
+                }
+                constrained[c].add(local[index]);
+            }
+        }
+        CSP solver = new CSP(variables, domains);
+        solver.setComponentCache(this.componentCache);
+        for (int c = 0; c < constrained.length; c++) {
+            solver.addConstraint(constrained[c], frontier.numbers[c]);
+        }
+        while (solver.updateConstraints()) {
+        }
+        SquareMap<Integer> probabilities = solver.findSafeSolutions(variables);
+        MyList<Square> solved = probabilities.keySet();
+        Square[] squares = new Square[solved.size()];
+        int[] percentages = new int[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            Square square = solved.get(i);
+            squares[i] = frontier.board.getSquareAt(square.getX() + frontier.originX, square.getY() + frontier.originY);
+            percentages[i] = probabilities.get(square);
+        }
+        return new Solution(squares, percentages, solver.getSolutionCount());
+    }
+
+    /**
+     * Get the mine probabilities behind the last hint given by getPossibleMoves().
+     *
+     * @return Mapping of Squares to the percentage of solutions that assign them
+     * as mines, or null if no hint has been computed
+     */
+    public SquareMap<Integer> getHintProbabilities() {
+        return this.hintProbabilities;
     }
 
     /**
@@ -204,43 +462,107 @@ public class MyBot implements Bot {
      * Handle the first move on a board.
      *
      * For efficiency, this method creates and saves a CSP object to be used
-     * for subsequent calls of the makeMove() method.
+     * for subsequent calls of the makeMove() method, and starts reading the
+     * board's change journal to find the squares opened between moves.
      *
      * Since this implementation of minesweeper guarantees a safe zone of 9
      * squares, MyBot starts at a place where there's room for squares around
      * the safe zone, to make the most educated next move.
      *
-     * A move closer to the corner or to the centre might be even better, but
-     * that is not explored in this project.
+     * A move closer to the corner or to the centre might be even better. With
+     * an opening book, a first move that has won clearly more games on boards
+     * of the same size is made instead.
      *
      * @param board The current board state
-     * @return An opening move near the upper left corner of the board
+     * @return An opening move near the upper left corner of the board, or the
+     * one from the opening book
      */
     private Move getFirstMove(Board board) {
         this.csp = createCsp(board);
         this.numberSquares = new SquareSet(board.width, board.height);
+        if (this.boardChanges != null) {
+            this.boardChanges.close();
+        }
+        this.boardChanges = board.getChangeJournal().newReader();
+        this.hasGuessed = false;
         Move firstMove = new Move(MoveType.OPEN, 0, 0);
         // Safeguarding for malicious gamers who create extremely tiny boards
         for (int i = 2; i > 0; i--) {
             if (board.withinBoard(i, i)) {
                 firstMove = new Move(MoveType.OPEN, i, i);
-                return firstMove;
+                break;
+            }
+        }
+        if (this.openingBook != null) {
+            Square square = this.openingBook.getFirstMove(board.width, board.height, board.totalMines,
+                    firstMove.x, firstMove.y);
+            if (square != null) {
+                return new Move(MoveType.OPEN, square.getX(), square.getY());
             }
         }
         return firstMove;
     }
 
     /**
-     * Create a CSP object based on the Board object given as a parameter.
+     * Choose the unconstrained square to open if one is guessed. They are all
+     * as likely to be mines, so without an opening book the first one is
+     * chosen. For the first guess of a game, the opening book may know one
+     * that has won clearly more games.
+     *
+     * @param board The current board state
+     * @param mysterySquares The unopened squares without constraints, not empty
+     * @return The square to open
+     */
+    private Square getMysteryGuess(Board board, SquareSet mysterySquares) {
+        Square[] squares = mysterySquares.getSquares();
+        if (this.openingBook == null || this.hasGuessed) {
+            return squares[0];
+        }
+        return this.openingBook.getGuess(board.width, board.height, board.totalMines, squares);
+    }
+
+    /**
+     * Look the board up in the endgame tablebase.
+     *
+     * The tablebase knows the exact number of mines left, so it may find safe
+     * squares the csp can not. Without a safe square, the best guess of the
+     * tablebase is the one most likely to win the game, not just the least
+     * likely mine.
+     *
+     * @param board The current board state
+     * @return A move to a safe square or the best guess, or null if the board
+     * is not in the tablebase
+     */
+    private Move getEndgameMove(Board board) {
+        if (board.getUnopenedSquaresCount() - board.getFlaggedSquaresCount() > EndgameTablebase.MAX_SQUARES) {
+            return null;
+        }
+        EndgamePosition position = EndgamePosition.of(board, EndgameTablebase.MAX_SQUARES);
+        if (position == null) {
+            return null;
+        }
+        EndgameTablebase.Result result = tablebase.lookup(position.key);
+        if (result == null) {
+            return null;
+        }
+        Square square = position.squares[result.bestGuess];
+        wasGuess = result.mineSolutions[result.bestGuess] > 0;
+        return new Move(MoveType.OPEN, square.getX(), square.getY());
+    }
+
+    /**
+     * Create a CSP object based on the Board object given as a parameter. The
+     * CSP solves its components through the component cache of the bot, if
+     * it has one.
      *
      * @param board Current state of the board
      * @return A CSP object corresponding to the board
      */
-    private CSP createCsp(Board board) {
+    private CSP createCsp(BoardState board) {
         // The variables are all the unopened squares of the board
-        SquareSet variableList = new SquareSet(board.width, board.height);
-        for (int x = 0; x < board.width; x++) {
-            for (int y = 0; y < board.height; y++) {
+        SquareSet variableList = new SquareSet(board.getWidth(), board.getHeight());
+        for (int x = 0; x < board.getWidth(); x++) {
+            for (int y = 0; y < board.getHeight(); y++) {
                 Square square = board.getSquareAt(x, y);
                 if (!square.isOpened()) {
                     variableList.add(square);
@@ -248,12 +570,14 @@ public class MyBot implements Bot {
             }
         }
         // Domains for CSP is a map of Squares and arrays containing 0 and 1.
-        SquareMap<int[]> domains = new SquareMap<>(board.width, board.height);
+        SquareMap<int[]> domains = new SquareMap<>(board.getWidth(), board.getHeight());
         for (Square variable : variableList.getSquares()) {
             domains.put(variable, new int[] {0, 1});
         }
 
-        return new CSP(variableList, domains);
+        CSP solver = new CSP(variableList, domains);
+        solver.setComponentCache(this.componentCache);
+        return solver;
     }
 
     /**
@@ -262,8 +586,8 @@ public class MyBot implements Bot {
      * @param board Current state of the board
      * @return A set of opened squares that have mines around them
      */
-    private SquareSet getConstrainingSquares(Board board) {
-        SquareSet constrainingSquares = new SquareSet(board.width, board.height);
+    private SquareSet getConstrainingSquares(BoardState board) {
+        SquareSet constrainingSquares = new SquareSet(board.getWidth(), board.getHeight());
         for (Square square : board.getOpenSquares()) {
             if (square.surroundingMines() != 0) {
                 constrainingSquares.add(square);
@@ -279,18 +603,14 @@ public class MyBot implements Bot {
      * @param constrainingSquare A square whose surrounding squares are to be found
      * @return A list of unopened squares around the given square
      */
-    private SquareSet getConstrainedSquares(Board board, Square constrainingSquare) {
-        SquareSet constrainedSquares = new SquareSet(board.width, board.height);
-        for (int x = -1; x <= 1; x++) {
-            for (int y = -1; y <= 1; y++) {
-                int currentX = constrainingSquare.getX() + x;
-                int currentY = constrainingSquare.getY() + y;
-                if (board.withinBoard(currentX, currentY)) {
-                    Square candidate = board.getSquareAt(currentX, currentY);
-                    if (!candidate.isOpened()) {
-                        constrainedSquares.add(candidate);
-                    }
-                }
+    private SquareSet getConstrainedSquares(BoardState board, Square constrainingSquare) {
+        NeighbourTable table = board.getNeighbourTable();
+        int id = board.getSquareId(constrainingSquare.getX(), constrainingSquare.getY());
+        SquareSet constrainedSquares = new SquareSet(board.getWidth(), board.getHeight(), table.count(id));
+        for (int i = table.offsets[id]; i < table.offsets[id + 1]; i++) {
+            Square candidate = board.getSquareById(table.neighbours[i]);
+            if (!candidate.isOpened()) {
+                constrainedSquares.add(candidate);
             }
         }
         return constrainedSquares;
@@ -0,0 +1,333 @@
+package minesweeper.bot;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import minesweeper.model.Square;
+
+/**
+ * Empirical outcomes of first moves and early guesses for each board
+ * configuration, recorded by OpeningBookGenerator from simulated games.
+ *
+ * <p>
+ * A board looks the same from each of its corners, so the squares are pooled
+ * by their symmetry class: the square mirrored into the upper left quarter of
+ * the board, and for a square board also reflected over the diagonal. For each
+ * class the book has the number of games opened there and the number of those
+ * won, and the number of games whose first guess was an unconstrained square
+ * of the class and the number of those won.
+ * </p>
+ *
+ * <p>
+ * The file starts with the magic number, the format version and the number of
+ * configurations. A configuration is its width, height and number of mines
+ * and the number of classes, followed by the coordinates and the four counts
+ * of each class. The file is read on the first lookup, so a book costs nothing
+ * for configurations that are never played.
+ * </p>
+ *
+ * <p>
+ * The win rates are estimates, and most classes win about as often as the
+ * others, so the book only replaces the square the bot would have chosen
+ * itself when another class has clearly won more often. The class must have
+ * been played in at least MIN_GAMES games, and the lower end of the Wilson
+ * score interval of its win rate must be above the upper end of the interval
+ * of the class of the bot's own square.
+ * </p>
+ */
+public class OpeningBook {
+    static final int MAGIC = 0x4D534F42;
+    static final int VERSION = 1;
+    /**
+     * Fewest games a class must have been played in for its win rate to be used
+     */
+    static final int MIN_GAMES = 1000;
+    /**
+     * Normal quantile of the confidence intervals of the win rates
+     */
+    static final double Z = 1.96;
+
+    private final Path file;
+    private volatile HashMap<Long, Configuration> configurations;
+
+    /**
+     * Create a book that is read from a file when first needed
+     * @param file File written by OpeningBookGenerator
+     */
+    public OpeningBook(Path file) {
+        this.file = file;
+    }
+
+    private HashMap<Long, Configuration> configurations() {
+        HashMap<Long, Configuration> read = this.configurations;
+        if (read == null) {
+            synchronized (this) {
+                read = this.configurations;
+                if (read == null) {
+                    read = read();
+                    this.configurations = read;
+                }
+            }
+        }
+        return read;
+    }
+
+    private HashMap<Long, Configuration> read() {
+        HashMap<Long, Configuration> read = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(this.file))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException(this.file + " is not an opening book of version " + VERSION);
+            }
+            int count = in.readInt();
+            for (int c = 0; c < count; c++) {
+                Configuration configuration = new Configuration(in.readShort(), in.readShort(), in.readInt(),
+                        in.readShort());
+                for (int i = 0; i < configuration.xs.length; i++) {
+                    configuration.setClass(i, in.readShort(), in.readShort());
+                    configuration.firstGames[i] = in.readInt();
+                    configuration.firstWins[i] = in.readInt();
+                    configuration.guessGames[i] = in.readInt();
+                    configuration.guessWins[i] = in.readInt();
+                }
+                read.put(key(configuration.width, configuration.height, configuration.mines), configuration);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read opening book " + this.file, e);
+        }
+        return read;
+    }
+
+    private static long key(int width, int height, int mines) {
+        return (long) width << 48 | (long) height << 32 | mines;
+    }
+
+    /**
+     * Find the symmetry class of a square
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param x X coordinate of the square
+     * @param y Y coordinate of the square
+     * @return Coordinates of the square representing the class, {x, y}
+     */
+    static int[] canonical(int width, int height, int x, int y) {
+        int cx = Math.min(x, width - 1 - x);
+        int cy = Math.min(y, height - 1 - y);
+        if (width == height && cx > cy) {
+            return new int[] {cy, cx};
+        }
+        return new int[] {cx, cy};
+    }
+
+    /**
+     * Get a first move that has won clearly more often than the bot's own
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param mines Number of mines
+     * @param x X coordinate of the square the bot would open
+     * @param y Y coordinate of the square the bot would open
+     * @return Square to open first, or null if no class has won clearly more
+     * often or the book does not have the configuration
+     * @throws UncheckedIOException If the file can not be read
+     * @throws IllegalStateException If the file is not an opening book
+     */
+    Square getFirstMove(int width, int height, int mines, int x, int y) {
+        Configuration configuration = configurations().get(key(width, height, mines));
+        if (configuration == null) {
+            return null;
+        }
+        int bot = configuration.classOf(x, y);
+        double bar = upperBound(configuration.firstWins[bot], configuration.firstGames[bot]);
+        int best = -1;
+        double bestBound = bar;
+        for (int i = 0; i < configuration.xs.length; i++) {
+            if (configuration.firstGames[i] >= MIN_GAMES) {
+                double bound = lowerBound(configuration.firstWins[i], configuration.firstGames[i]);
+                if (bound > bestBound) {
+                    best = i;
+                    bestBound = bound;
+                }
+            }
+        }
+        return best == -1 ? null : new Square(configuration.xs[best], configuration.ys[best]);
+    }
+
+    /**
+     * Choose the unconstrained square to open for the first guess of a game.
+     * The first square is the bot's own choice, and another one is chosen
+     * only if guesses on its class have won clearly more often.
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param mines Number of mines
+     * @param squares The unconstrained squares, not empty
+     * @return The square to open
+     * @throws UncheckedIOException If the file can not be read
+     * @throws IllegalStateException If the file is not an opening book
+     */
+    Square getGuess(int width, int height, int mines, Square[] squares) {
+        Configuration configuration = configurations().get(key(width, height, mines));
+        if (configuration == null) {
+            return squares[0];
+        }
+        int bot = configuration.classOf(squares[0].getX(), squares[0].getY());
+        double bestBound = upperBound(configuration.guessWins[bot], configuration.guessGames[bot]);
+        Square chosen = squares[0];
+        for (Square square : squares) {
+            int i = configuration.classOf(square.getX(), square.getY());
+            if (configuration.guessGames[i] >= MIN_GAMES) {
+                double bound = lowerBound(configuration.guessWins[i], configuration.guessGames[i]);
+                if (bound > bestBound) {
+                    chosen = square;
+                    bestBound = bound;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Lower end of the Wilson score interval of a win rate
+     */
+    static double lowerBound(int wins, int games) {
+        return games == 0 ? 0 : centre(wins, games) - halfWidth(wins, games);
+    }
+
+    /**
+     * Upper end of the Wilson score interval of a win rate
+     */
+    static double upperBound(int wins, int games) {
+        return games == 0 ? 1 : centre(wins, games) + halfWidth(wins, games);
+    }
+
+    private static double centre(int wins, int games) {
+        double rate = (double) wins / games;
+        return (rate + Z * Z / (2 * games)) / (1 + Z * Z / games);
+    }
+
+    private static double halfWidth(int wins, int games) {
+        double rate = (double) wins / games;
+        return Z / (1 + Z * Z / games) * Math.sqrt(rate * (1 - rate) / games + Z * Z / (4.0 * games * games));
+    }
+
+    /**
+     * Write an opening book file
+     * @param file File to be written
+     * @param configurations The configurations
+     * @throws IOException If the file can not be written
+     */
+    static void write(Path file, List<Configuration> configurations) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(configurations.size());
+            for (Configuration configuration : configurations) {
+                out.writeShort(configuration.width);
+                out.writeShort(configuration.height);
+                out.writeInt(configuration.mines);
+                out.writeShort(configuration.xs.length);
+                for (int i = 0; i < configuration.xs.length; i++) {
+                    out.writeShort(configuration.xs[i]);
+                    out.writeShort(configuration.ys[i]);
+                    out.writeInt(configuration.firstGames[i]);
+                    out.writeInt(configuration.firstWins[i]);
+                    out.writeInt(configuration.guessGames[i]);
+                    out.writeInt(configuration.guessWins[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts of the symmetry classes of one board configuration
+     */
+    static final class Configuration {
+        final int width;
+        final int height;
+        final int mines;
+        /**
+         * Coordinates of the square representing each class
+         */
+        final int[] xs;
+        final int[] ys;
+        /**
+         * Games opened on each class, and the number of those won
+         */
+        final int[] firstGames;
+        final int[] firstWins;
+        /**
+         * Games with the first guess on an unconstrained square of each
+         * class, and the number of those won
+         */
+        final int[] guessGames;
+        final int[] guessWins;
+        /**
+         * Index of the class of each square representing one, by x * height + y
+         */
+        private final int[] classes;
+
+        Configuration(int width, int height, int mines, int classes) {
+            this.width = width;
+            this.height = height;
+            this.mines = mines;
+            this.xs = new int[classes];
+            this.ys = new int[classes];
+            this.firstGames = new int[classes];
+            this.firstWins = new int[classes];
+            this.guessGames = new int[classes];
+            this.guessWins = new int[classes];
+            this.classes = new int[width * height];
+        }
+
+        /**
+         * Set the square representing a class
+         * @param i Index of the class
+         * @param x X coordinate of the square
+         * @param y Y coordinate of the square
+         */
+        void setClass(int i, int x, int y) {
+            this.xs[i] = x;
+            this.ys[i] = y;
+            this.classes[x * this.height + y] = i;
+        }
+
+        /**
+         * Create a configuration with every class of the board and no games
+         * @param width Width of the board
+         * @param height Height of the board
+         * @param mines Number of mines
+         * @return The empty configuration
+         */
+        static Configuration empty(int width, int height, int mines) {
+            int classes = 0;
+            int[][] squares = new int[width * height][];
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    int[] canonical = canonical(width, height, x, y);
+                    if (canonical[0] == x && canonical[1] == y) {
+                        squares[classes++] = canonical;
+                    }
+                }
+            }
+            Configuration configuration = new Configuration(width, height, mines, classes);
+            for (int i = 0; i < classes; i++) {
+                configuration.setClass(i, squares[i][0], squares[i][1]);
+            }
+            return configuration;
+        }
+
+        /**
+         * Find the class of a square
+         * @param x X coordinate of the square
+         * @param y Y coordinate of the square
+         * @return Index of the class
+         */
+        int classOf(int x, int y) {
+            int[] canonical = canonical(this.width, this.height, x, y);
+            return this.classes[canonical[0] * this.height + canonical[1]];
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package minesweeper.bot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import minesweeper.model.NeighbourTable;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+
+/**
+ * Offline generator of an OpeningBook.
+ *
+ * <p>
+ * The generator plays seeded games with MyBot and records how each game ended.
+ * The first move of each game is taken in turn from every symmetry class of
+ * the board, so every class gets an equal share of the games. When the first
+ * guess of a game would open an unconstrained square, which all have the same
+ * chance of a mine, a random unconstrained square is opened instead, so the
+ * outcomes of guesses on every class are recorded too.
+ * </p>
+ *
+ * <p>
+ * Example: {@code --preset beginner,intermediate,expert --games 100000 --seed 1 --output opening.book}
+ * </p>
+ */
+public class OpeningBookGenerator {
+    static final String USAGE = "Options:\n"
+            + "  --preset beginner|intermediate|expert  Board of 9x9/10, 16x16/40 or 30x16/99, or several\n"
+            + "                                         separated by commas (default expert)\n"
+            + "  --games N                              Number of games played on each board (default 100000)\n"
+            + "  --seed N                               Master seed (default random)\n"
+            + "  --output FILE                          Opening book file to be written";
+
+    private final List<OpeningBook.Configuration> configurations = new ArrayList<>();
+
+    /**
+     * Play games on a board configuration and record their outcomes
+     * @param width Width of the boards
+     * @param height Height of the boards
+     * @param mines Number of mines
+     * @param games Number of games
+     * @param seed Master seed the seeds of the games are drawn from
+     * @return The outcomes
+     */
+    OpeningBook.Configuration playGames(int width, int height, int mines, int games, long seed) {
+        OpeningBook.Configuration configuration = OpeningBook.Configuration.empty(width, height, mines);
+        Random random = new Random(seed);
+        for (int game = 0; game < games; game++) {
+            Board board = new Board(new MinefieldGenerator(random.nextLong()), width, height, mines);
+            MyBot bot = new MyBot();
+            // The bot starts its game, but the first move is made on the next class in turn
+            bot.makeMove(board);
+            int first = game % configuration.xs.length;
+            board.makeMove(new Move(MoveType.OPEN, configuration.xs[first], configuration.ys[first]));
+            int guess = -1;
+            boolean guessed = false;
+            while (!board.gameLost && !board.gameWon) {
+                Move move = bot.makeMove(board);
+                if (bot.wasGuess && !guessed) {
+                    guessed = true;
+                    MyList<Square> unconstrained = getUnconstrainedSquares(board);
+                    if (unconstrained.contains(board.getSquareAt(move.x, move.y))) {
+                        Square square = unconstrained.get(random.nextInt(unconstrained.size()));
+                        move = new Move(MoveType.OPEN, square.getX(), square.getY());
+                        guess = configuration.classOf(move.x, move.y);
+                    }
+                }
+                board.makeMove(move);
+            }
+            configuration.firstGames[first]++;
+            if (guess != -1) {
+                configuration.guessGames[guess]++;
+            }
+            if (board.gameWon) {
+                configuration.firstWins[first]++;
+                if (guess != -1) {
+                    configuration.guessWins[guess]++;
+                }
+            }
+        }
+        this.configurations.add(configuration);
+        return configuration;
+    }
+
+    /**
+     * Find the unopened squares with no opened neighbours
+     */
+    private static MyList<Square> getUnconstrainedSquares(Board board) {
+        MyList<Square> unconstrained = new MyList<>();
+        NeighbourTable table = board.getNeighbourTable();
+        for (int id = 0; id < board.width * board.height; id++) {
+            Square square = board.getSquareById(id);
+            if (square.isOpened() || square.isFlagged()) {
+                continue;
+            }
+            boolean constrained = false;
+            for (int j = table.offsets[id]; j < table.offsets[id + 1] && !constrained; j++) {
+                constrained = board.getSquareById(table.neighbours[j]).isOpened();
+            }
+            if (!constrained) {
+                unconstrained.add(square);
+            }
+        }
+        return unconstrained;
+    }
+
+    /**
+     * Write the recorded configurations
+     * @param file Opening book file
+     * @throws IOException If the file can not be written
+     */
+    void write(Path file) throws IOException {
+        OpeningBook.write(file, this.configurations);
+    }
+
+    public static void main(String[] args) {
+        List<int[]> presets = new ArrayList<>();
+        int games = 100000;
+        long seed = new Random().nextLong();
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--preset":
+                        presets.clear();
+                        for (String preset : value.split(",")) {
+                            presets.add(preset(preset));
+                        }
+                        break;
+                    case "--games":
+                        games = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--output":
+                        output = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("No output file given");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        if (presets.isEmpty()) {
+            presets.add(preset("expert"));
+        }
+        OpeningBookGenerator generator = new OpeningBookGenerator();
+        long start = System.nanoTime();
+        Random seeds = new Random(seed);
+        for (int[] preset : presets) {
+            generator.playGames(preset[0], preset[1], preset[2], games, seeds.nextLong());
+        }
+        try {
+            generator.write(Paths.get(output));
+        } catch (IOException e) {
+            System.err.println("Could not write " + output + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.err.println("Wrote " + presets.size() + " boards from " + games * presets.size() + " games in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private static int[] preset(String preset) {
+        switch (preset) {
+            case "beginner":
+                return new int[] {9, 9, 10};
+            case "intermediate":
+                return new int[] {16, 16, 40};
+            case "expert":
+                return new int[] {30, 16, 99};
+            default:
+                throw new IllegalArgumentException("Unknown preset " + preset);
+        }
+    }
+}
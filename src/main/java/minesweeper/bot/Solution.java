@@ -0,0 +1,125 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+import minesweeper.structures.SquareMap;
+
+/**
+ * Mine probabilities of a board state and the number of solutions they are
+ * based on, see MyBot.solve()
+ */
+class Solution {
+    /**
+     * The constrained squares, in the order of the keys of a SquareMap
+     */
+    final Square[] squares;
+    /**
+     * Percentage of solutions that assign each of the squares as a mine
+     */
+    final int[] percentages;
+    /**
+     * Number of mine configurations consistent with the opened numbers
+     */
+    final long count;
+
+    Solution(Square[] squares, int[] percentages, long count) {
+        this.squares = squares;
+        this.percentages = percentages;
+        this.count = count;
+    }
+
+    /**
+     * Collect the probabilities given as a map
+     * @param probabilities Percentage of solutions that assign each constrained square as a mine
+     * @param count Number of solutions
+     * @return The solution
+     */
+    static Solution of(SquareMap<Integer> probabilities, long count) {
+        MyList<Square> keys = probabilities.keySet();
+        Square[] squares = new Square[keys.size()];
+        int[] percentages = new int[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = keys.get(i);
+            percentages[i] = probabilities.get(squares[i]);
+        }
+        return new Solution(squares, percentages, count);
+    }
+
+    /**
+     * Combine the solutions of independent components of a position
+     * @param parts The solutions of the components
+     * @return The solution of the position, where the number of solutions is
+     * the product of those of the components
+     */
+    static Solution combine(Solution[] parts) {
+        if (parts.length == 1) {
+            return parts[0];
+        }
+        long count = 1;
+        int size = 0;
+        for (Solution part : parts) {
+            count = multiplySaturated(count, part.count);
+            size += part.squares.length;
+        }
+        Integer[] order = new Integer[size];
+        Square[] squares = new Square[size];
+        int[] percentages = new int[size];
+        int next = 0;
+        for (Solution part : parts) {
+            for (int i = 0; i < part.squares.length; i++) {
+                order[next] = next;
+                squares[next] = part.squares[i];
+                percentages[next] = part.percentages[i];
+                next++;
+            }
+        }
+        // Back in the order of the keys of a SquareMap
+        Arrays.sort(order, (a, b) -> squares[a].getX() != squares[b].getX()
+                ? Integer.compare(squares[a].getX(), squares[b].getX())
+                : Integer.compare(squares[a].getY(), squares[b].getY()));
+        Square[] sortedSquares = new Square[size];
+        int[] sortedPercentages = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedSquares[i] = squares[order[i]];
+            sortedPercentages[i] = percentages[order[i]];
+        }
+        return new Solution(sortedSquares, sortedPercentages, count);
+    }
+
+    private static long multiplySaturated(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Put the probabilities in a map
+     * @param width Width of the board
+     * @param height Height of the board
+     * @return Mapping of the constrained squares to their percentages
+     */
+    SquareMap<Integer> toMap(int width, int height) {
+        SquareMap<Integer> probabilities = new SquareMap<>(width, height);
+        for (int i = 0; i < this.squares.length; i++) {
+            probabilities.put(this.squares[i], this.percentages[i]);
+        }
+        return probabilities;
+    }
+
+    /**
+     * Whether a square is constrained, compared by location
+     * @param square The square
+     * @return True if the solution has a probability for the square
+     */
+    boolean contains(Square square) {
+        for (Square constrained : this.squares) {
+            if (constrained.getX() == square.getX() && constrained.getY() == square.getY()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
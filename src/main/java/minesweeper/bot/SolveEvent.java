@@ -0,0 +1,33 @@
+package minesweeper.bot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a single CSP.findSafeSolutions() call.
+ *
+ * <p>
+ * Disabled by default, enable it with config/jfr/minesweeper.jfc.
+ * </p>
+ */
+@Name("minesweeper.Solve")
+@Label("Solve")
+@Description("Backtracking search over the frontier")
+@Category({"Minesweeper", "Bot"})
+@Enabled(false)
+@StackTrace(false)
+class SolveEvent extends Event {
+    @Label("Frontier Size")
+    int frontierSize;
+
+    @Label("Search Nodes")
+    long searchNodes;
+
+    @Label("Solutions")
+    long solutions;
+}
@@ -0,0 +1,359 @@
+package minesweeper.bot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+
+/**
+ * Offline generator of an EndgameTablebase.
+ *
+ * <p>
+ * Listing every possible endgame position is out of the question even for a
+ * handful of squares, since the opened numbers around them can be almost
+ * anything. The generator instead plays seeded games with MyBot, collects
+ * every endgame position the games reach with at most
+ * EndgameTablebase.MAX_SQUARES squares left, in canonical form, and solves
+ * each of them exactly. Positions that recur across games are solved once.
+ * </p>
+ *
+ * <p>
+ * A position is solved by listing every placement of the remaining mines that
+ * satisfies the constraints, which gives the exact chance of a mine on each
+ * square. The best guess is found with a full expectimax search over the
+ * placements: opening a square partitions the placements where it is safe by
+ * the number it shows, and the best guess maximizes the chance of winning.
+ * </p>
+ *
+ * <p>
+ * Example: {@code --preset expert --games 10000 --seed 1 --output endgames.tb}
+ * </p>
+ */
+public class TablebaseGenerator {
+    static final String USAGE = "Options:\n"
+            + "  --preset beginner|intermediate|expert  Board of 9x9/10, 16x16/40 or 30x16/99 (default expert)\n"
+            + "  --games N                              Number of games played (default 10000)\n"
+            + "  --seed N                               Master seed (default random)\n"
+            + "  --output FILE                          Tablebase file to be written";
+
+    private final LinkedHashMap<Key, EndgameTablebase.Result> positions = new LinkedHashMap<>();
+
+    /**
+     * Add a position if it is new, solving it
+     * @param position The position
+     * @return True if the position was new and could be solved
+     */
+    boolean add(EndgamePosition position) {
+        Key key = new Key(position.key);
+        if (this.positions.containsKey(key)) {
+            return false;
+        }
+        for (int value : position.key) {
+            if (value > Short.MAX_VALUE) {
+                // Does not fit the file format
+                return false;
+            }
+        }
+        EndgameTablebase.Result result = solve(position);
+        if (result == null) {
+            return false;
+        }
+        this.positions.put(key, result);
+        return true;
+    }
+
+    /**
+     * Play games and add the endgame positions they reach
+     * @param width Width of the boards
+     * @param height Height of the boards
+     * @param mines Number of mines
+     * @param games Number of games
+     * @param seed Master seed the seeds of the games are drawn from
+     */
+    void playGames(int width, int height, int mines, int games, long seed) {
+        Random seeds = new Random(seed);
+        for (int game = 0; game < games; game++) {
+            Board board = new Board(new MinefieldGenerator(seeds.nextLong()), width, height, mines);
+            MyBot bot = new MyBot();
+            while (!board.gameLost && !board.gameWon) {
+                board.makeMove(bot.makeMove(board));
+                if (!board.gameLost && !board.gameWon) {
+                    EndgamePosition position = EndgamePosition.of(board, EndgameTablebase.MAX_SQUARES);
+                    if (position != null) {
+                        add(position);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of positions collected
+     * @return Distinct positions
+     */
+    int size() {
+        return this.positions.size();
+    }
+
+    /**
+     * Write the collected positions
+     * @param file Tablebase file
+     * @throws IOException If the file can not be written
+     */
+    void write(Path file) throws IOException {
+        List<int[]> keys = new ArrayList<>();
+        for (Key key : this.positions.keySet()) {
+            keys.add(key.key);
+        }
+        EndgameTablebase.write(file, keys, new ArrayList<>(this.positions.values()));
+    }
+
+    /**
+     * Solve a position exactly
+     * @param position The position
+     * @return The solution, or null if no placement of the mines is possible
+     */
+    static EndgameTablebase.Result solve(EndgamePosition position) {
+        int squares = position.squares.length;
+        if (position.mines < 0 || position.mines > squares) {
+            return null;
+        }
+        int[] placements = new int[0];
+        int count = 0;
+        for (int placement = 0; placement < 1 << squares; placement++) {
+            if (Integer.bitCount(placement) != position.mines || !satisfies(position, placement)) {
+                continue;
+            }
+            if (count == placements.length) {
+                placements = Arrays.copyOf(placements, Math.max(16, count * 2));
+            }
+            placements[count++] = placement;
+        }
+        if (count == 0) {
+            return null;
+        }
+        placements = Arrays.copyOf(placements, count);
+        int[] mineSolutions = new int[squares];
+        for (int placement : placements) {
+            for (int i = 0; i < squares; i++) {
+                mineSolutions[i] += placement >>> i & 1;
+            }
+        }
+        Expectimax search = new Expectimax(position);
+        int bestGuess = -1;
+        double best = -1;
+        for (int i = 0; i < squares; i++) {
+            if (mineSolutions[i] == 0) {
+                // Opening a safe square never hurts
+                return new EndgameTablebase.Result(count, mineSolutions, i, search.value(placements));
+            }
+            if (mineSolutions[i] == count) {
+                continue;
+            }
+            double value = search.guessValue(placements, i);
+            if (value > best) {
+                best = value;
+                bestGuess = i;
+            }
+        }
+        if (bestGuess == -1) {
+            // Only mines are left, so the game is already won
+            return null;
+        }
+        return new EndgameTablebase.Result(count, mineSolutions, bestGuess, best);
+    }
+
+    private static boolean satisfies(EndgamePosition position, int placement) {
+        for (int c = 0; c < position.constraintMasks.length; c++) {
+            if (Integer.bitCount(placement & position.constraintMasks[c]) != position.constraintMines[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chance of winning from a set of possible placements, playing optimally
+     */
+    private static final class Expectimax {
+        private final EndgamePosition position;
+        private final HashMap<Key, Double> values = new HashMap<>();
+
+        Expectimax(EndgamePosition position) {
+            this.position = position;
+        }
+
+        /**
+         * Value of a set of placements, all of which are still possible
+         */
+        double value(int[] placements) {
+            if (placements.length == 1) {
+                // Every safe square is known
+                return 1;
+            }
+            Key key = new Key(placements);
+            Double known = this.values.get(key);
+            if (known != null) {
+                return known;
+            }
+            double best = 0;
+            boolean freeInformation = false;
+            for (int i = 0; i < this.position.squares.length && !freeInformation; i++) {
+                int mines = 0;
+                for (int placement : placements) {
+                    mines += placement >>> i & 1;
+                }
+                if (mines == 0 && splits(placements, i)) {
+                    // Opening a safe square that tells something is always right
+                    best = guessValue(placements, i);
+                    freeInformation = true;
+                } else if (mines > 0 && mines < placements.length) {
+                    best = Math.max(best, guessValue(placements, i));
+                }
+            }
+            this.values.put(key, best);
+            return best;
+        }
+
+        /**
+         * Value of opening a square, averaged over the numbers it may show
+         */
+        double guessValue(int[] placements, int square) {
+            HashMap<Integer, int[]> byNumber = new HashMap<>();
+            HashMap<Integer, Integer> sizes = new HashMap<>();
+            for (int placement : placements) {
+                if ((placement >>> square & 1) == 1) {
+                    continue;
+                }
+                int number = number(placement, square);
+                int[] group = byNumber.get(number);
+                int size = sizes.getOrDefault(number, 0);
+                if (group == null) {
+                    group = new int[placements.length];
+                    byNumber.put(number, group);
+                }
+                group[size] = placement;
+                sizes.put(number, size + 1);
+            }
+            double total = 0;
+            for (int number : byNumber.keySet()) {
+                int size = sizes.get(number);
+                total += size * value(Arrays.copyOf(byNumber.get(number), size));
+            }
+            return total / placements.length;
+        }
+
+        private int number(int placement, int square) {
+            return this.position.flagsAround[square]
+                    + Integer.bitCount(placement & this.position.neighbourMasks[square]);
+        }
+
+        private boolean splits(int[] placements, int square) {
+            int first = number(placements[0], square);
+            for (int placement : placements) {
+                if (number(placement, square) != first) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * An int array compared by its contents
+     */
+    private static final class Key {
+        final int[] key;
+        private final int hash;
+
+        Key(int[] key) {
+            this.key = key;
+            this.hash = Arrays.hashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(this.key, ((Key) obj).key);
+        }
+    }
+
+    public static void main(String[] args) {
+        int width = 30;
+        int height = 16;
+        int mines = 99;
+        int games = 10000;
+        long seed = new Random().nextLong();
+        String output = null;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--preset":
+                        int[] preset = preset(value);
+                        width = preset[0];
+                        height = preset[1];
+                        mines = preset[2];
+                        break;
+                    case "--games":
+                        games = Integer.parseInt(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--output":
+                        output = value;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (output == null) {
+                throw new IllegalArgumentException("No output file given");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        TablebaseGenerator generator = new TablebaseGenerator();
+        long start = System.nanoTime();
+        generator.playGames(width, height, mines, games, seed);
+        try {
+            generator.write(Paths.get(output));
+        } catch (IOException e) {
+            System.err.println("Could not write " + output + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.err.println("Wrote " + generator.size() + " positions from " + games + " games in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    private static int[] preset(String preset) {
+        switch (preset) {
+            case "beginner":
+                return new int[] {9, 9, 10};
+            case "intermediate":
+                return new int[] {16, 16, 40};
+            case "expert":
+                return new int[] {30, 16, 99};
+            default:
+                throw new IllegalArgumentException("Unknown preset " + preset);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import minesweeper.model.BoardSnapshot;
+import minesweeper.model.BoardState;
+import minesweeper.model.NeighbourTable;
+import minesweeper.model.Square;
+
+/**
+ * Cache of solved positions, shared by the threads of a lookahead, by the
+ * searches it makes during a game and by the games played in the same JVM.
+ *
+ * <p>
+ * A solution only depends on the Frontier of a position, the opened numbers
+ * next to unopened squares and those squares, so a position is identified by
+ * a Zobrist hash of its frontier alone. The squares are placed by their
+ * coordinates from the upper left corner of the frontier. Every place in a
+ * rectangle of every size has a pseudo random 64 bit key for each number a
+ * square there can show and one for an unopened square, and the hash is the
+ * exclusive or of the keys of the numbers and unopened squares of the
+ * frontier, see key(). The same frontier anywhere on a board of any size
+ * thus has the same hash, while the rest of the board makes no difference.
+ * Two different frontiers with the same hash are treated as the same, which
+ * with 64 bits is far less likely than the bot losing a game for any other
+ * reason.
+ * </p>
+ *
+ * <p>
+ * Flagged squares are hashed as unopened, since the solver treats them like
+ * any other unopened square. On a board that is not a grid, the neighbours
+ * of a square do not follow from where it is, so there the squares are placed
+ * by their ids on the board, and the hash also depends on the size of the
+ * board and on its neighbour table.
+ * </p>
+ *
+ * <p>
+ * The solutions are stored by place, so a cached solution maps to the squares of
+ * any board the frontier is found on. The table is split into stripes with a lock
+ * each, so threads looking up different positions rarely wait for each other.
+ * Every stripe gets an equal part of the memory budget. A position maps to a
+ * bucket of two slots in its stripe: the first keeps the most expensive
+ * solution seen, measured by the number of squares it covers, and the second
+ * the latest one. When a stripe goes over its budget, the entries are evicted
+ * in the order of a clock hand going round the slots.
+ * </p>
+ */
+public class TranspositionTable {
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+
+    private static final int STRIPES = 16;
+    // Rough size of an entry without its arrays, used for the memory budget
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+    private static final int AVERAGE_ENTRY_BYTES = 1024;
+    // Opened squares show at most the largest number of neighbours, the key after those is for an unopened square
+    private static final int UNOPENED_STATE = BoardSnapshot.MAX_NEIGHBOURS + 1;
+    // Key standing for the neighbour table of a board that is not a grid
+    private static final int TABLE_STATE = 63;
+
+    private static final TranspositionTable SHARED = new TranspositionTable(DEFAULT_BUDGET_BYTES);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong crossGameHits = new AtomicLong();
+
+    /**
+     * Create an empty table
+     * @param budgetBytes Approximate number of bytes the entries may take
+     */
+    public TranspositionTable(long budgetBytes) {
+        long stripeBudget = budgetBytes / STRIPES;
+        int buckets = (int) Math.max(1, Math.min(1 << 20, stripeBudget / AVERAGE_ENTRY_BYTES));
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe(buckets, stripeBudget);
+        }
+    }
+
+    /**
+     * Get the table shared by the whole JVM
+     * @return The shared table
+     */
+    public static TranspositionTable shared() {
+        return SHARED;
+    }
+
+    /**
+     * Get the Zobrist key of a place in a given state
+     * @param width Width of the rectangle the place is in
+     * @param height Height of the rectangle the place is in
+     * @param place Index of the place, x * height + y
+     * @param state Number shown by an opened square, or one more than the largest number for an unopened square
+     * @return Key to be combined into the hash of a frontier with exclusive or
+     */
+    public static long key(int width, int height, int place, int state) {
+        long z = ((long) width << 48 | (long) height << 32 | (long) place << 6 | state) * 0x9E3779B97F4A7C15L;
+        // Finalizer of SplitMix64, so that every bit of the input affects every bit of the key
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Hash the numbers and unopened squares of a frontier
+     * @param frontier The frontier of a position
+     * @return Zobrist hash of the frontier
+     */
+    static long hash(Frontier frontier) {
+        NeighbourTable table = frontier.board.getNeighbourTable();
+        int width = table.isGrid() ? frontier.width : frontier.board.getWidth();
+        int height = table.isGrid() ? frontier.height : frontier.board.getHeight();
+        // The neighbour table itself stands for the neighbours the places do not tell
+        long hash = table.isGrid() ? 0 : key(width, height, System.identityHashCode(table) >>> 6, TABLE_STATE);
+        int count = 0;
+        for (int c = 0; c < frontier.numberIds.length; c++) {
+            hash ^= key(width, height, place(frontier, frontier.board.getSquareById(frontier.numberIds[c])),
+                    frontier.numbers[c]);
+            count += frontier.around[c].length;
+        }
+        // The unopened squares around several numbers are hashed once
+        int[] unopened = new int[count];
+        count = 0;
+        for (int[] around : frontier.around) {
+            for (int id : around) {
+                unopened[count++] = place(frontier, frontier.board.getSquareById(id));
+            }
+        }
+        Arrays.sort(unopened);
+        for (int i = 0; i < unopened.length; i++) {
+            if (i == 0 || unopened[i] != unopened[i - 1]) {
+                hash ^= key(width, height, unopened[i], UNOPENED_STATE);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * The place of a square of a frontier, from the corner of the frontier on a grid
+     */
+    private static int place(Frontier frontier, Square square) {
+        if (!frontier.board.getNeighbourTable().isGrid()) {
+            return square.getX() * frontier.board.getHeight() + square.getY();
+        }
+        return (square.getX() - frontier.originX) * frontier.height + square.getY() - frontier.originY;
+    }
+
+    private static Square squareAt(Frontier frontier, int place) {
+        BoardState board = frontier.board;
+        if (!board.getNeighbourTable().isGrid()) {
+            return board.getSquareAt(place / board.getHeight(), place % board.getHeight());
+        }
+        return board.getSquareAt(frontier.originX + place / frontier.height,
+                frontier.originY + place % frontier.height);
+    }
+
+    /**
+     * Look up the solution of a position
+     * @param hash Zobrist hash of the frontier of the position
+     * @param frontier The frontier, whose squares the solution is given in
+     * @param game Id of the game looking, see Board.getId()
+     * @return The cached solution, or null if the position is not in the table
+     */
+    Solution get(long hash, Frontier frontier, long game) {
+        this.lookups.incrementAndGet();
+        Entry entry = stripe(hash).get(hash);
+        if (entry == null) {
+            return null;
+        }
+        this.hits.incrementAndGet();
+        if (entry.game != game) {
+            this.crossGameHits.incrementAndGet();
+        }
+        Square[] squares = new Square[entry.places.length];
+        int[] percentages = new int[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = squareAt(frontier, entry.places[i]);
+            percentages[i] = entry.percentages[i];
+        }
+        return new Solution(squares, percentages, entry.count);
+    }
+
+    /**
+     * Store the solution of a position, possibly evicting others
+     * @param hash Zobrist hash of the frontier of the position
+     * @param frontier The frontier
+     * @param solution Solution of the position
+     * @param game Id of the game storing it, see Board.getId()
+     */
+    void put(long hash, Frontier frontier, Solution solution, long game) {
+        int[] places = new int[solution.squares.length];
+        byte[] percentages = new byte[places.length];
+        for (int i = 0; i < places.length; i++) {
+            places[i] = place(frontier, solution.squares[i]);
+            percentages[i] = (byte) solution.percentages[i];
+        }
+        stripe(hash).put(new Entry(hash, places, percentages, solution.count, game));
+    }
+
+    private Stripe stripe(long hash) {
+        return this.stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+    }
+
+    /**
+     * Number of lookups made with get()
+     * @return Lookups since the table was created
+     */
+    public long getLookups() {
+        return this.lookups.get();
+    }
+
+    /**
+     * Number of lookups that found their position
+     * @return Hits since the table was created
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Number of lookups that found a position stored by another game
+     * @return Hits across games since the table was created
+     */
+    public long getCrossGameHits() {
+        return this.crossGameHits.get();
+    }
+
+    /**
+     * Approximate memory taken by the entries
+     * @return Bytes used, at most the budget given to the constructor
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                bytes += stripe.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Remove every entry, e.g. to measure a cold start
+     */
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * A solved position as stored in the table
+     */
+    private static final class Entry {
+        final long hash;
+        final int[] places;
+        final byte[] percentages;
+        final long count;
+        final long game;
+        final int bytes;
+
+        Entry(long hash, int[] places, byte[] percentages, long count, long game) {
+            this.hash = hash;
+            this.places = places;
+            this.percentages = percentages;
+            this.count = count;
+            this.game = game;
+            this.bytes = ENTRY_OVERHEAD_BYTES + 5 * places.length;
+        }
+    }
+
+    /**
+     * Part of the table guarded by its own lock, slots 2 * i and 2 * i + 1 form bucket i
+     */
+    private static final class Stripe {
+        private final Entry[] slots;
+        private final long budget;
+        private long bytes = 0;
+        private int hand = 0;
+
+        Stripe(int buckets, long budget) {
+            this.slots = new Entry[2 * buckets];
+            this.budget = budget;
+        }
+
+        private int bucket(long hash) {
+            return 2 * (int) Long.remainderUnsigned(hash, this.slots.length / 2);
+        }
+
+        synchronized Entry get(long hash) {
+            int bucket = bucket(hash);
+            for (int slot = bucket; slot < bucket + 2; slot++) {
+                if (this.slots[slot] != null && this.slots[slot].hash == hash) {
+                    return this.slots[slot];
+                }
+            }
+            return null;
+        }
+
+        synchronized void put(Entry entry) {
+            if (entry.bytes > this.budget) {
+                return;
+            }
+            int bucket = bucket(entry.hash);
+            for (int slot = bucket; slot < bucket + 2; slot++) {
+                if (this.slots[slot] != null && this.slots[slot].hash == entry.hash) {
+                    set(slot, entry);
+                    return;
+                }
+            }
+            Entry preferred = this.slots[bucket];
+            if (preferred == null || entry.places.length >= preferred.places.length) {
+                // The more expensive solution stays in the first slot, the other one moves to the second
+                set(bucket + 1, preferred);
+                set(bucket, entry);
+            } else {
+                set(bucket + 1, entry);
+            }
+            while (this.bytes > this.budget) {
+                if (this.slots[this.hand] != null && this.slots[this.hand] != entry) {
+                    set(this.hand, null);
+                }
+                this.hand = (this.hand + 1) % this.slots.length;
+            }
+        }
+
+        private void set(int slot, Entry entry) {
+            if (this.slots[slot] != null) {
+                this.bytes -= this.slots[slot].bytes;
+            }
+            this.slots[slot] = entry;
+            if (entry != null) {
+                this.bytes += entry.bytes;
+            }
+        }
+
+        synchronized void clear() {
+            for (int slot = 0; slot < this.slots.length; slot++) {
+                this.slots[slot] = null;
+            }
+            this.bytes = 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package minesweeper.generator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for generating the minefield of a board.
+ *
+ * <p>
+ * Disabled by default, enable it with config/jfr/minesweeper.jfc.
+ * </p>
+ */
+@Name("minesweeper.Generate")
+@Label("Minefield Generation")
+@Description("Placing the mines of a board")
+@Category({"Minesweeper", "Generator"})
+@Enabled(false)
+@StackTrace(false)
+class GenerateEvent extends Event {
+    @Label("Width")
+    int width;
+
+    @Label("Height")
+    int height;
+
+    @Label("Mines")
+    long mines;
+
+    @Label("Placement Version")
+    int version;
+}
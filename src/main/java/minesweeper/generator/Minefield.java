@@ -0,0 +1,89 @@
+package minesweeper.generator;
+
+import minesweeper.model.Board;
+
+/**
+ * Compact minefield with one byte per square, used for boards too large to be
+ * represented with Square objects.
+ *
+ * <p>
+ * Squares are indexed by id, x * height + y, the same way as on a Board. Each
+ * byte holds either MINE or the number of mines surrounding the square.
+ * </p>
+ * @see MinefieldGenerator#generateTiled(int, int, long, int, int)
+ */
+public class Minefield {
+    public static final byte MINE = -1;
+
+    public final int width;
+    public final int height;
+    final byte[] squares;
+    private long mineCount;
+
+    Minefield(int width, int height) {
+        if ((long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Minefield of " + width + "x" + height + " is too large");
+        }
+        this.width = width;
+        this.height = height;
+        this.squares = new byte[width * height];
+    }
+
+    /**
+     * Check if the square at the given X, Y coordinate is a mine
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return True if the square is a mine
+     */
+    public boolean isMine(int x, int y) {
+        return this.squares[x * this.height + y] == MINE;
+    }
+
+    /**
+     * Number of mines surrounding the square at the given X, Y coordinate
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return Number of surrounding mines, or MINE if the square is a mine itself
+     */
+    public int surroundingMines(int x, int y) {
+        return this.squares[x * this.height + y];
+    }
+
+    /**
+     * Total number of mines placed on this minefield
+     * @return Number of mines
+     */
+    public long getMineCount() {
+        return this.mineCount;
+    }
+
+    void setMineCount(long mineCount) {
+        this.mineCount = mineCount;
+    }
+
+    /**
+     * Copy the mines of this minefield onto a Board of the same size.
+     *
+     * @param board Board with no mines placed yet
+     */
+    public void applyTo(Board board) {
+        if (board.width != this.width || board.height != this.height) {
+            throw new IllegalArgumentException("Board size does not match the minefield");
+        }
+        board.setTotalMines((int) this.mineCount);
+        for (int x = 0; x < this.width; x++) {
+            for (int y = 0; y < this.height; y++) {
+                byte value = this.squares[x * this.height + y];
+                if (value == MINE) {
+                    board.board[x][y].setMine();
+                    board.addMineSquareToList(board.board[x][y]);
+                }
+                for (int i = 0; i < value; i++) {
+                    board.board[x][y].incrementSurroundingMines();
+                }
+            }
+        }
+    }
+}
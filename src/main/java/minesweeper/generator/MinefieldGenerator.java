@@ -1,18 +1,44 @@
-
 package minesweeper.generator;
 
-import java.util.ArrayList;
 import java.util.Random;
 
 import minesweeper.model.Board;
-import minesweeper.model.Pair;
+import minesweeper.model.NeighbourTable;
 
 /**
  * Generator for initializing board with mines
+ *
+ * <p>
+ * A seeded generator always produces the same minefield for the same board
+ * size, mine count and first move. The placement algorithm is versioned so
+ * that seeds recorded with an older version can still be reproduced.
+ * </p>
  */
 public class MinefieldGenerator {
+    /**
+     * Original placement, picking each mine from an ordered list of the remaining squares
+     */
+    public static final int PLACEMENT_V1 = 1;
+    /**
+     * Partial Fisher-Yates shuffle over an array of square ids, linear in the number of mines
+     */
+    public static final int PLACEMENT_V2 = 2;
+    /**
+     * Parallel placement on tiles of the board, see generateTiled()
+     */
+    public static final int PLACEMENT_TILED = 3;
+    /**
+     * Placement algorithm used when no version is given
+     */
+    public static final int LATEST_PLACEMENT = PLACEMENT_V2;
+    /**
+     * Width and height of the tiles used by generateTiled()
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
     private boolean seedSet = false;
     private long seed;
+    private int version = LATEST_PLACEMENT;
 
     public MinefieldGenerator() {
     }
@@ -23,17 +49,41 @@ public class MinefieldGenerator {
     }
 
     /**
-     * Checks if a given X,Y coordinate is within the safe area
+     * Create a seeded generator that uses a specific version of the placement algorithm
+     *
+     * @param seed Seed for the random number generator
+     * @param version PLACEMENT_V1, PLACEMENT_V2 or PLACEMENT_TILED
      */
-    private boolean isSafeArea(int currentX, int currentY, int safeOriginX, int safeOriginY) {
-        for (int x = -1; x <= 1; x++) {
-            for (int y = -1; y <= 1; y++) {
-                if (safeOriginX + x == currentX && safeOriginY + y == currentY) {
-                    return true;
-                }
-            }
+    public MinefieldGenerator(long seed, int version) {
+        this(seed);
+        if (version != PLACEMENT_V1 && version != PLACEMENT_V2 && version != PLACEMENT_TILED) {
+            throw new IllegalArgumentException("Unknown placement version " + version);
         }
-        return false;
+        this.version = version;
+    }
+
+    /**
+     * Get the version of the placement algorithm used by this generator
+     * @return Placement algorithm version
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Marks the squares of the safe area, i.e. the given square and its neighbours
+     *
+     * @return Array indexed by square id, true for squares within the safe area
+     */
+    private boolean[] safeArea(Board board, int safeX, int safeY) {
+        NeighbourTable table = board.getNeighbourTable();
+        boolean[] safe = new boolean[board.width * board.height];
+        int safeId = board.getSquareId(safeX, safeY);
+        safe[safeId] = true;
+        for (int i = table.offsets[safeId]; i < table.offsets[safeId + 1]; i++) {
+            safe[table.neighbours[i]] = true;
+        }
+        return safe;
     }
 
     /**
@@ -43,41 +93,144 @@ public class MinefieldGenerator {
      * @param mines The number of mines to be placed
      * @param safeX The X coordinate of the safe area
      * @param safeY The Y coordinate of the safe area
+     * @throws IllegalArgumentException If the placement is tiled and the board is not a grid
      */
     public void generate(Board board, int mines, int safeX, int safeY) {
-        board.setTotalMines(mines);
-
-        int width = board.width;
-        int height = board.height;
-
-        ArrayList<Pair<Integer>> squares = new ArrayList<>();
+        GenerateEvent event = new GenerateEvent();
+        event.begin();
+        place(board, mines, safeX, safeY);
+        if (event.shouldCommit()) {
+            event.width = board.width;
+            event.height = board.height;
+            event.mines = mines;
+            event.version = this.version;
+            event.commit();
+        }
+    }
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (!isSafeArea(x, y, safeX, safeY)) {
-                    squares.add(new Pair(x, y));
-                }
+    private void place(Board board, int mines, int safeX, int safeY) {
+        if (this.version == PLACEMENT_TILED) {
+            // The tiles count the mines around a square on the grid, not from the neighbour table
+            if (!board.getNeighbourTable().isGrid()) {
+                throw new IllegalArgumentException("Tiled placement needs a grid board");
             }
+            generateTiled(board.width, board.height, mines, safeX, safeY).applyTo(board);
+            return;
         }
 
+        board.setTotalMines(mines);
+
         Random rng = new Random();
 
         if (this.seedSet) {
             rng.setSeed(this.seed);
         }
 
+        boolean[] safe = safeArea(board, safeX, safeY);
+
+        if (this.version == PLACEMENT_V1) {
+            placeOrdered(board, mines, safe, rng);
+        } else {
+            placeShuffled(board, mines, safe, rng);
+        }
+    }
+
+    /**
+     * Generates a compact minefield in parallel, for boards with up to 10^8
+     * or more squares. The board is split into tiles that place their mines
+     * and compute their neighbour counts on all available cores. The exact
+     * number of mines is always placed, and a seeded generator gives the same
+     * minefield regardless of the number of threads.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param mines The number of mines to be placed
+     * @param safeX The X coordinate of the safe area
+     * @param safeY The Y coordinate of the safe area
+     * @return The generated Minefield
+     */
+    public Minefield generateTiled(int width, int height, long mines, int safeX, int safeY) {
+        return generateTiled(width, height, mines, safeX, safeY, DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Generates a compact minefield in parallel using tiles of a given size.
+     *
+     * @param width The width of the minefield
+     * @param height The height of the minefield
+     * @param mines The number of mines to be placed
+     * @param safeX The X coordinate of the safe area
+     * @param safeY The Y coordinate of the safe area
+     * @param tileSize Width and height of a tile
+     * @return The generated Minefield
+     * @see #generateTiled(int, int, long, int, int)
+     */
+    public Minefield generateTiled(int width, int height, long mines, int safeX, int safeY, int tileSize) {
+        long masterSeed = this.seedSet ? this.seed : new Random().nextLong();
+        return new TiledGeneration(width, height, tileSize, safeX, safeY).generate(mines, masterSeed);
+    }
+
+    /**
+     * Version 1 placement. The candidate squares are listed row by row, and each
+     * mine is removed from a random index of the list.
+     */
+    private void placeOrdered(Board board, int mines, boolean[] safe, Random rng) {
+        int[] squares = new int[board.width * board.height];
+        int size = 0;
+
+        for (int y = 0; y < board.height; y++) {
+            for (int x = 0; x < board.width; x++) {
+                int id = board.getSquareId(x, y);
+                if (!safe[id]) {
+                    squares[size++] = id;
+                }
+            }
+        }
+
         for (int i = 0; i < mines; i++) {
-            if (squares.isEmpty()) {
+            if (size == 0) {
                 break;
             }
 
-            int index = rng.nextInt(squares.size());
+            int index = rng.nextInt(size);
+            int id = squares[index];
+            System.arraycopy(squares, index + 1, squares, index, size - index - 1);
+            size--;
+
+            placeMine(board, id);
+        }
+    }
+
+    /**
+     * Version 2 placement. The first mines entries of the candidate array are
+     * shuffled in place, each one swapped with a random later entry.
+     */
+    private void placeShuffled(Board board, int mines, boolean[] safe, Random rng) {
+        int[] squares = new int[safe.length];
+        int size = 0;
+
+        for (int id = 0; id < safe.length; id++) {
+            if (!safe[id]) {
+                squares[size++] = id;
+            }
+        }
 
-            Pair<Integer> coordinate = squares.remove(index);
+        int placed = Math.min(mines, size);
+        for (int i = 0; i < placed; i++) {
+            int index = i + rng.nextInt(size - i);
+            int id = squares[index];
+            squares[index] = squares[i];
+            squares[i] = id;
 
-            board.board[coordinate.first][coordinate.second].setMine();
-            board.addMineSquareToList(board.board[coordinate.first][coordinate.second]);
-            board.incrementAdjacentSquares(coordinate.first, coordinate.second);
+            placeMine(board, id);
         }
     }
+
+    private void placeMine(Board board, int id) {
+        int x = id / board.height;
+        int y = id % board.height;
+        board.board[x][y].setMine();
+        board.addMineSquareToList(board.board[x][y]);
+        board.incrementAdjacentSquares(x, y);
+    }
 }
@@ -0,0 +1,263 @@
+package minesweeper.generator;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel generation of a Minefield, split into rectangular tiles.
+ *
+ * <p>
+ * The mines are first divided between the tiles by recursively halving the
+ * list of tiles and drawing the number of mines of each half from a
+ * hypergeometric distribution, so every arrangement of the exact total number
+ * of mines is equally likely. Each half gets its own SplittableRandom stream
+ * split from the master seed, which makes the result independent of the
+ * number of threads. The tiles then place their mines in parallel, and once
+ * all mines are known the neighbour counts are computed tile by tile, reading
+ * across tile borders.
+ * </p>
+ */
+class TiledGeneration {
+    private final Minefield field;
+    private final int tileSize;
+    private final int tilesX;
+    private final int tilesY;
+    private final int safeX;
+    private final int safeY;
+    // Number of squares available for mines in tiles 0 ... i - 1
+    private final long[] candidatePrefix;
+
+    TiledGeneration(int width, int height, int tileSize, int safeX, int safeY) {
+        this.field = new Minefield(width, height);
+        this.tileSize = tileSize;
+        this.tilesX = (width + tileSize - 1) / tileSize;
+        this.tilesY = (height + tileSize - 1) / tileSize;
+        this.safeX = safeX;
+        this.safeY = safeY;
+        this.candidatePrefix = new long[this.tilesX * this.tilesY + 1];
+        for (int tile = 0; tile < this.tilesX * this.tilesY; tile++) {
+            this.candidatePrefix[tile + 1] = this.candidatePrefix[tile] + candidateCount(tile);
+        }
+    }
+
+    /**
+     * Place the mines and compute the neighbour counts.
+     *
+     * @param mines Number of mines, capped to the number of squares outside the safe area
+     * @param seed Master seed of the generation
+     * @return The generated Minefield
+     */
+    Minefield generate(long mines, long seed) {
+        int tiles = this.tilesX * this.tilesY;
+        long placed = Math.min(mines, this.candidatePrefix[tiles]);
+        ForkJoinPool.commonPool().invoke(new PlaceMines(0, tiles, placed, new SplittableRandom(seed)));
+        IntStream.range(0, tiles).parallel().forEach(this::countTile);
+        this.field.setMineCount(placed);
+        return this.field;
+    }
+
+    private int tileX0(int tile) {
+        return (tile / this.tilesY) * this.tileSize;
+    }
+
+    private int tileY0(int tile) {
+        return (tile % this.tilesY) * this.tileSize;
+    }
+
+    private boolean isSafe(int x, int y) {
+        return Math.abs(x - this.safeX) <= 1 && Math.abs(y - this.safeY) <= 1;
+    }
+
+    private int candidateCount(int tile) {
+        int x0 = tileX0(tile);
+        int y0 = tileY0(tile);
+        int x1 = Math.min(x0 + this.tileSize, this.field.width);
+        int y1 = Math.min(y0 + this.tileSize, this.field.height);
+        int count = (x1 - x0) * (y1 - y0);
+        for (int x = Math.max(x0, this.safeX - 1); x <= Math.min(x1 - 1, this.safeX + 1); x++) {
+            for (int y = Math.max(y0, this.safeY - 1); y <= Math.min(y1 - 1, this.safeY + 1); y++) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Splits the mines of a range of tiles between its halves, down to single tiles.
+     */
+    private class PlaceMines extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstTile;
+        private final int lastTile;
+        private final long mines;
+        private final SplittableRandom rng;
+
+        PlaceMines(int firstTile, int lastTile, long mines, SplittableRandom rng) {
+            this.firstTile = firstTile;
+            this.lastTile = lastTile;
+            this.mines = mines;
+            this.rng = rng;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.lastTile - this.firstTile == 1) {
+                placeInTile(this.firstTile, (int) this.mines, this.rng);
+                return;
+            }
+            int middle = (this.firstTile + this.lastTile) >>> 1;
+            long left = candidatePrefix[middle] - candidatePrefix[this.firstTile];
+            long right = candidatePrefix[this.lastTile] - candidatePrefix[middle];
+            long leftMines = hypergeometric(this.rng, left, right, this.mines);
+            // Both streams are split before forking, so the result does not depend on scheduling
+            SplittableRandom leftRng = this.rng.split();
+            SplittableRandom rightRng = this.rng.split();
+            invokeAll(new PlaceMines(this.firstTile, middle, leftMines, leftRng),
+                    new PlaceMines(middle, this.lastTile, this.mines - leftMines, rightRng));
+        }
+    }
+
+    /**
+     * Place mines on random squares of a tile with a partial Fisher-Yates shuffle.
+     */
+    private void placeInTile(int tile, int mines, SplittableRandom rng) {
+        int x0 = tileX0(tile);
+        int y0 = tileY0(tile);
+        int x1 = Math.min(x0 + this.tileSize, this.field.width);
+        int y1 = Math.min(y0 + this.tileSize, this.field.height);
+
+        int[] squares = new int[(x1 - x0) * (y1 - y0)];
+        int size = 0;
+        for (int x = x0; x < x1; x++) {
+            for (int y = y0; y < y1; y++) {
+                if (!isSafe(x, y)) {
+                    squares[size++] = x * this.field.height + y;
+                }
+            }
+        }
+
+        for (int i = 0; i < mines; i++) {
+            int index = i + rng.nextInt(size - i);
+            int id = squares[index];
+            squares[index] = squares[i];
+            squares[i] = id;
+            this.field.squares[id] = Minefield.MINE;
+        }
+    }
+
+    /**
+     * Compute the number of surrounding mines for every square of a tile that is not a mine.
+     */
+    private void countTile(int tile) {
+        int width = this.field.width;
+        int height = this.field.height;
+        byte[] squares = this.field.squares;
+        int x0 = tileX0(tile);
+        int y0 = tileY0(tile);
+        int x1 = Math.min(x0 + this.tileSize, width);
+        int y1 = Math.min(y0 + this.tileSize, height);
+
+        for (int x = x0; x < x1; x++) {
+            for (int y = y0; y < y1; y++) {
+                if (squares[x * height + y] == Minefield.MINE) {
+                    continue;
+                }
+                byte count = 0;
+                for (int nextX = Math.max(x - 1, 0); nextX <= Math.min(x + 1, width - 1); nextX++) {
+                    for (int nextY = Math.max(y - 1, 0); nextY <= Math.min(y + 1, height - 1); nextY++) {
+                        if (squares[nextX * height + nextY] == Minefield.MINE) {
+                            count++;
+                        }
+                    }
+                }
+                squares[x * height + y] = count;
+            }
+        }
+    }
+
+    /**
+     * Draw the number of mines that fall in the first group when the given number
+     * of mines is spread uniformly over two groups of squares.
+     *
+     * <p>
+     * Inversion sampling that starts from the mode and walks outwards in both
+     * directions, so the expected number of steps is proportional to the
+     * standard deviation of the distribution.
+     * </p>
+     *
+     * @param rng Random number generator
+     * @param first Number of squares in the first group
+     * @param second Number of squares in the second group
+     * @param mines Number of mines, at most first + second
+     * @return Number of mines in the first group
+     */
+    static long hypergeometric(SplittableRandom rng, long first, long second, long mines) {
+        long min = Math.max(0, mines - second);
+        long max = Math.min(mines, first);
+        if (min == max) {
+            return min;
+        }
+        long total = first + second;
+        long mode = Math.min(max, Math.max(min, (mines + 1) * (first + 1) / (total + 2)));
+        double modeProbability = Math.exp(logChoose(first, mode) + logChoose(second, mines - mode)
+                - logChoose(total, mines));
+
+        double u = rng.nextDouble() - modeProbability;
+        if (u <= 0) {
+            return mode;
+        }
+        long down = mode;
+        long up = mode;
+        double downProbability = modeProbability;
+        double upProbability = modeProbability;
+        while (down > min || up < max) {
+            if (up < max) {
+                // P(up + 1) / P(up)
+                upProbability *= (double) (first - up) * (mines - up)
+                        / ((double) (up + 1) * (second - mines + up + 1));
+                up++;
+                u -= upProbability;
+                if (u <= 0) {
+                    return up;
+                }
+            }
+            if (down > min) {
+                // P(down - 1) / P(down)
+                downProbability *= (double) down * (second - mines + down)
+                        / ((double) (first - down + 1) * (mines - down + 1));
+                down--;
+                u -= downProbability;
+                if (u <= 0) {
+                    return down;
+                }
+            }
+        }
+        // Only reachable through rounding errors in the tails
+        return mode;
+    }
+
+    private static double logChoose(long n, long k) {
+        return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+    }
+
+    private static final double[] LOG_FACTORIALS = new double[256];
+
+    static {
+        for (int i = 1; i < LOG_FACTORIALS.length; i++) {
+            LOG_FACTORIALS[i] = LOG_FACTORIALS[i - 1] + Math.log(i);
+        }
+    }
+
+    private static double logFactorial(long n) {
+        if (n < LOG_FACTORIALS.length) {
+            return LOG_FACTORIALS[(int) n];
+        }
+        // Stirling series, accurate to double precision for n >= 256
+        double x = n;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x)
+                + 1 / (12 * x) - 1 / (360 * x * x * x);
+    }
+}
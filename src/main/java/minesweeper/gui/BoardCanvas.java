@@ -0,0 +1,351 @@
+package minesweeper.gui;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import minesweeper.model.Board;
+import minesweeper.model.Highlight;
+import minesweeper.model.Square;
+
+/**
+ * Renders a Board on a single Canvas, for boards too large for a Button per square.
+ *
+ * <p>
+ * Only the squares inside the viewport are drawn. Changed squares are marked
+ * dirty and redrawn once on the next frame, and the whole viewport is redrawn
+ * only when it is panned or zoomed. The view is panned with the scroll wheel or
+ * the arrow keys, and zoomed with Ctrl + scroll wheel or the + and - keys.
+ * Mouse presses are mapped to board coordinates and passed on to a SquareInput.
+ * </p>
+ */
+public class BoardCanvas {
+    /**
+     * Receives mouse presses on squares
+     */
+    public interface SquareInput {
+        void pressed(int x, int y, MouseButton button);
+
+        void released(MouseButton button);
+    }
+
+    private static final double MIN_SQUARE_SIZE = 4;
+    private static final double MAX_SQUARE_SIZE = 48;
+    private static final double ZOOM_STEP = 1.25;
+    private static final double KEY_PAN = 40;
+    // Numbers are left out when squares are too small to read them
+    private static final double MIN_TEXT_SIZE = 9;
+
+    private static final Color BACKGROUND = Color.rgb(205, 206, 206);
+    private static final Color OPENED = Color.rgb(223, 219, 219);
+    private static final Color UNOPENED = Color.rgb(184, 181, 178);
+    private static final Color BORDER = Color.rgb(149, 149, 149);
+    private static final Color RED_HIGHLIGHT = Color.rgb(253, 136, 136, 0.5);
+    private static final Color GREEN_HIGHLIGHT = Color.rgb(76, 160, 76, 0.5);
+    // Same colours as the custom-label styles of the buttons
+    private static final Color[] NUMBER_COLORS = {
+        null,
+        Color.rgb(8, 88, 238),
+        Color.rgb(19, 133, 4),
+        Color.rgb(255, 36, 36),
+        Color.rgb(18, 0, 122),
+        Color.rgb(117, 3, 3),
+        Color.rgb(0, 156, 156),
+        Color.rgb(0, 0, 0),
+        Color.rgb(88, 61, 61)
+    };
+
+    private final Board board;
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private final Image flagImage;
+    private final Image mineImage;
+    private final AnimationTimer renderer;
+    private SquareInput input;
+    private boolean disabled = false;
+
+    private double squareSize;
+    // Position of the top left corner of the viewport on the board, in pixels
+    private double viewX = 0;
+    private double viewY = 0;
+
+    // Squares to be redrawn on the next frame, by square id
+    private boolean fullRedraw = true;
+    private final BitSet dirty;
+    private int[] dirtyIds = new int[64];
+    private int dirtyCount = 0;
+    // Squares currently drawn with a highlight or marker, redrawn when highlights are cleared
+    private final BitSet highlighted;
+    private final HashMap<Integer, Highlight> markers = new HashMap<>();
+
+    /**
+     * Create a renderer for a board
+     *
+     * @param board The board to be drawn
+     * @param width Width of the viewport in pixels
+     * @param height Height of the viewport in pixels
+     * @param squareSize Initial size of a square in pixels
+     */
+    public BoardCanvas(Board board, double width, double height, double squareSize) {
+        this.board = board;
+        this.canvas = new Canvas(width, height);
+        this.graphics = this.canvas.getGraphicsContext2D();
+        this.flagImage = new Image(BoardCanvas.class.getResourceAsStream("/Flag.png"));
+        this.mineImage = new Image(BoardCanvas.class.getResourceAsStream("/Mine.png"));
+        this.squareSize = Math.max(MIN_SQUARE_SIZE, Math.min(MAX_SQUARE_SIZE, squareSize));
+        this.dirty = new BitSet(board.width * board.height);
+        this.highlighted = new BitSet(board.width * board.height);
+
+        this.canvas.setFocusTraversable(true);
+        this.canvas.setOnMousePressed(this::mousePressed);
+        this.canvas.setOnMouseReleased(e -> {
+            if (!this.disabled && this.input != null) {
+                this.input.released(e.getButton());
+            }
+        });
+        this.canvas.setOnScroll(this::scrolled);
+        this.canvas.setOnKeyPressed(this::keyPressed);
+
+        this.renderer = new AnimationTimer() {
+            public void handle(long currentNanoTime) {
+                redraw();
+            }
+        };
+        this.renderer.start();
+    }
+
+    public Canvas getCanvas() {
+        return this.canvas;
+    }
+
+    public void setInput(SquareInput input) {
+        this.input = input;
+    }
+
+    /**
+     * Ignore presses on squares, panning and zooming still work
+     * @param disabled True to ignore presses
+     */
+    public void setDisabled(boolean disabled) {
+        this.disabled = disabled;
+    }
+
+    /**
+     * Stop redrawing, called when the view is no longer shown
+     */
+    public void dispose() {
+        this.renderer.stop();
+    }
+
+    /**
+     * Redraw a square on the next frame
+     * @param x X coordinate
+     * @param y Y coordinate
+     */
+    public void markDirty(int x, int y) {
+        int id = this.board.getSquareId(x, y);
+        if (this.dirty.get(id)) {
+            return;
+        }
+        this.dirty.set(id);
+        if (this.dirtyCount == this.dirtyIds.length) {
+            this.dirtyIds = Arrays.copyOf(this.dirtyIds, this.dirtyCount * 2);
+        }
+        this.dirtyIds[this.dirtyCount++] = id;
+    }
+
+    /**
+     * Mark a square, for example the last move of a bot game, until highlights are cleared
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param highlight RED or GREEN for a coloured square, BLACK for a border
+     */
+    public void mark(int x, int y, Highlight highlight) {
+        this.markers.put(this.board.getSquareId(x, y), highlight);
+        markDirty(x, y);
+    }
+
+    /**
+     * Redraw all highlighted and marked squares without their highlights.
+     * The highlights of the Board must have been cleared first.
+     */
+    public void clearHighlights() {
+        this.markers.clear();
+        for (int id = this.highlighted.nextSetBit(0); id >= 0; id = this.highlighted.nextSetBit(id + 1)) {
+            markDirty(id / this.board.height, id % this.board.height);
+        }
+        this.highlighted.clear();
+    }
+
+    private void mousePressed(MouseEvent e) {
+        this.canvas.requestFocus();
+        if (this.disabled || this.input == null) {
+            return;
+        }
+        int x = (int) Math.floor((e.getX() + this.viewX) / this.squareSize);
+        int y = (int) Math.floor((e.getY() + this.viewY) / this.squareSize);
+        if (this.board.withinBoard(x, y)) {
+            this.input.pressed(x, y, e.getButton());
+        }
+    }
+
+    private void scrolled(ScrollEvent e) {
+        if (e.isControlDown()) {
+            zoom(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+        } else {
+            pan(-e.getDeltaX(), -e.getDeltaY());
+        }
+        e.consume();
+    }
+
+    private void keyPressed(KeyEvent e) {
+        switch (e.getCode()) {
+            case LEFT:
+                pan(-KEY_PAN, 0);
+                break;
+            case RIGHT:
+                pan(KEY_PAN, 0);
+                break;
+            case UP:
+                pan(0, -KEY_PAN);
+                break;
+            case DOWN:
+                pan(0, KEY_PAN);
+                break;
+            case PLUS:
+            case EQUALS:
+            case ADD:
+                zoom(ZOOM_STEP, this.canvas.getWidth() / 2, this.canvas.getHeight() / 2);
+                break;
+            case MINUS:
+            case SUBTRACT:
+                zoom(1 / ZOOM_STEP, this.canvas.getWidth() / 2, this.canvas.getHeight() / 2);
+                break;
+            default:
+                return;
+        }
+        e.consume();
+    }
+
+    /**
+     * Move the viewport by the given number of pixels
+     */
+    private void pan(double dx, double dy) {
+        this.viewX += dx;
+        this.viewY += dy;
+        clampView();
+        this.fullRedraw = true;
+    }
+
+    /**
+     * Scale the squares, keeping the board position under the given point in place
+     */
+    private void zoom(double factor, double pointX, double pointY) {
+        double newSize = Math.max(MIN_SQUARE_SIZE, Math.min(MAX_SQUARE_SIZE, this.squareSize * factor));
+        double boardX = (this.viewX + pointX) / this.squareSize;
+        double boardY = (this.viewY + pointY) / this.squareSize;
+        this.squareSize = newSize;
+        this.viewX = boardX * newSize - pointX;
+        this.viewY = boardY * newSize - pointY;
+        clampView();
+        this.fullRedraw = true;
+    }
+
+    private void clampView() {
+        double maxX = Math.max(0, this.board.width * this.squareSize - this.canvas.getWidth());
+        double maxY = Math.max(0, this.board.height * this.squareSize - this.canvas.getHeight());
+        this.viewX = Math.max(0, Math.min(maxX, this.viewX));
+        this.viewY = Math.max(0, Math.min(maxY, this.viewY));
+    }
+
+    /**
+     * Draw the dirty squares that are visible, or the whole viewport if it has
+     * moved or more squares are dirty than fit in it
+     */
+    private void redraw() {
+        if (!this.fullRedraw && this.dirtyCount == 0) {
+            return;
+        }
+        int firstX = (int) (this.viewX / this.squareSize);
+        int firstY = (int) (this.viewY / this.squareSize);
+        int lastX = Math.min(this.board.width - 1, (int) ((this.viewX + this.canvas.getWidth()) / this.squareSize));
+        int lastY = Math.min(this.board.height - 1,
+                (int) ((this.viewY + this.canvas.getHeight()) / this.squareSize));
+
+        if (this.fullRedraw || this.dirtyCount > (lastX - firstX + 1) * (lastY - firstY + 1)) {
+            this.graphics.setFill(BACKGROUND);
+            this.graphics.fillRect(0, 0, this.canvas.getWidth(), this.canvas.getHeight());
+            for (int x = firstX; x <= lastX; x++) {
+                for (int y = firstY; y <= lastY; y++) {
+                    drawSquare(x, y);
+                }
+            }
+        } else {
+            for (int i = 0; i < this.dirtyCount; i++) {
+                int x = this.dirtyIds[i] / this.board.height;
+                int y = this.dirtyIds[i] % this.board.height;
+                if (x >= firstX && x <= lastX && y >= firstY && y <= lastY) {
+                    drawSquare(x, y);
+                }
+            }
+        }
+        this.dirty.clear();
+        this.dirtyCount = 0;
+        this.fullRedraw = false;
+    }
+
+    private void drawSquare(int x, int y) {
+        Square square = this.board.board[x][y];
+        double size = this.squareSize;
+        double left = x * size - this.viewX;
+        double top = y * size - this.viewY;
+
+        this.graphics.setFill(BORDER);
+        this.graphics.fillRect(left, top, size, size);
+        this.graphics.setFill(square.isOpened() ? OPENED : UNOPENED);
+        this.graphics.fillRect(left, top, size - 1, size - 1);
+
+        double iconSize = Math.min(15, size - 2);
+        double iconLeft = left + (size - iconSize) / 2;
+        double iconTop = top + (size - iconSize) / 2;
+        if (square.isOpened()) {
+            if (square.isMine()) {
+                this.graphics.drawImage(this.mineImage, iconLeft, iconTop, iconSize, iconSize);
+            } else if (square.surroundingMines() != 0 && size >= MIN_TEXT_SIZE) {
+                // Boards with more than eight neighbours share the colour of eight
+                this.graphics.setFill(NUMBER_COLORS[Math.min(square.surroundingMines(), NUMBER_COLORS.length - 1)]);
+                this.graphics.setFont(Font.font("Impact", FontWeight.BOLD, size * 0.6));
+                this.graphics.setTextAlign(TextAlignment.CENTER);
+                this.graphics.setTextBaseline(VPos.CENTER);
+                this.graphics.fillText("" + square.surroundingMines(), left + size / 2, top + size / 2);
+            }
+        } else if (square.isFlagged()) {
+            this.graphics.drawImage(this.flagImage, iconLeft, iconTop, iconSize, iconSize);
+        }
+
+        int id = this.board.getSquareId(x, y);
+        Highlight highlight = this.markers.containsKey(id) ? this.markers.get(id) : square.highlight;
+        if (highlight != Highlight.NONE) {
+            this.highlighted.set(id);
+            if (highlight != Highlight.BLACK) {
+                this.graphics.setFill(highlight == Highlight.RED ? RED_HIGHLIGHT : GREEN_HIGHLIGHT);
+                this.graphics.fillRect(left, top, size, size);
+            }
+            this.graphics.setStroke(Color.BLACK);
+            this.graphics.setLineWidth(1);
+            this.graphics.strokeRect(left + 0.5, top + 0.5, size - 1, size - 1);
+        }
+    }
+}
@@ -7,42 +7,79 @@ import javafx.scene.layout.VBox;
 import javafx.scene.layout.HBox;
 import javafx.scene.Node;
 import javafx.scene.control.Slider;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.input.MouseButton;
 import javafx.scene.control.Separator;
 import javafx.geometry.Orientation;
 import minesweeper.model.Board;
+import minesweeper.model.BoardSnapshot;
+import minesweeper.model.ChangeJournal;
 import minesweeper.model.GameStats;
+import minesweeper.model.Highlight;
 import minesweeper.model.MoveType;
 import minesweeper.generator.MinefieldGenerator;
 
 import java.util.ArrayList;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 import minesweeper.StorageSingleton;
 import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleBooleanProperty;
 import minesweeper.bot.Bot;
 import minesweeper.bot.BotSelect;
 import minesweeper.bot.BotExecutor;
 import minesweeper.model.Move;
 import minesweeper.model.Square;
+import minesweeper.structures.MoveRingBuffer;
+import minesweeper.structures.SquareSet;
 
 public class GameView {
+    private static final int BOT_CHANNEL_CAPACITY = 256;
+    // Largest number of bot moves applied in a single frame in turbo mode
+    private static final int TURBO_MOVES_PER_FRAME = 4096;
+    // Boards with more squares are drawn on a BoardCanvas instead of a Button per square
+    private static final int CANVAS_SQUARES = 10000;
+    // Number of board changes read from the journal at a time
+    private static final int CHANGE_BATCH = 1024;
+    private static final int CANVAS_MAX_WIDTH = 960;
+    private static final int CANVAS_MAX_HEIGHT = 640;
+
     private GridPane gameGP;
     private Board board;
     private Board botBoard;
     private VBox vbox;
     private int sizeX;
     private Bot bot;
+    // Separate instance for hints, so a hint never shares state with a running bot game
+    private Bot hintBot;
+    private Future<ArrayList<Move>> hintFuture;
+    // Incremented whenever a hint is requested or cancelled, a hint finishing with an older number is stale
+    private int hintRequest = 0;
+    private ProgressIndicator hintProgress;
     private Label endLabel = new Label("Mines: ");
     private Label timerLabel = new Label("Time: 0");
     private AnimationTimer timer;
     private Label animationSpeedLabel = new Label("Bot game animation speed");
     private Slider animationSlider;
+    private CheckBox turboBox;
     private Button[][] buttonGrid;
+    private BoardCanvas canvas;
+    // Width of the board on screen in pixels
+    private int viewWidth;
     private Button botButton;
     private Button botGame;
+    private AnimationTimer botTimer;
+    private Future<BotExecutor> botGameFuture;
+    // While redraws are deferred, changed squares are collected here and redrawn once per frame
+    private ChangeJournal.Reader boardChanges;
+    private final int[] changeBatch = new int[CHANGE_BATCH];
+    private SquareSet dirtySquares;
+    private final ArrayList<Button> highlightedButtons = new ArrayList<>();
+    // Squares given a highlight by a move, so that clearing them does not go through the whole board
+    private final ArrayList<Square> highlightedSquares = new ArrayList<>();
+    private final ArrayList<Move> pendingMoves = new ArrayList<>();
     private int buttonSize;
     private SimpleBooleanProperty leftClick = new SimpleBooleanProperty();
     private SimpleBooleanProperty rightClick = new SimpleBooleanProperty();
@@ -68,8 +105,11 @@ public class GameView {
         this.vbox = vbox;
         sizeX = x;
         int sizeY = y;
-        this.buttonGrid = new Button[x][y];
-       
+        boolean useCanvas = x * y > CANVAS_SQUARES;
+        if (!useCanvas) {
+            this.buttonGrid = new Button[x][y];
+        }
+
         if (x < 11 && y < 11) {
             buttonSize = 45;
         } else if (x < 17 && y < 17) {
@@ -81,37 +121,25 @@ public class GameView {
         } else {
             buttonSize = 18;
         }
+        viewWidth = useCanvas ? Math.min(sizeX * buttonSize, CANVAS_MAX_WIDTH) : sizeX * buttonSize;
 
         this.bot = BotSelect.getBot();
 
+        this.hintBot = BotSelect.getBot();
         botButton = new Button("Help (bot)");
-        botButton.setOnMouseClicked(e -> {
-            this.clearAllHighlights();
-            ArrayList<Move> helperMoves = this.bot.getPossibleMoves(board);
-            for (Move move : helperMoves) {
-                board.makeMove(move);
-                stats.update(move);
-          
-                if (!board.gameLost || board.gameWon) {
-                    botGame.setDisable(true);
-                    this.updateGameGP(move.x, move.y);
-                } else {
-                    if (this.board.gameLost) {
-                        buttonGrid[move.x][move.y].getStyleClass().add("red-highlight");
-                    }
-                    this.updateGameGP(move.x, move.y);
-                    this.gameOver();
-                }
-            }
-        });
+        botButton.setOnMouseClicked(e -> this.requestHint());
+        hintProgress = new ProgressIndicator();
+        hintProgress.setMaxWidth(24);
+        hintProgress.setMaxHeight(24);
+        hintProgress.setVisible(false);
 
         this.bot.setGameStats(this.stats);
 
-        animationSpeedLabel.setMinWidth(sizeX * buttonSize);
+        animationSpeedLabel.setMinWidth(viewWidth);
         animationSpeedLabel.getStyleClass().add("label-subheader");
         initializeSlider();
 
-        VBox animationSpeedVBox = new VBox(animationSpeedLabel, this.animationSlider);
+        VBox animationSpeedVBox = new VBox(animationSpeedLabel, this.animationSlider, this.turboBox);
         animationSpeedVBox.setVisible(false);
 
         botGame = new Button("Bot Game");
@@ -142,6 +170,7 @@ public class GameView {
         HBox hb = new HBox();
         hb.getChildren().add(newGame);
         hb.getChildren().add(botButton);
+        hb.getChildren().add(hintProgress);
         hb.getChildren().add(botGame);
         hb.getChildren().add(statsButton);
 
@@ -149,32 +178,38 @@ public class GameView {
 
         this.vbox.getChildren().add(new HBox(this.endLabel, new Separator(Orientation.VERTICAL), timerLabel));
 
-        gameGP = new GridPane();
-        gameGP.setMaxWidth(sizeX * buttonSize);
-        gameGP.getStyleClass().add("custom-gridpane");
-        vbox.getChildren().add(gameGP);
-        this.vbox.getChildren().add(animationSpeedVBox);
-
         generator = new MinefieldGenerator(seed);
 
         board = new Board(generator, x, y, mines);
+
+        if (useCanvas) {
+            canvas = new BoardCanvas(board, viewWidth, Math.min(sizeY * buttonSize, CANVAS_MAX_HEIGHT), buttonSize);
+            canvas.setInput(new BoardCanvas.SquareInput() {
+                @Override
+                public void pressed(int x, int y, MouseButton button) {
+                    squarePressed(button, x, y);
+                }
+
+                @Override
+                public void released(MouseButton button) {
+                    squareReleased(button);
+                }
+            });
+            vbox.getChildren().add(canvas.getCanvas());
+        } else {
+            gameGP = new GridPane();
+            gameGP.setMaxWidth(viewWidth);
+            gameGP.getStyleClass().add("custom-gridpane");
+            vbox.getChildren().add(gameGP);
+        }
+        this.vbox.getChildren().add(animationSpeedVBox);
+
         this.endLabel.setText(this.endLabel.getText() + board.getUnflaggedMines());
         this.endLabel.getStyleClass().add("label-subheader");
-        Function<Square, Void> observerFunction = new Function<Square, Void>() {
-            @Override
-            public Void apply(Square observed) {
-                updateGameGP(observed.getX(), observed.getY());
-                /*
-                 * Somewhat hacky, only because java does not allow instancing Void type, and
-                 * Object cannot be parameterized nor does it suffice as a Void. This null is
-                 * not and even cannot be addressed anywhere.
-                 */
-                return null;
-            }
-        };
-        board.setChangeObserver(observerFunction);
+        boardChanges = board.getChangeJournal().newReader();
+        dirtySquares = new SquareSet(x, y);
         botBoard = new Board(generator, x, y, mines);
-        for (int i = 0; i < x; i++) {
+        for (int i = 0; i < x && !useCanvas; i++) {
             for (int j = 0; j < y; j++) {
                 Button button = buildButton(new Button(), buttonSize, i, j);
                 gameGP.add(button, i, j);
@@ -225,32 +260,44 @@ public class GameView {
         button.setMinHeight(size);
         button.setMaxHeight(size);
         button.getStyleClass().add("unopened-button");
+        button.setOnMousePressed((e) -> squarePressed(e.getButton(), x, y));
+        button.setOnMouseReleased((e) -> squareReleased(e.getButton()));
+        return button;
+    }
+
+    /**
+     * Handles a mouse press on a square, from a button or from the canvas
+     */
+    private void squarePressed(MouseButton mouseButton, int x, int y) {
+        // A hint computed for the board before this move would be out of date
+        this.cancelHint();
         // Some Window managers and/or distros seem to shortcut right + left as middle mouse. 
-        button.setOnMousePressed((e) -> {
-            if (e.getButton() == MouseButton.PRIMARY || e.getButton() == MouseButton.MIDDLE) { 
-                this.leftClick.set(true);
-            }
-            if (e.getButton() == MouseButton.SECONDARY || e.getButton() == MouseButton.MIDDLE) {
-                this.rightClick.set(true);
-            }
-            this.buttonUpdater(x, y);
+        if (mouseButton == MouseButton.PRIMARY || mouseButton == MouseButton.MIDDLE) { 
+            this.leftClick.set(true);
+        }
+        if (mouseButton == MouseButton.SECONDARY || mouseButton == MouseButton.MIDDLE) {
+            this.rightClick.set(true);
+        }
+        this.buttonUpdater(x, y);
 
-            timerPreviousTime[0] = System.nanoTime();
-            timer.start();
-        });
-        button.setOnMouseReleased((e) -> {
-            if (e.getButton() == MouseButton.PRIMARY || e.getButton() == MouseButton.MIDDLE) { 
-                this.leftClick.set(false);
-            }
-            if (e.getButton() == MouseButton.SECONDARY || e.getButton() == MouseButton.MIDDLE) {
-                this.rightClick.set(false);
-            }
-            botGame.setDisable(true);
+        timerPreviousTime[0] = System.nanoTime();
+        timer.start();
+    }
 
-            timerPreviousTime[0] = System.nanoTime();
-            timer.start();
-        });
-        return button;
+    /**
+     * Handles the release of a mouse button pressed on a square
+     */
+    private void squareReleased(MouseButton mouseButton) {
+        if (mouseButton == MouseButton.PRIMARY || mouseButton == MouseButton.MIDDLE) { 
+            this.leftClick.set(false);
+        }
+        if (mouseButton == MouseButton.SECONDARY || mouseButton == MouseButton.MIDDLE) {
+            this.rightClick.set(false);
+        }
+        botGame.setDisable(true);
+
+        timerPreviousTime[0] = System.nanoTime();
+        timer.start();
     }
     /**
      * Helper method for button clicking
@@ -272,11 +319,11 @@ public class GameView {
                 stats.update(flag);
             }
         }
-        updateGameGP(x, y);
+        redrawChangedSquares();
         this.clearAllHighlights();
         if (!nonEndingMove | this.board.gameLost | this.board.gameWon) {
             if (this.board.gameLost) {
-                buttonGrid[x][y].getStyleClass().add("red-highlight");
+                highlightSquare(x, y, Highlight.RED);
             }
             gameOver();
         }
@@ -288,14 +335,15 @@ public class GameView {
     public void gameOver() {
         animationSpeedLabel.setVisible(false);
         animationSlider.setVisible(false);
-        this.endLabel.setMinWidth(sizeX * buttonSize / 2);
-        this.timerLabel.setMinWidth(sizeX * buttonSize / 2);
+        this.endLabel.setMinWidth(viewWidth / 2);
+        this.timerLabel.setMinWidth(viewWidth / 2);
         if (this.board.gameWon) {
             this.endLabel.setText("You won!");
             this.endLabel.getStyleClass().add("label-success");
             this.timerLabel.getStyleClass().add("label-success");
         } else {
             this.board.openAllMines();
+            redrawChangedSquares();
             this.endLabel.setText("You lost.");
             this.endLabel.getStyleClass().add("label-failure");
             this.timerLabel.getStyleClass().add("label-failure");
@@ -310,21 +358,26 @@ public class GameView {
      * @param y the Y coordinate
      */
     public void updateGameGP(int x, int y) {
+        if (this.canvas != null) {
+            this.canvas.markDirty(x, y);
+            this.endLabel.setText("Mines: " + this.board.getUnflaggedMines());
+            return;
+        }
 
-        gameGP.setMaxWidth(sizeX * buttonSize);
+        gameGP.setMaxWidth(viewWidth);
         // gameGP.getStyleClass().add("custom-gridpane");
         Button updatedButton = this.buttonGrid[x][y];
         // Updates the button in the current location with the correct
         // visual representation of the Square.
         switch (board.board[x][y].highlight) {
             case RED:
-                updatedButton.getStyleClass().add("red-highlight");
+                highlight(updatedButton, "red-highlight");
                 break;
             case GREEN:
-                updatedButton.getStyleClass().add("green-highlight");
+                highlight(updatedButton, "green-highlight");
                 break;
             case BLACK:
-                updatedButton.getStyleClass().add("black-highlight");
+                highlight(updatedButton, "black-highlight");
                 break;
             default:
                 break;
@@ -362,24 +415,128 @@ public class GameView {
     }
 
     /**
-     * Iterate through the grid of buttons and clear their highlight styles
+     * Add a highlight style to a button, remembering the button so that
+     * clearAllHighlights() does not need to go through the whole grid
+     * @param button The highlighted button
+     * @param style The highlight style class
+     */
+    private void highlight(Button button, String style) {
+        button.getStyleClass().add(style);
+        this.highlightedButtons.add(button);
+    }
+
+    /**
+     * Highlight a square whether the board is drawn with buttons or on a canvas
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param highlight RED, GREEN or BLACK
+     */
+    private void highlightSquare(int x, int y, Highlight highlight) {
+        if (this.canvas != null) {
+            this.canvas.mark(x, y, highlight);
+        } else {
+            highlight(this.buttonGrid[x][y], highlight.name().toLowerCase() + "-highlight");
+        }
+    }
+
+    /**
+     * Make a move on the board, remembering the square if the move highlights it
+     * @param board The board of this view
+     * @param move The move to be made
+     */
+    private void makeMove(Board board, Move move) {
+        board.makeMove(move);
+        if (move.type == MoveType.HIGHLIGHT) {
+            this.highlightedSquares.add(board.getSquareAt(move.x, move.y));
+        }
+    }
+
+    /**
+     * Clear the highlights of all highlighted squares and the styles of all highlighted buttons
      */
     public void clearAllHighlights() {
-        this.board.clearHighlights();
-        for (Button[] buttonRow : this.buttonGrid) {
-            for (Button button : buttonRow) {
-                button.getStyleClass().remove("red-highlight");
-                button.getStyleClass().remove("green-highlight");
-                button.getStyleClass().remove("black-highlight");
+        for (Square square : this.highlightedSquares) {
+            square.highlight = Highlight.NONE;
+        }
+        this.highlightedSquares.clear();
+        if (this.canvas != null) {
+            this.canvas.clearHighlights();
+        }
+        for (Button button : this.highlightedButtons) {
+            button.getStyleClass().remove("red-highlight");
+            button.getStyleClass().remove("green-highlight");
+            button.getStyleClass().remove("black-highlight");
+        }
+        this.highlightedButtons.clear();
+    }
+
+    /**
+     * Starts computing a hint on a snapshot of the board. The computation runs
+     * on the shared hint runner, and the highlights are applied on the FX
+     * thread when it finishes, unless the hint has been cancelled.
+     */
+    private void requestHint() {
+        this.cancelHint();
+        this.clearAllHighlights();
+        int request = this.hintRequest;
+        BoardSnapshot snapshot = this.board.snapshot();
+        Bot helper = this.hintBot;
+        this.hintProgress.setVisible(true);
+        this.hintFuture = StorageSingleton.getInstance().hints.submit(() -> {
+            // The bot gets a board of its own, built on the hint thread
+            ArrayList<Move> helperMoves = helper.getPossibleMoves(snapshot.toBoard());
+            Platform.runLater(() -> this.showHint(request, helperMoves));
+            return helperMoves;
+        });
+    }
+
+    /**
+     * Applies the highlights of a finished hint, called on the FX thread
+     */
+    private void showHint(int request, ArrayList<Move> helperMoves) {
+        if (request != this.hintRequest) {
+            return;
+        }
+        this.hintFuture = null;
+        this.hintProgress.setVisible(false);
+        for (Move move : helperMoves) {
+            makeMove(this.board, move);
+            stats.update(move);
+
+            if (!board.gameLost || board.gameWon) {
+                botGame.setDisable(true);
+                this.updateGameGP(move.x, move.y);
+            } else {
+                if (this.board.gameLost) {
+                    highlightSquare(move.x, move.y, Highlight.RED);
+                }
+                this.updateGameGP(move.x, move.y);
+                this.gameOver();
             }
         }
     }
 
+    /**
+     * Stops computing the current hint, if any, and discards its result
+     */
+    private void cancelHint() {
+        this.hintRequest++;
+        if (this.hintFuture != null) {
+            this.hintFuture.cancel(true);
+            this.hintFuture = null;
+        }
+        this.hintProgress.setVisible(false);
+    }
+
     /**
      * Disables all buttons currently in game
      */
     public void disableAllButtons() {
         this.botButton.setDisable(true);
+        if (this.canvas != null) {
+            this.canvas.setDisabled(true);
+            return;
+        }
         for (Button[] buttonRow : this.buttonGrid) {
             for (Button button : buttonRow) {
                 button.setDisable(true);
@@ -390,24 +547,27 @@ public class GameView {
 
     /**
      * This method is called when user presses the bot game button.
-     * It creates BotExecutor thread and connects to it via a Queue,
+     * It submits a BotExecutor to the shared GameRunner and connects to it via a Queue,
      * and initializes a new AnimationTimer to update the GUI based
      * on the bot moves.
      */
     private void botGameLoop() {
+        this.cancelHint();
         this.botButton.setDisable(true);
         this.disableAllButtons();
-        LinkedBlockingQueue<Move> moveQueue = new LinkedBlockingQueue<>();
+        // Bounded, so the bot waits for the animation instead of queueing the whole game
+        MoveRingBuffer moveQueue = new MoveRingBuffer(BOT_CHANNEL_CAPACITY, MoveRingBuffer.Backpressure.BLOCK);
         currentNanotime[0] = System.nanoTime();
         // This timer updates the gui board with the moves that bot makes
-        AnimationTimer timer = new AnimationTimer() {
+        this.botTimer = new AnimationTimer() {
             public void handle(long currentNanoTime) {
                 // Time that has passed since last update
                 StorageSingleton.getInstance().animationSpeed = animationSlider.getValue();
                 long deltaTime = TimeUnit.MILLISECONDS.convert(currentNanoTime - currentNanotime[0],
                         TimeUnit.NANOSECONDS);
-                // Updates the board only if certain time has passed
-                if (deltaTime >= 2200 - animationSlider.getValue()) {
+                StorageSingleton.getInstance().turboMode = turboBox.isSelected();
+                // Updates the board only if certain time has passed, or on every frame in turbo mode
+                if (turboBox.isSelected() || deltaTime >= 2200 - animationSlider.getValue()) {
                     updater(moveQueue, board);
                     // Set the time since last update to current time
                     currentNanotime[0] = System.nanoTime();
@@ -420,16 +580,39 @@ public class GameView {
 
             }
         };
-        // This encapsulates the bot as a thread, bot gets its own board
+        // This encapsulates the bot as a task, bot gets its own board
         // (board that is initializes with the same seed) that it uses to make
         // its moves
-        BotExecutor botThread = new BotExecutor(moveQueue, bot, botBoard);
+        BotExecutor botTask = new BotExecutor(moveQueue, bot, botBoard);
 
-        // Starts the gui updater and the bot thread
+        // Starts the gui updater and the bot game
         timerPreviousTime[0] = System.nanoTime();
-        timer.start();
+        this.botTimer.start();
         stats.startTime = System.nanoTime();
-        botThread.start();
+        this.botGameFuture = StorageSingleton.getInstance().botGames.submit(botTask);
+    }
+
+    /**
+     * Stops the bot game and the rendering of this view, used when the view is left for a new game
+     */
+    public void dispose() {
+        cancelHint();
+        stopBotGame();
+        if (this.canvas != null) {
+            this.canvas.dispose();
+        }
+    }
+
+    /**
+     * Stops a running bot game and its GUI updates
+     */
+    public void stopBotGame() {
+        if (this.botGameFuture != null) {
+            this.botGameFuture.cancel(true);
+        }
+        if (this.botTimer != null) {
+            this.botTimer.stop();
+        }
     }
 
     /**
@@ -449,26 +632,69 @@ public class GameView {
     /**
      * Updater function for the GUI when running a bot game
      * Called by the AnimationTimer in botGameLoop()
+     *
+     * In turbo mode all moves the bot has made so far are applied at once,
+     * up to TURBO_MOVES_PER_FRAME, otherwise a single move. Squares changed by
+     * the moves are redrawn once at the end, however many moves changed them.
+     *
      * @param moveQueue The queue to which the bot will place its moves
      * @param board The current board for the GUI
      */
-    public void updater(LinkedBlockingQueue<Move> moveQueue, Board board) {
-        // Takes a move that has bot has made
-        Move move = moveQueue.poll();
-
-        if (move == null) {
+    public void updater(MoveRingBuffer moveQueue, Board board) {
+        // Takes the moves that the bot has made
+        this.pendingMoves.clear();
+        if (moveQueue.drainTo(this.pendingMoves, this.turboBox.isSelected() ? TURBO_MOVES_PER_FRAME : 1) == 0) {
             return;
         }
 
         this.clearAllHighlights();
         this.timer.start();
-        // Makes move to the gui board and updates the gui buttons
-        board.makeMove(move);
-        stats.update(move);
-        buttonGrid[move.x][move.y].getStyleClass().add("black-highlight");
-        updateGameGP(move.x, move.y);
+        // Makes the moves to the gui board, the changed squares are collected by its journal
+        Move move = null;
+        for (Move pending : this.pendingMoves) {
+            move = pending;
+            makeMove(board, move);
+            stats.update(move);
+            if (move.type == MoveType.HIGHLIGHT) {
+                // Highlights are not board changes, so they are not in the journal
+                this.dirtySquares.add(board.getSquareAt(move.x, move.y));
+            }
+            if (board.gameLost || board.gameWon) {
+                break;
+            }
+        }
+        redrawChangedSquares();
+
+        highlightSquare(move.x, move.y, Highlight.BLACK);
         if (this.board.gameLost) {
-            buttonGrid[move.x][move.y].getStyleClass().add("red-highlight");
+            highlightSquare(move.x, move.y, Highlight.RED);
+        }
+    }
+
+    /**
+     * Update the buttons of all squares changed on the board since the last call.
+     * The changes are read from the board's journal in batches, and a square
+     * changed several times is redrawn once.
+     */
+    private void redrawChangedSquares() {
+        int count = this.boardChanges.read(this.changeBatch);
+        while (count > 0) {
+            for (int i = 0; i < count; i++) {
+                this.dirtySquares.add(this.board.getSquareById(ChangeJournal.squareId(this.changeBatch[i])));
+            }
+            count = this.boardChanges.read(this.changeBatch);
+        }
+        redrawDirtySquares();
+    }
+
+    /**
+     * Update the buttons of all squares changed since the last redraw
+     */
+    private void redrawDirtySquares() {
+        Square square = this.dirtySquares.pop();
+        while (square != null) {
+            updateGameGP(square.getX(), square.getY());
+            square = this.dirtySquares.pop();
         }
     }
 
@@ -480,7 +706,10 @@ public class GameView {
         this.animationSlider = new Slider(100, 2000, StorageSingleton.getInstance().animationSpeed);
         this.animationSlider.setMajorTickUnit(200f);
         this.animationSlider.setBlockIncrement(10f);
-        this.animationSlider.setMaxWidth(sizeX * buttonSize);
+        this.animationSlider.setMaxWidth(viewWidth);
         this.animationSlider.getStyleClass().add("slider");
+        this.turboBox = new CheckBox("Turbo (all moves on every frame)");
+        this.turboBox.setSelected(StorageSingleton.getInstance().turboMode);
+        this.turboBox.getStyleClass().add("label-subheader");
     }
 }
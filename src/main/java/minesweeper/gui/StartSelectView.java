@@ -30,8 +30,10 @@ public class StartSelectView {
     private TextField customWidth;
     private TextField customMines;
 
-    private final String guideText1 = "Height (min 3, max 50)";
-    private final String guideText2 = "Width (min 3, max 50)";
+    // Boards of more than 100x100 squares are drawn on a canvas, see GameView
+    private static final int MAX_SIDE = 1000;
+    private final String guideText1 = "Height (min 3, max " + MAX_SIDE + ")";
+    private final String guideText2 = "Width (min 3, max " + MAX_SIDE + ")";
     private final String guideText3 = "Mine count";
 
     private Label customErrorLabel1;
@@ -172,6 +174,7 @@ public class StartSelectView {
             this.vbox.setVisible(false);
             Button newGameButton = new Button("New Game");
             newGameButton.setOnMouseClicked(ev -> {
+                this.gameView.dispose();
                 this.stackPane.getChildren().remove(1);
                 this.vbox.setVisible(true);
             });
@@ -197,6 +200,7 @@ public class StartSelectView {
                 this.vbox.setVisible(false);
                 Button newGameButton = new Button("New Game");
                 newGameButton.setOnMouseClicked(ev -> {
+                    this.gameView.dispose();
                     this.stackPane.getChildren().remove(1);
                     this.vbox.setVisible(true);
                 });
@@ -245,9 +249,9 @@ public class StartSelectView {
             } else {
                 if (!type.equals("mines")) {
                     int value = Integer.parseInt(input.getText());
-                    if (value > 50) {
+                    if (value > MAX_SIDE) {
                         
-                        error.setText("Maximum " + type + " is 50");
+                        error.setText("Maximum " + type + " is " + MAX_SIDE);
                         error.getStyleClass().add("label-failure");
                         customErrorLabel3.setText(guideText3);            
                         customErrorLabel3.getStyleClass().removeAll("label-failure");
@@ -318,7 +322,7 @@ public class StartSelectView {
         int heightvalue = Integer.parseInt(customHeight.getText());
         int widthvalue = Integer.parseInt(customWidth.getText());
 
-        return (heightvalue >= 3 && heightvalue <= 50 && widthvalue >= 3 && widthvalue <= 50);
+        return (heightvalue >= 3 && heightvalue <= MAX_SIDE && widthvalue >= 3 && widthvalue <= MAX_SIDE);
     }
 
     private boolean textCanBeParsed(String text, int maxLength) {
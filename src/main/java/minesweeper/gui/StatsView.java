@@ -17,6 +17,7 @@ import java.io.IOException;
 
 import java.text.DecimalFormat;
 import minesweeper.model.GameStats;
+import minesweeper.model.SolverStats;
 
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
@@ -32,8 +33,10 @@ public class StatsView {
         stage.getIcons().add(new Image(StatsView.class.getResourceAsStream("/Mine.png"))); 
         Label cumulativeDistance = new Label("Cumulative Distance:");
         Label cumulativeTime = new Label("Cumulative Time:");
+        Label solverWork = new Label("Solver:");
+        Label solverTime = new Label("Solver Time:");
 
-        VBox cumulativeStats = new VBox(cumulativeDistance, cumulativeTime);
+        VBox cumulativeStats = new VBox(cumulativeDistance, cumulativeTime, solverWork, solverTime);
         AnimationTimer timer = new AnimationTimer() {
             public void handle(long currentNanoTime) {
                 DecimalFormat numberFormatTime = new DecimalFormat("0.0000");
@@ -42,6 +45,8 @@ public class StatsView {
                         + numberFormatDistance.format(stats.cumulativeEuclidianDistance));
                 cumulativeTime.setText("Cumulative Time: " 
                         + numberFormatTime.format(stats.cumulativeTime / Math.pow(10, 6)) + " s");
+                solverWork.setText("Solver: " + stats.solverStats);
+                solverTime.setText(solverTimeText(stats.solverStats));
             }
         };
 
@@ -58,6 +63,8 @@ public class StatsView {
         scene.getStylesheets().add("stylesheet.css");
         cumulativeDistance.getStyleClass().add("label-stats-header");
         cumulativeTime.getStyleClass().add("label-stats-header");
+        solverWork.getStyleClass().add("label-stats-header");
+        solverTime.getStyleClass().add("label-stats-header");
         export.getStyleClass().add("menu-button");
         stage.setTitle("Game Statistics");
         stage.setScene(scene);
@@ -69,6 +76,13 @@ public class StatsView {
         stage.setHeight(400);
     }
 
+    private static String solverTimeText(SolverStats solverStats) {
+        DecimalFormat numberFormat = new DecimalFormat("0.00");
+        return "Solver Time: propagation " + numberFormat.format(solverStats.propagationNanos / Math.pow(10, 6))
+                + " ms, search " + numberFormat.format(solverStats.searchNanos / Math.pow(10, 6))
+                + " ms, guessing " + numberFormat.format(solverStats.guessNanos / Math.pow(10, 6)) + " ms";
+    }
+
     private void logToFile() {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Export log");
@@ -95,6 +109,8 @@ public class StatsView {
             DecimalFormat numberFormat = new DecimalFormat("0.00");
             fileWriter.write("Cumulative Distance: " + numberFormat.format(stats.cumulativeEuclidianDistance) + "\n");
             fileWriter.write("Time: " + numberFormat.format(stats.cumulativeTime) + " µs\n");
+            fileWriter.write("Solver: " + stats.solverStats + "\n");
+            fileWriter.write(solverTimeText(stats.solverStats) + "\n");
             for (int i = 0; i < this.stats.moves.size(); i++) {
                 fileWriter.write(stats.moves.get(i).toString() + "\n");
             }
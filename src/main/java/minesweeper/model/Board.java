@@ -1,19 +1,19 @@
 
 package minesweeper.model;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.function.Function;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import minesweeper.generator.MinefieldGenerator;
 
 /**
  * Class representing the game board
  */
-public class Board {
-
+public class Board implements BoardState {
+    private static final AtomicLong NEXT_ID = new AtomicLong();
 
     public boolean gameLost = false;
     public boolean gameWon = false;
@@ -32,10 +32,41 @@ public class Board {
     public boolean firstMove = true;
 
     private ArrayList<Square> mineSquares = new ArrayList<>();
-    private int unflaggedMines;
-    private Function<Square, Void> observerCallback;
-    private boolean isObserved = false;
+    /**
+     * Counters maintained by the Squares of this board as they are opened and flagged
+     */
+    private int unopenedSquares;
+    private int flaggedSquares;
+    private final ChangeJournal changes = new ChangeJournal();
+    /**
+     * State bytes of the squares in chunks, see BoardSnapshot. A chunk may be
+     * written only if its epoch is the current one, i.e. it has been copied
+     * since the last snapshot, and the array of chunks only if it is not shared.
+     */
+    private byte[][] cells;
+    private boolean cellsShared;
+    private int[] chunkEpochs;
+    private int cellEpoch;
+    private BoardSnapshot lastSnapshot;
     private HashSet<Square> openSquares;
+    /**
+     * Ids of the open squares in the order they were opened. Only appended to,
+     * and replaced by a longer copy when full, so a snapshot can share it.
+     */
+    private int[] openOrder = new int[16];
+    private int openCount;
+    private final NeighbourTable neighbourTable;
+    /**
+     * Work arrays for runBFS, indexed by square id (x * height + y) and reused between calls.
+     */
+    private int[] floodQueue;
+    private long[] floodVisited;
+    /**
+     * Identity and modification counter of the board state, see getId() and getVersion()
+     */
+    private long id = NEXT_ID.incrementAndGet();
+    private long version;
+    private boolean sharedId = false;
 
     /**
      * Create a new Board using a specified MinefieldGenerator and given size and mine parameters.
@@ -47,24 +78,134 @@ public class Board {
      * @param totalMines The maximum number of mines on the Board
      */
     public Board(MinefieldGenerator generator, int width, int height, int totalMines) {
+        this(generator, width, height, totalMines, NeighbourTable.grid(width, height));
+    }
+
+    /**
+     * Create a new Board with a custom topology, given as a table of neighbouring squares.
+     *
+     * @param generator A MinefieldGenerator object that has possibly been constructed 
+     * with specific seeds or other configurations
+     * @param width The width of the Board
+     * @param height The height of the Board
+     * @param totalMines The maximum number of mines on the Board
+     * @param neighbourTable Neighbours of every square on the Board
+     * @throws IllegalArgumentException If the table is not for width * height
+     * squares, a square has more than BoardSnapshot.MAX_NEIGHBOURS neighbours,
+     * or the table is not a grid and the generator places mines by tiles
+     */
+    public Board(MinefieldGenerator generator, int width, int height, int totalMines,
+            NeighbourTable neighbourTable) {
+        if (neighbourTable.offsets.length != width * height + 1) {
+            throw new IllegalArgumentException("Neighbour table has " + (neighbourTable.offsets.length - 1)
+                    + " squares, the board " + width * height);
+        }
+        if (neighbourTable.maxCount() > BoardSnapshot.MAX_NEIGHBOURS) {
+            throw new IllegalArgumentException("A square has " + neighbourTable.maxCount()
+                    + " neighbours, at most " + BoardSnapshot.MAX_NEIGHBOURS + " are supported");
+        }
+        if (!neighbourTable.isGrid() && generator != null
+                && generator.getVersion() == MinefieldGenerator.PLACEMENT_TILED) {
+            throw new IllegalArgumentException("Tiled placement needs a grid board");
+        }
+        this.neighbourTable = neighbourTable;
         this.width = width;
         this.height = height;
         this.board = new Square[width][height];
         this.generator = generator;
         this.totalMines = totalMines;
-        this.unflaggedMines = totalMines;
-        this.openSquares = new HashSet<>();
+        // Insertion ordered, so that bots iterating the open squares behave the same for the same seed
+        this.openSquares = new LinkedHashSet<>();
         this.initialize();
     }
 
     /**
-     * Sets an observer callback for communicating Board state changes
-     * This is used by the GUI to recognize which squares need to be redrawn
-     * @param callbackFunction The function to be called upon a state change
+     * Create a Board in the state of a snapshot, see BoardSnapshot.toBoard()
+     *
+     * @param snapshot The snapshot to be copied
+     */
+    Board(BoardSnapshot snapshot) {
+        this(snapshot.generator, snapshot.width, snapshot.height, snapshot.totalMines, snapshot.neighbourTable);
+        for (int x = 0; x < this.width; x++) {
+            for (int y = 0; y < this.height; y++) {
+                int state = snapshot.state(getSquareId(x, y));
+                if (state == 0) {
+                    continue;
+                }
+                Square square = new Square(x, y, state);
+                this.addSquare(square, x, y);
+                if (square.isOpened() && square.isMine()) {
+                    this.mineSquares.add(square);
+                }
+            }
+        }
+        // The open squares are iterated in the order they were opened on the copied board
+        int[] order = snapshot.openOrder;
+        for (int i = 0; i < snapshot.openCount; i++) {
+            this.addOpenSquare(this.board[order[i] / this.height][order[i] % this.height]);
+        }
+        this.firstMove = snapshot.firstMove;
+        this.gameLost = snapshot.gameLost;
+        this.gameWon = snapshot.gameWon;
+        // The copy is the same state as the snapshot until it is modified
+        this.id = snapshot.id;
+        this.version = snapshot.version;
+        this.sharedId = true;
+    }
+
+    /**
+     * Take an immutable snapshot of the current state of this board, for
+     * reading it on another thread while the game goes on. The squares are
+     * not copied, the board copies a chunk of them only when it next changes
+     * one of them.
+     *
+     * @return Snapshot of this board
+     * @see BoardSnapshot
      */
-    public void setChangeObserver(Function<Square, Void> callbackFunction) {
-        this.observerCallback = callbackFunction;
-        this.isObserved = true;
+    public BoardSnapshot snapshot() {
+        BoardSnapshot last = this.lastSnapshot;
+        if (last != null && last.id == this.id && last.version == this.version
+                && last.firstMove == this.firstMove && last.gameLost == this.gameLost
+                && last.gameWon == this.gameWon && last.totalMines == this.totalMines) {
+            // Nothing has changed since the last snapshot
+            return last;
+        }
+        // From now on every chunk, and the array of them, belong to the snapshot
+        this.cellsShared = true;
+        this.cellEpoch++;
+        this.lastSnapshot = new BoardSnapshot(this, this.generator, this.cells);
+        return this.lastSnapshot;
+    }
+
+    /**
+     * Update the state byte of a square after it has changed, copying its
+     * chunk first if the chunk is part of a snapshot
+     *
+     * @param square The changed Square of this board
+     */
+    private void recordCell(Square square) {
+        int id = getSquareId(square.getX(), square.getY());
+        int chunk = id >>> BoardSnapshot.CHUNK_BITS;
+        if (this.cellsShared) {
+            this.cells = this.cells.clone();
+            this.cellsShared = false;
+        }
+        if (this.chunkEpochs[chunk] != this.cellEpoch) {
+            this.cells[chunk] = this.cells[chunk].clone();
+            this.chunkEpochs[chunk] = this.cellEpoch;
+        }
+        this.cells[chunk][id & (BoardSnapshot.CHUNK_SIZE - 1)] = (byte) square.state();
+    }
+
+    /**
+     * Get the journal of square changes on this board. Used by the GUI to
+     * recognize which squares need to be redrawn, and by bots to find out what
+     * changed since their last move.
+     *
+     * @return The ChangeJournal of this board
+     */
+    public ChangeJournal getChangeJournal() {
+        return this.changes;
     }
 
     /**
@@ -76,6 +217,7 @@ public class Board {
      */
     public void setTotalMines(int totalMines) {
         this.totalMines = totalMines;
+        this.modified();
     }
 
     /**
@@ -88,7 +230,29 @@ public class Board {
         square.setX(x);
         square.setY(y);
 
+        Square replaced = this.board[x][y];
+        if (replaced != null) {
+            replaced.owner = null;
+            this.unopenedSquares -= replaced.isOpened() ? 0 : 1;
+            this.flaggedSquares -= replaced.isFlagged() ? 1 : 0;
+        }
+        square.owner = this;
+        this.unopenedSquares += square.isOpened() ? 0 : 1;
+        this.flaggedSquares += square.isFlagged() ? 1 : 0;
+
         this.board[x][y] = square;
+        this.recordCell(square);
+        this.modified();
+    }
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.height;
     }
 
     /**
@@ -99,19 +263,98 @@ public class Board {
      *
      * @return Square object in the given coordinates
      */
+    @Override
     public Square getSquareAt(int x, int y) {
         return this.board[x][y];
     }
 
+    /**
+     * Get a Square by its id
+     *
+     * @param id Id of the Square, x * height + y
+     * @return Square object with the given id
+     */
+    @Override
+    public Square getSquareById(int id) {
+        return this.board[id / this.height][id % this.height];
+    }
+
+    /**
+     * Get the id of the Square at a given X, Y coordinate
+     *
+     * @param x X coordinate of the Square
+     * @param y Y coordinate of the Square
+     * @return Id of the Square, used to index the neighbour table
+     */
+    @Override
+    public int getSquareId(int x, int y) {
+        return x * this.height + y;
+    }
+
+    /**
+     * Get the table of neighbouring squares that defines the topology of this board
+     *
+     * @return NeighbourTable indexed by square id
+     * @see #getSquareId(int, int)
+     */
+    @Override
+    public NeighbourTable getNeighbourTable() {
+        return this.neighbourTable;
+    }
+
     /**
      * Get the remaining open squares
      *
      * @return HashSet containing the remaining open Squares
      */
+    @Override
     public HashSet<Square> getOpenSquares() {
         return this.openSquares;
     }
 
+    /**
+     * Add an opened square to the open squares, remembering the order they were opened in
+     *
+     * @param square The opened Square of this board
+     */
+    private void addOpenSquare(Square square) {
+        if (!this.openSquares.add(square)) {
+            return;
+        }
+        if (this.openCount == this.openOrder.length) {
+            this.openOrder = Arrays.copyOf(this.openOrder, this.openCount * 2);
+        }
+        this.openOrder[this.openCount++] = getSquareId(square.getX(), square.getY());
+    }
+
+    /**
+     * Ids of the open squares in the order they were opened, see BoardSnapshot
+     */
+    int[] getOpenOrder() {
+        return this.openOrder;
+    }
+
+    /**
+     * Get the number of open squares, which only grows as the game goes on
+     *
+     * @return Number of squares opened on this board
+     */
+    public int getOpenCount() {
+        return this.openCount;
+    }
+
+    /**
+     * Get an open square by the order it was opened in, so the squares opened
+     * since an earlier version of the board can be found without going
+     * through all of them
+     *
+     * @param index 0 for the first square opened, up to getOpenCount() - 1
+     * @return Id of the square, see getSquareById()
+     */
+    public int getOpenedSquareId(int index) {
+        return this.openOrder[index];
+    }
+
     /**
      * Opens a square in the given X, Y coordinate and all surrounding squares that
      * are not mines
@@ -131,7 +374,7 @@ public class Board {
         }
 
         this.board[x][y].open();
-        this.openSquares.add(board[x][y]);
+        this.addOpenSquare(board[x][y]);
 
         if (board[x][y].isMine()) {
             this.gameLost = true;
@@ -139,7 +382,7 @@ public class Board {
         } else {
             runBFS(x, y);
         }
-        if (getUnopenedSquaresCount() == this.totalMines) {
+        if (this.unopenedSquares == this.totalMines) {
             this.gameWon = true;
         }
         return true;
@@ -157,58 +400,71 @@ public class Board {
      *    <li>Else open all surrounding squares</li>
      *</ol>
      *
+     * The queue and the visited set are int and long arrays owned by the board,
+     * so a flood fill does not allocate anything after the first call.
+     *
      * @param x X coordinate
      * @param y Y coordinate
      */
     public void runBFS(int x, int y) {
+        if (!withinBoard(x, y)) {
+            return;
+        }
+        FloodFillEvent event = new FloodFillEvent();
+        event.begin();
+        int unopenedBefore = this.unopenedSquares;
+        if (this.floodQueue == null) {
+            // Allocated once per board and reused by every subsequent flood fill
+            this.floodQueue = new int[this.width * this.height];
+            this.floodVisited = new long[(this.width * this.height + 63) / 64];
+        }
 
-        HashSet<Pair<Integer>> visited = new HashSet<>();
-        ArrayDeque<Pair<Integer>> toVisit = new ArrayDeque<>();
-
-        toVisit.push(new Pair<Integer>(x, y));
+        // Squares are marked visited when queued, so each one enters the queue at most once
+        int head = 0;
+        int tail = 0;
+        int start = getSquareId(x, y);
+        this.floodQueue[tail++] = start;
+        this.floodVisited[start >>> 6] |= 1L << start;
 
-        while (!toVisit.isEmpty()) {
+        int[] offsets = this.neighbourTable.offsets;
+        int[] neighbours = this.neighbourTable.neighbours;
+        while (head < tail) {
             // Get a coordinate from the front of the queue
-            Pair<Integer> v = toVisit.remove();
-
-            // Have we visited this square before?
-            if (visited.contains(v)) {
+            int id = this.floodQueue[head++];
+            Square square = board[id / this.height][id % this.height];
 
-                // If yes, skip it
+            // We don't process flagged squares
+            if (square.isFlagged()) {
                 continue;
             }
 
-            visited.add(v);
-
-            if (withinBoard(v.first, v.second)) {
-                Square square = board[v.first][v.second];
-
-                // We don't process flagged squares
-                if (square.isFlagged()) {
-                    continue;
-                }
-
-                square.open();
-                this.openSquares.add(square);
-                if (this.isObserved) {
-                    this.observerCallback.apply(square);
-                }
-
-                // If current square has surrounding mines, ignore surrounding squares
-                if (square.surroundingMines() == 0) {
-                    // No surrounding mines, all surrounding squares can be opened
-                    for (int xInc = -1; xInc <= 1; xInc++) {
-                        for (int yInc = -1; yInc <= 1; yInc++) {
-                            if (withinBoard(v.first + xInc, v.second + yInc) 
-                                && !board[v.first + xInc][v.second + yInc].isOpened()) {
-                                toVisit.push(new Pair<Integer>(v.first + xInc, v.second + yInc));
-                            }
-                        }
+            square.open();
+            this.addOpenSquare(square);
+
+            // If current square has surrounding mines, ignore surrounding squares
+            if (square.surroundingMines() == 0) {
+                // No surrounding mines, all surrounding squares can be opened
+                for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+                    int next = neighbours[i];
+                    if ((this.floodVisited[next >>> 6] & (1L << next)) == 0
+                            && !board[next / this.height][next % this.height].isOpened()) {
+                        this.floodVisited[next >>> 6] |= 1L << next;
+                        this.floodQueue[tail++] = next;
                     }
                 }
- 
             }
         }
+
+        // Only the bits set by this run are cleared, keeping the cost proportional to the opened area
+        for (int i = 0; i < tail; i++) {
+            int id = this.floodQueue[i];
+            this.floodVisited[id >>> 6] &= ~(1L << id);
+        }
+
+        if (event.shouldCommit()) {
+            event.squaresOpened = unopenedBefore - this.unopenedSquares;
+            event.commit();
+        }
     } 
     
     /**
@@ -221,13 +477,15 @@ public class Board {
      * @return True if no mines were hit, false otherwise
      */
     private boolean chordedOpen(int x, int y) {
+        int id = getSquareId(x, y);
+        int[] neighbours = this.neighbourTable.neighbours;
+        int first = this.neighbourTable.offsets[id];
+        int last = this.neighbourTable.offsets[id + 1];
         int surroundingFlagged = 0;
 
-        for (int xInc = -1; xInc <= 1; xInc++) {
-            for (int yInc = -1; yInc <= 1; yInc++) {
-                if (withinBoard(x + xInc, y + yInc) && board[x + xInc][y + yInc].isFlagged()) {
-                    surroundingFlagged++;
-                }
+        for (int i = first; i < last; i++) {
+            if (getSquareById(neighbours[i]).isFlagged()) {
+                surroundingFlagged++;
             }
         }
 
@@ -236,19 +494,11 @@ public class Board {
         // If number of flagged squares equals number of surrounding mines
         // open all adjacent squares that are not flagged
         if (square.isOpened() && square.surroundingMines() == surroundingFlagged) {
-            for (int xInc = -1; xInc <= 1; xInc++) {
-                for (int yInc = -1; yInc <= 1; yInc++) {
-                    if (withinBoard(x + xInc, y + yInc) && !board[x + xInc][y + yInc].isFlagged()
-                            && !this.open(x + xInc, y + yInc)) {
-                        // If we hit a mine, we return immediately
-                        if (this.isObserved) { 
-                            this.observerCallback.apply(this.board[x + xInc][y + yInc]);
-                        }
-                        return false;
-                    }
-                    if (this.isObserved && withinBoard(x + xInc, y + yInc)) { 
-                        this.observerCallback.apply(this.board[x + xInc][y + yInc]);
-                    }
+            for (int i = first; i < last; i++) {
+                Square adjacent = getSquareById(neighbours[i]);
+                if (!adjacent.isFlagged() && !this.open(adjacent.getX(), adjacent.getY())) {
+                    // If we hit a mine, we return immediately
+                    return false;
                 }
             }
         }
@@ -272,15 +522,70 @@ public class Board {
      * @return Number of unopened squares
      */
     public int getUnopenedSquaresCount() {
-        int unopenedSquares = 0;
-        for (int x = 0; x < this.width; x++) {
-            for (int y = 0; y < this.height; y++) {
-                if (!board[x][y].isOpened()) {
-                    unopenedSquares++;
-                }
-            }
+        return this.unopenedSquares;
+    }
+
+    /**
+     * Get the number of currently flagged squares on the board
+     * @return Number of flagged squares
+     */
+    public int getFlaggedSquaresCount() {
+        return this.flaggedSquares;
+    }
+
+    /**
+     * Called by a Square of this board when it is opened
+     * @param square The opened Square
+     */
+    void squareOpened(Square square) {
+        this.unopenedSquares--;
+        this.recordCell(square);
+        this.modified();
+        this.changes.append(getSquareId(square.getX(), square.getY()), ChangeJournal.OPENED);
+    }
+
+    /**
+     * Called by a Square of this board when its flag is toggled
+     * @param square The Square whose flag was toggled
+     * @param flagged True if the Square was flagged, false if the flag was removed
+     */
+    void flagToggled(Square square, boolean flagged) {
+        this.flaggedSquares += flagged ? 1 : -1;
+        this.recordCell(square);
+        this.modified();
+        this.changes.append(getSquareId(square.getX(), square.getY()),
+                flagged ? ChangeJournal.FLAGGED : ChangeJournal.UNFLAGGED);
+    }
+
+    /**
+     * Identifies the game this board state belongs to. A snapshot has the id
+     * of its board until the snapshot itself is modified, after which it gets
+     * an id of its own. Together with getVersion() this identifies a board state.
+     *
+     * @return Id of this board
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get the modification counter of the board, incremented whenever a square
+     * is opened, flagged, unflagged or replaced. Highlights do not count as
+     * modifications.
+     *
+     * @return Number of modifications made to this board since it was created
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    private void modified() {
+        if (this.sharedId) {
+            // A modified snapshot no longer matches the board it was copied from
+            this.id = NEXT_ID.incrementAndGet();
+            this.sharedId = false;
         }
-        return unopenedSquares;
+        this.version++;
     }
 
     /**
@@ -289,9 +594,19 @@ public class Board {
     public void initialize() {
         for (int x = 0; x < this.width; x++) {
             for (int y = 0; y < this.height; y++) {
-                this.board[x][y] = new Square(x, y);
+                Square square = new Square(x, y);
+                square.owner = this;
+                this.board[x][y] = square;
             }
         }
+        this.unopenedSquares = this.width * this.height;
+        this.flaggedSquares = 0;
+        int chunks = (this.width * this.height + BoardSnapshot.CHUNK_SIZE - 1) >>> BoardSnapshot.CHUNK_BITS;
+        this.cells = new byte[chunks][BoardSnapshot.CHUNK_SIZE];
+        this.cellsShared = false;
+        this.chunkEpochs = new int[chunks];
+        Arrays.fill(this.chunkEpochs, this.cellEpoch);
+        this.modified();
     }
 
     /**
@@ -301,15 +616,10 @@ public class Board {
      * @param y Y coordinate
      */
     public void incrementAdjacentSquares(int x, int y) {
-        for (int xInc = -1; xInc <= 1; xInc++) {
-            for (int yInc = -1; yInc <= 1; yInc++) {
-                if (xInc == 0 && yInc == 0) {
-                    continue;
-                }
-                if (withinBoard(x + xInc, y + yInc)) {
-                    board[x + xInc][y + yInc].incrementSurroundingMines();
-                }
-            }
+        int id = getSquareId(x, y);
+        int[] neighbours = this.neighbourTable.neighbours;
+        for (int i = this.neighbourTable.offsets[id]; i < this.neighbourTable.offsets[id + 1]; i++) {
+            getSquareById(neighbours[i]).incrementSurroundingMines();
         }
     }
 
@@ -338,7 +648,6 @@ public class Board {
                 return true;
             case FLAG:
                 this.getSquareAt(move.x, move.y).toggleFlagged();
-                this.unflaggedMines += this.board[move.x][move.y].isFlagged() ? -1 : 1;
                 return true;
             case OPEN:
                 return this.open(move.x, move.y);
@@ -366,13 +675,10 @@ public class Board {
      * Used by the GUI to display all mines to the player when player loses
      */
     public void openAllMines() {
-        if (this.isObserved) {
-            this.mineSquares.stream().forEach(square -> {
-                if (!square.isFlagged()) {
-                    square.open();
-                    this.observerCallback.apply(square);
-                }
-            });
+        for (Square square : this.mineSquares) {
+            if (!square.isFlagged()) {
+                square.open();
+            }
         }
     }
 
@@ -383,8 +689,9 @@ public class Board {
      *
      * @return Number of unflagged mines on the board
      */
+    @Override
     public int getUnflaggedMines() {
-        return this.unflaggedMines;
+        return this.totalMines - this.flaggedSquares;
     }
 
     @Override
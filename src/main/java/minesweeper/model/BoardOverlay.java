@@ -0,0 +1,148 @@
+package minesweeper.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hypothetical changes on top of a Board, for asking "what if this square
+ * were a 3?" without copying or modifying the Board.
+ *
+ * <p>
+ * The overlay keeps the hypothetically opened and flagged squares in a small
+ * map by square id and answers every other question from the base Board, so
+ * creating and evaluating an overlay costs as much as the changes in it.
+ * Squares of the overlay are separate Square objects and the base Board is
+ * never modified, but it must not change while the overlay is in use. A board
+ * made from a BoardSnapshot is a good base, since nothing else modifies it.
+ * </p>
+ */
+public class BoardOverlay implements BoardState {
+    private final Board base;
+    private final HashMap<Integer, Square> changed = new HashMap<>();
+    private final ArrayList<Square> opened = new ArrayList<>();
+    private int flags = 0;
+
+    /**
+     * Create an overlay with no changes
+     * @param base The Board under the overlay
+     */
+    public BoardOverlay(Board base) {
+        this.base = base;
+    }
+
+    /**
+     * Open a square with the given number, as if that had been revealed
+     * @param x X coordinate of the square
+     * @param y Y coordinate of the square
+     * @param surroundingMines The hypothetical number of the square
+     * @throws IllegalArgumentException If the square is already open or flagged
+     */
+    public void open(int x, int y, int surroundingMines) {
+        Square square = getSquareAt(x, y);
+        if (square.isOpened() || square.isFlagged()) {
+            throw new IllegalArgumentException("Square " + square.locationString() + " can not be opened");
+        }
+        Square hypothetical = new Square(x, y,
+                BoardSnapshot.OPENED | surroundingMines << BoardSnapshot.MINES_SHIFT);
+        this.changed.put(getSquareId(x, y), hypothetical);
+        this.opened.add(hypothetical);
+    }
+
+    /**
+     * Flag a square, as if it were known to be a mine
+     * @param x X coordinate of the square
+     * @param y Y coordinate of the square
+     * @throws IllegalArgumentException If the square is already open or flagged
+     */
+    public void flag(int x, int y) {
+        Square square = getSquareAt(x, y);
+        if (square.isOpened() || square.isFlagged()) {
+            throw new IllegalArgumentException("Square " + square.locationString() + " can not be flagged");
+        }
+        this.changed.put(getSquareId(x, y), new Square(x, y, BoardSnapshot.FLAGGED));
+        this.flags++;
+    }
+
+    /**
+     * Remove all hypothetical changes, so the overlay can be reused
+     */
+    public void clear() {
+        this.changed.clear();
+        this.opened.clear();
+        this.flags = 0;
+    }
+
+    /**
+     * Get the Board under this overlay
+     * @return The base Board
+     */
+    public Board getBase() {
+        return this.base;
+    }
+
+    @Override
+    public int getWidth() {
+        return this.base.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return this.base.height;
+    }
+
+    @Override
+    public Square getSquareAt(int x, int y) {
+        return getSquareById(getSquareId(x, y));
+    }
+
+    @Override
+    public Square getSquareById(int id) {
+        Square square = this.changed.get(id);
+        return square != null ? square : this.base.getSquareById(id);
+    }
+
+    @Override
+    public int getSquareId(int x, int y) {
+        return this.base.getSquareId(x, y);
+    }
+
+    @Override
+    public NeighbourTable getNeighbourTable() {
+        return this.base.getNeighbourTable();
+    }
+
+    /**
+     * Get the opened squares of the base Board followed by the hypothetically opened ones
+     * @return The opened Squares
+     */
+    @Override
+    public Iterable<Square> getOpenSquares() {
+        return () -> new Iterator<Square>() {
+            private final Iterator<Square> baseSquares = base.getOpenSquares().iterator();
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.baseSquares.hasNext() || this.next < opened.size();
+            }
+
+            @Override
+            public Square next() {
+                if (this.baseSquares.hasNext()) {
+                    return this.baseSquares.next();
+                }
+                if (this.next == opened.size()) {
+                    throw new NoSuchElementException();
+                }
+                return opened.get(this.next++);
+            }
+        };
+    }
+
+    @Override
+    public int getUnflaggedMines() {
+        return this.base.getUnflaggedMines() - this.flags;
+    }
+}
@@ -0,0 +1,182 @@
+package minesweeper.model;
+
+import minesweeper.generator.MinefieldGenerator;
+
+/**
+ * Immutable view of the state of a Board at one point in time.
+ *
+ * <p>
+ * The state of every square is a single byte, stored in chunks of
+ * CHUNK_SIZE squares indexed by square id. The Board keeps its own copy of
+ * the same chunks up to date as the game goes on. Taking a snapshot hands the
+ * current chunks over without copying them, and the Board copies a chunk only
+ * when it next changes a square in it. A snapshot therefore costs as much as
+ * the chunks changed after it, and it can be read from any thread without
+ * locking while the game continues.
+ * </p>
+ *
+ * <p>
+ * A snapshot holds what a player can see. The mines of unopened squares are
+ * not part of it, so a Board made with toBoard() is for analysis, not for
+ * playing on.
+ * </p>
+ */
+public final class BoardSnapshot {
+    /**
+     * Bits of the state byte of a square
+     */
+    static final int OPENED = 1;
+    static final int FLAGGED = 2;
+    static final int MINE = 4;
+    // The number of surrounding mines of an opened square is stored above the flag bits
+    static final int MINES_SHIFT = 3;
+    /**
+     * Most neighbours a square can have, for its number to fit in the state byte
+     */
+    public static final int MAX_NEIGHBOURS = 0xFF >>> MINES_SHIFT;
+
+    static final int CHUNK_BITS = 8;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    public final int width;
+    public final int height;
+    public final int totalMines;
+    public final boolean firstMove;
+    public final boolean gameLost;
+    public final boolean gameWon;
+
+    final long id;
+    final long version;
+    final int unopenedSquares;
+    final int flaggedSquares;
+    final NeighbourTable neighbourTable;
+    final MinefieldGenerator generator;
+    private final byte[][] chunks;
+    /**
+     * Ids of the open squares in the order they were opened, the first openCount
+     * entries of an array the board only appends to
+     */
+    final int[] openOrder;
+    final int openCount;
+
+    /**
+     * Created by Board.snapshot(), which no longer writes to the given chunks
+     */
+    BoardSnapshot(Board board, MinefieldGenerator generator, byte[][] chunks) {
+        this.width = board.width;
+        this.height = board.height;
+        this.totalMines = board.totalMines;
+        this.firstMove = board.firstMove;
+        this.gameLost = board.gameLost;
+        this.gameWon = board.gameWon;
+        this.id = board.getId();
+        this.version = board.getVersion();
+        this.unopenedSquares = board.getUnopenedSquaresCount();
+        this.flaggedSquares = board.getFlaggedSquaresCount();
+        this.neighbourTable = board.getNeighbourTable();
+        this.generator = generator;
+        this.chunks = chunks;
+        this.openOrder = board.getOpenOrder();
+        this.openCount = board.getOpenCount();
+    }
+
+    /**
+     * Get the state byte of a square
+     * @param id Id of the square
+     * @return Combination of OPENED, FLAGGED and MINE, and the surrounding mines of an opened square
+     */
+    int state(int id) {
+        return this.chunks[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)] & 0xFF;
+    }
+
+    /**
+     * Get the id of the Board this snapshot was taken of, see Board.getId()
+     * @return Id of the board
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Get the version of the Board when this snapshot was taken, see Board.getVersion()
+     * @return Modification counter of the board
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Get the id of the square at a given X, Y coordinate
+     * @param x X coordinate of the square
+     * @param y Y coordinate of the square
+     * @return Id of the square, x * height + y
+     */
+    public int getSquareId(int x, int y) {
+        return x * this.height + y;
+    }
+
+    public boolean isOpened(int x, int y) {
+        return (state(getSquareId(x, y)) & OPENED) != 0;
+    }
+
+    public boolean isFlagged(int x, int y) {
+        return (state(getSquareId(x, y)) & FLAGGED) != 0;
+    }
+
+    /**
+     * Whether an opened square is a mine
+     *
+     * <u><b>Trying to use this method for an unopened square will result in an AssertionException</b></u>
+     *
+     * @param x X coordinate of the square
+     * @param y Y coordinate of the square
+     * @return True if the opened square is a mine
+     */
+    public boolean isMine(int x, int y) {
+        assert (isOpened(x, y));
+
+        return (state(getSquareId(x, y)) & MINE) != 0;
+    }
+
+    /**
+     * Number of surrounding squares with mines of an opened square
+     *
+     * <u><b>Trying to use this method for an unopened square will result in an AssertionException</b></u>
+     *
+     * @param x X coordinate of the square
+     * @param y Y coordinate of the square
+     * @return The number on the opened square
+     */
+    public int surroundingMines(int x, int y) {
+        assert (isOpened(x, y));
+
+        return state(getSquareId(x, y)) >>> MINES_SHIFT;
+    }
+
+    public int getUnopenedSquaresCount() {
+        return this.unopenedSquares;
+    }
+
+    public int getFlaggedSquaresCount() {
+        return this.flaggedSquares;
+    }
+
+    public int getUnflaggedMines() {
+        return this.totalMines - this.flaggedSquares;
+    }
+
+    public NeighbourTable getNeighbourTable() {
+        return this.neighbourTable;
+    }
+
+    /**
+     * Create a new Board in the state of this snapshot, e.g. for a bot to
+     * analyse. The Board has the id and version of this snapshot until it is
+     * modified, and an empty change journal.
+     *
+     * @return A new Board
+     */
+    public Board toBoard() {
+        return new Board(this);
+    }
+}
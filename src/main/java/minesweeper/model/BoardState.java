@@ -0,0 +1,54 @@
+package minesweeper.model;
+
+/**
+ * Read access to the squares of a board, as needed by a bot analysing it.
+ * Implemented by Board and by BoardOverlay, which adds hypothetical opens and
+ * flags on top of a Board.
+ */
+public interface BoardState {
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Get a Square at a given X, Y coordinate
+     * @param x X coordinate of the Square
+     * @param y Y coordinate of the Square
+     * @return Square object in the given coordinates
+     */
+    Square getSquareAt(int x, int y);
+
+    /**
+     * Get a Square by its id
+     * @param id Id of the Square, x * height + y
+     * @return Square object with the given id
+     */
+    Square getSquareById(int id);
+
+    /**
+     * Get the id of the Square at a given X, Y coordinate
+     * @param x X coordinate of the Square
+     * @param y Y coordinate of the Square
+     * @return Id of the Square, used to index the neighbour table
+     */
+    int getSquareId(int x, int y);
+
+    /**
+     * Get the table of neighbouring squares that defines the topology of the board
+     * @return NeighbourTable indexed by square id
+     */
+    NeighbourTable getNeighbourTable();
+
+    /**
+     * Get the opened squares
+     * @return The opened Squares, in the order they were opened
+     */
+    Iterable<Square> getOpenSquares();
+
+    /**
+     * Number of mines left, assuming every flag is on a mine
+     * @return Number of unflagged mines
+     */
+    int getUnflaggedMines();
+}
@@ -0,0 +1,151 @@
+package minesweeper.model;
+
+import java.util.ArrayList;
+
+/**
+ * Journal of the changes made to the squares of a Board.
+ *
+ * <p>
+ * Every time a square is opened, flagged or unflagged the Board appends a
+ * record to its journal. A record is a single int holding the id of the
+ * square (x * height + y) and the type of the change. Consumers such as the
+ * GUI or a bot create a Reader, which remembers how far it has read, and pull
+ * the records written since in batches whenever it suits them. A slow reader
+ * does not slow down the board, the journal just keeps the records it has not
+ * read yet.
+ * </p>
+ *
+ * <p>
+ * Records read by every open Reader are discarded when the journal needs
+ * room, and nothing is kept while there are no readers. Like the Board, the
+ * journal is not thread safe.
+ * </p>
+ */
+public class ChangeJournal {
+    public static final int OPENED = 0;
+    public static final int FLAGGED = 1;
+    public static final int UNFLAGGED = 2;
+
+    private static final int TYPE_BITS = 2;
+    private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] records = new int[INITIAL_CAPACITY];
+    // Position of records[0] counted from the first change ever made
+    private long first = 0;
+    private int size = 0;
+    private final ArrayList<Reader> readers = new ArrayList<>();
+
+    /**
+     * Get the id of the square a record is about
+     * @param record A record read from the journal
+     * @return Id of the square, see Board.getSquareById()
+     */
+    public static int squareId(int record) {
+        return record >>> TYPE_BITS;
+    }
+
+    /**
+     * Get the type of change of a record
+     * @param record A record read from the journal
+     * @return OPENED, FLAGGED or UNFLAGGED
+     */
+    public static int type(int record) {
+        return record & TYPE_MASK;
+    }
+
+    /**
+     * Add a record to the end of the journal, called by the Board
+     * @param squareId Id of the changed square
+     * @param type OPENED, FLAGGED or UNFLAGGED
+     */
+    void append(int squareId, int type) {
+        if (this.readers.isEmpty()) {
+            // Nobody would ever read the record
+            this.first += this.size + 1;
+            this.size = 0;
+            return;
+        }
+        if (this.size == this.records.length) {
+            makeRoom();
+        }
+        this.records[this.size++] = squareId << TYPE_BITS | type;
+    }
+
+    /**
+     * Discard the records every reader has read, growing the array if that
+     * does not free at least half of it
+     */
+    private void makeRoom() {
+        long oldest = this.first + this.size;
+        for (Reader reader : this.readers) {
+            oldest = Math.min(oldest, reader.cursor);
+        }
+        int read = (int) (oldest - this.first);
+        int unread = this.size - read;
+        int[] target = this.records;
+        if (unread * 2 > this.records.length) {
+            target = new int[this.records.length * 2];
+        }
+        System.arraycopy(this.records, read, target, 0, unread);
+        this.records = target;
+        this.first = oldest;
+        this.size = unread;
+    }
+
+    /**
+     * Get the position after the last record, i.e. the number of changes made
+     * @return Number of records ever appended
+     */
+    public long position() {
+        return this.first + this.size;
+    }
+
+    /**
+     * Start reading the changes made from now on
+     * @return A new Reader positioned at the end of the journal
+     */
+    public Reader newReader() {
+        Reader reader = new Reader(position());
+        this.readers.add(reader);
+        return reader;
+    }
+
+    /**
+     * Cursor into the journal of one consumer
+     */
+    public final class Reader {
+        private long cursor;
+
+        private Reader(long cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Copy the oldest unread records, moving the cursor past them
+         * @param target Array the records are copied to, from index 0
+         * @return Number of records copied, 0 if there were no new changes
+         */
+        public int read(int[] target) {
+            int count = (int) Math.min(target.length, position() - this.cursor);
+            System.arraycopy(records, (int) (this.cursor - first), target, 0, count);
+            this.cursor += count;
+            return count;
+        }
+
+        /**
+         * Check whether there are records this reader has not read yet
+         * @return True if there are unread changes
+         */
+        public boolean hasChanges() {
+            return this.cursor < position();
+        }
+
+        /**
+         * Stop reading, so the journal no longer keeps records for this reader
+         */
+        public void close() {
+            readers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package minesweeper.model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a single Board.runBFS() call.
+ *
+ * <p>
+ * Disabled by default, enable it with config/jfr/minesweeper.jfc.
+ * </p>
+ */
+@Name("minesweeper.FloodFill")
+@Label("Flood Fill")
+@Description("Squares opened by one flood fill")
+@Category({"Minesweeper", "Board"})
+@Enabled(false)
+@StackTrace(false)
+class FloodFillEvent extends Event {
+    @Label("Squares Opened")
+    int squaresOpened;
+}
@@ -13,6 +13,8 @@ public class GameStats {
     public double cumulativeEuclidianDistance = 0;
     public double cumulativeTime = 0;
     public long startTime = System.nanoTime();
+    // Solver work summed over the moves that reported it
+    public SolverStats solverStats = new SolverStats();
 
     private boolean firstMove = true;
     private Move lastMove;
@@ -42,6 +44,9 @@ public class GameStats {
 
         cumulativeTime += dtime;
         cumulativeEuclidianDistance += move.euclideanDistance;
+        if (move.solverStats != null) {
+            solverStats.add(move.solverStats);
+        }
         lastMove = move;
     }
 
@@ -25,6 +25,10 @@ public class Move {
     //          should not modify this value
     public double euclideanDistance;
 
+    // Work done by the bot's solver to find this move, or null if the move
+    // was not made by a solver
+    public SolverStats solverStats;
+
     /**
      * Create a Move of a specific type at given X.Y coordinates
      *
@@ -81,7 +85,8 @@ public class Move {
     public String toString() {
         DecimalFormat numberFormat = new DecimalFormat("0.0000");
         return "Move: " + type + " Distance: " + numberFormat.format(euclideanDistance) 
-                + " Time: " + numberFormat.format(deltaTime / Math.pow(10, 6));
+                + " Time: " + numberFormat.format(deltaTime / Math.pow(10, 6))
+                + (solverStats == null ? "" : " " + solverStats);
     }
 
     public String locationString() {
@@ -0,0 +1,135 @@
+package minesweeper.model;
+
+/**
+ * Precomputed neighbour lists describing the topology of a board.
+ *
+ * <p>
+ * Squares are identified by their id, x * height + y. The table is stored in
+ * compressed form: the neighbours of the square with id i are
+ * neighbours[offsets[i]] ... neighbours[offsets[i + 1] - 1]. A square is never
+ * listed as its own neighbour.
+ * </p>
+ * @see Board#getNeighbourTable()
+ */
+public class NeighbourTable {
+    /**
+     * Start index of each square's neighbours in the neighbours array, with one
+     * extra trailing entry marking the end of the last square's neighbours.
+     */
+    public final int[] offsets;
+    /**
+     * Ids of neighbouring squares, grouped by square.
+     */
+    public final int[] neighbours;
+    public final int width;
+    public final int height;
+    /**
+     * True for the table of a regular rectangular board, see grid()
+     */
+    private final boolean grid;
+
+    // The latest grid table, shared by boards of the same size
+    private static volatile NeighbourTable lastGrid;
+
+    /**
+     * Create a table from already built arrays.
+     *
+     * @param width Width of the board the table describes
+     * @param height Height of the board the table describes
+     * @param offsets Start index of each square's neighbours, width * height + 1 entries
+     * @param neighbours Neighbour ids grouped by square
+     */
+    public NeighbourTable(int width, int height, int[] offsets, int[] neighbours) {
+        this(width, height, offsets, neighbours, false);
+    }
+
+    private NeighbourTable(int width, int height, int[] offsets, int[] neighbours, boolean grid) {
+        this.width = width;
+        this.height = height;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.grid = grid;
+    }
+
+    /**
+     * Get the table for a regular rectangular board, where every square is
+     * adjacent to the up to eight squares around it.
+     *
+     * @param width Width of the board
+     * @param height Height of the board
+     * @return Neighbour table of the board
+     */
+    public static NeighbourTable grid(int width, int height) {
+        NeighbourTable cached = lastGrid;
+        if (cached != null && cached.width == width && cached.height == height) {
+            return cached;
+        }
+
+        int[] offsets = new int[width * height + 1];
+        int[] neighbours = new int[countGridNeighbours(width, height)];
+        int next = 0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                offsets[x * height + y] = next;
+                for (int xInc = -1; xInc <= 1; xInc++) {
+                    for (int yInc = -1; yInc <= 1; yInc++) {
+                        int nextX = x + xInc;
+                        int nextY = y + yInc;
+                        if ((xInc == 0 && yInc == 0) || nextX < 0 || nextX >= width
+                                || nextY < 0 || nextY >= height) {
+                            continue;
+                        }
+                        neighbours[next++] = nextX * height + nextY;
+                    }
+                }
+            }
+        }
+        offsets[width * height] = next;
+
+        NeighbourTable table = new NeighbourTable(width, height, offsets, neighbours, true);
+        lastGrid = table;
+        return table;
+    }
+
+    /**
+     * Number of neighbours a given square has.
+     *
+     * @param id Id of the square
+     * @return Number of neighbours
+     */
+    public int count(int id) {
+        return this.offsets[id + 1] - this.offsets[id];
+    }
+
+    /**
+     * Largest number of neighbours of any square.
+     *
+     * @return Number of neighbours
+     */
+    public int maxCount() {
+        int max = 0;
+        for (int id = 0; id + 1 < this.offsets.length; id++) {
+            max = Math.max(max, count(id));
+        }
+        return max;
+    }
+
+    /**
+     * Whether this is the table of a regular rectangular board, made by grid().
+     *
+     * @return True for a grid table
+     */
+    public boolean isGrid() {
+        return this.grid;
+    }
+
+    /**
+     * Total number of adjacencies on a rectangular board, counting both directions.
+     */
+    private static int countGridNeighbours(int width, int height) {
+        long horizontal = (long) Math.max(width - 1, 0) * height;
+        long vertical = (long) width * Math.max(height - 1, 0);
+        long diagonal = 2L * Math.max(width - 1, 0) * Math.max(height - 1, 0);
+        return (int) (2 * (horizontal + vertical + diagonal));
+    }
+}
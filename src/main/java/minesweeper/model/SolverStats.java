@@ -0,0 +1,62 @@
+package minesweeper.model;
+
+/**
+ * Counters describing the work a constraint solver did for a move.
+ *
+ * <p>
+ * Bots may attach these to their Moves. When stats are added together the
+ * counters and times are summed, while the sizes (constraints, components and
+ * the largest component) keep their maximum.
+ * </p>
+ */
+public class SolverStats {
+    // Calls of the backtracking search
+    public long searchNodes;
+    // Assignments rejected as inconsistent
+    public long backtracks;
+    // Squares whose value became known by simplifying constraints
+    public long propagationSteps;
+    public long solutions;
+    // Components looked up in a component cache, found or searched
+    public long componentCacheHits;
+    public long componentCacheMisses;
+
+    public int constraintCount;
+    public int componentCount;
+    public int largestComponent;
+
+    // Time in nanoseconds spent on each phase of the move
+    public long propagationNanos;
+    public long searchNanos;
+    public long guessNanos;
+    // CPU time in nanoseconds other threads spent looking ahead for the move's guess
+    public long lookaheadCpuNanos;
+
+    /**
+     * Add the counts of another move to these
+     * @param other Stats to be added
+     */
+    public void add(SolverStats other) {
+        this.searchNodes += other.searchNodes;
+        this.backtracks += other.backtracks;
+        this.propagationSteps += other.propagationSteps;
+        this.solutions += other.solutions;
+        this.componentCacheHits += other.componentCacheHits;
+        this.componentCacheMisses += other.componentCacheMisses;
+        this.constraintCount = Math.max(this.constraintCount, other.constraintCount);
+        this.componentCount = Math.max(this.componentCount, other.componentCount);
+        this.largestComponent = Math.max(this.largestComponent, other.largestComponent);
+        this.propagationNanos += other.propagationNanos;
+        this.searchNanos += other.searchNanos;
+        this.guessNanos += other.guessNanos;
+        this.lookaheadCpuNanos += other.lookaheadCpuNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Nodes: " + searchNodes + " Backtracks: " + backtracks + " Propagations: " + propagationSteps
+                + " Solutions: " + solutions + " Constraints: " + constraintCount + " Components: " + componentCount
+                + " Largest: " + largestComponent + " Cache hits: " + componentCacheHits
+                + " Cache misses: " + componentCacheMisses;
+    }
+}
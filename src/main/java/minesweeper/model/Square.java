@@ -17,6 +17,12 @@ public class Square {
 
     public Highlight highlight = Highlight.NONE;
 
+    /**
+     * The Board this Square has been placed on, notified of opening and flagging
+     * so that it can keep its square counters and change journal up to date. Null for loose Squares.
+     */
+    Board owner;
+
     /**
      * Generates a new unopened Square with no mines or flag
      *
@@ -32,6 +38,36 @@ public class Square {
         this.locationY = y;
     }
 
+    /**
+     * Generates a Square from its state byte in a BoardSnapshot
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param state State byte of the square
+     */
+    Square(int x, int y, int state) {
+        this(x, y);
+        this.opened = (state & BoardSnapshot.OPENED) != 0;
+        this.isFlagged = (state & BoardSnapshot.FLAGGED) != 0;
+        this.isMine = (state & BoardSnapshot.MINE) != 0;
+        this.surroundingMines = state >>> BoardSnapshot.MINES_SHIFT;
+    }
+
+    /**
+     * The state byte of this Square in a BoardSnapshot. Whether the Square is
+     * a mine, and the number of surrounding mines, are included only once it
+     * has been opened.
+     *
+     * @return Combination of the BoardSnapshot state bits
+     */
+    int state() {
+        if (this.opened) {
+            return BoardSnapshot.OPENED | (this.isMine ? BoardSnapshot.MINE : 0)
+                    | this.surroundingMines << BoardSnapshot.MINES_SHIFT;
+        }
+        return this.isFlagged ? BoardSnapshot.FLAGGED : 0;
+    }
+
     /**
      * Get the X coordinate of the Square
      * @return Square's X coordinate
@@ -69,8 +105,11 @@ public class Square {
      * Represents a "click" on this particular square, and sets the state to opened
      */
     public void open() {
-        if (!isFlagged) {
+        if (!isFlagged && !opened) {
             this.opened = true;
+            if (this.owner != null) {
+                this.owner.squareOpened(this);
+            }
         }
     }
 
@@ -105,6 +144,9 @@ public class Square {
     public void toggleFlagged() {
         if (!this.opened) { 
             this.isFlagged = !this.isFlagged;
+            if (this.owner != null) {
+                this.owner.flagToggled(this, this.isFlagged);
+            }
         }
     }
 
@@ -0,0 +1,118 @@
+package minesweeper.structures;
+
+/**
+ * Histogram of durations in nanoseconds with logarithmic buckets.
+ *
+ * <p>
+ * Every power of two is divided into 8 equally wide buckets, so a reported
+ * percentile is at most 12.5% above the true value. Recording a value is a
+ * single array increment, and the histogram has a fixed size of a few
+ * kilobytes regardless of how many values are recorded. Histograms of
+ * separate games can be merged to get the distribution of a whole run.
+ * A histogram is not thread safe, each recording thread should have its own.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below this are counted exactly, one bucket per value
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+    private final long[] counts = new long[bucketIndex(Long.MAX_VALUE) + 1];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Record a single duration
+     * @param nanos Duration in nanoseconds, negative values are counted as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.counts[bucketIndex(value)]++;
+        this.count++;
+        this.total += value;
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Add all values recorded in another histogram to this one
+     * @param other Histogram to be added
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Get the value below which the given fraction of recorded values fall
+     *
+     * @param fraction For example 0.5 for the median or 0.999 for the 99.9th percentile
+     * @return Upper bound of the bucket holding the percentile, never more than the maximum,
+     * or 0 if nothing has been recorded
+     */
+    public long getPercentile(double fraction) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+
+    public long getMax() {
+        return this.max;
+    }
+
+    public double getMean() {
+        return this.count == 0 ? 0 : 1.0 * this.total / this.count;
+    }
+
+    /**
+     * One line summary of the distribution in microseconds
+     * @return Summary with the count, median, tail percentiles and maximum
+     */
+    public String summary() {
+        return String.format("n=%d p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus", this.count,
+                getPercentile(0.5) / 1000.0, getPercentile(0.99) / 1000.0, getPercentile(0.999) / 1000.0,
+                this.max / 1000.0);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lower = (1L << exponent) + subBucket * width;
+        return lower + width - 1;
+    }
+}
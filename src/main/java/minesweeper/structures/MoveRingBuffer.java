@@ -0,0 +1,188 @@
+package minesweeper.structures;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+
+/**
+ * Bounded queue of Moves from one producer thread to one consumer thread.
+ *
+ * <p>
+ * The moves are kept in a fixed array used as a ring, so passing a move
+ * allocates nothing. The producer only writes the tail index and the consumer
+ * only writes the head index, which makes the queue lock free as long as there
+ * is exactly one thread on each side. What put() does when the queue is full
+ * is decided by the Backpressure policy.
+ * </p>
+ */
+public class MoveRingBuffer {
+    /**
+     * What the producer does when the queue is full
+     */
+    public enum Backpressure {
+        /**
+         * Park until the consumer has taken a move
+         */
+        BLOCK,
+        /**
+         * Busy wait for a while before parking, for consumers that drain quickly
+         */
+        SPIN_THEN_PARK,
+        /**
+         * Drop highlight moves, block on any other move
+         */
+        DROP_HIGHLIGHTS
+    }
+
+    private static final int SPINS = 1000;
+    // Upper bound for a single park, in case the consumer's unpark was missed
+    private static final long PARK_NANOS = 100_000;
+
+    private final Move[] moves;
+    private final int mask;
+    private final Backpressure policy;
+    // Index of the next move to be taken, written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // Index of the next free slot, written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+    private volatile Thread waitingProducer;
+
+    /**
+     * Create a queue of at least the given capacity
+     *
+     * @param capacity Number of moves the queue can hold, rounded up to a power of two
+     * @param policy What put() does when the queue is full
+     */
+    public MoveRingBuffer(int capacity, Backpressure policy) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.moves = new Move[size];
+        this.mask = size - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Add a move if there is room for it. Called by the producer only.
+     *
+     * @param move Move to be added
+     * @return True if the move was added, false if the queue was full
+     */
+    public boolean offer(Move move) {
+        long currentTail = this.tail.get();
+        if (currentTail - this.head.get() == this.moves.length) {
+            return false;
+        }
+        this.moves[(int) currentTail & this.mask] = move;
+        // Release store, the consumer sees the move before the new tail
+        this.tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Add a move, waiting for room according to the policy. Called by the producer only.
+     *
+     * @param move Move to be added
+     * @return True if the move was added, false if it was a highlight dropped by DROP_HIGHLIGHTS
+     * @throws InterruptedException If the producer was interrupted while waiting
+     */
+    public boolean put(Move move) throws InterruptedException {
+        if (offer(move)) {
+            return true;
+        }
+        if (this.policy == Backpressure.DROP_HIGHLIGHTS && move.type == MoveType.HIGHLIGHT) {
+            return false;
+        }
+        if (this.policy == Backpressure.SPIN_THEN_PARK) {
+            for (int i = 0; i < SPINS; i++) {
+                Thread.onSpinWait();
+                if (offer(move)) {
+                    return true;
+                }
+            }
+        }
+        this.waitingProducer = Thread.currentThread();
+        try {
+            while (!offer(move)) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        } finally {
+            this.waitingProducer = null;
+        }
+        return true;
+    }
+
+    /**
+     * Take the oldest move. Called by the consumer only.
+     *
+     * @return The oldest move, or null if the queue is empty
+     */
+    public Move poll() {
+        long currentHead = this.head.get();
+        if (currentHead == this.tail.get()) {
+            return null;
+        }
+        int index = (int) currentHead & this.mask;
+        Move move = this.moves[index];
+        this.moves[index] = null;
+        this.head.lazySet(currentHead + 1);
+        wakeProducer();
+        return move;
+    }
+
+    /**
+     * Move up to the given number of moves to a list, oldest first. Called by the consumer only.
+     *
+     * @param target List the moves are added to
+     * @param maxMoves Largest number of moves to take
+     * @return Number of moves taken
+     */
+    public int drainTo(List<Move> target, int maxMoves) {
+        long currentHead = this.head.get();
+        int count = (int) Math.min(maxMoves, this.tail.get() - currentHead);
+        if (count <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int index = (int) (currentHead + i) & this.mask;
+            target.add(this.moves[index]);
+            this.moves[index] = null;
+        }
+        this.head.lazySet(currentHead + count);
+        wakeProducer();
+        return count;
+    }
+
+    private void wakeProducer() {
+        Thread producer = this.waitingProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+    }
+
+    /**
+     * Number of moves in the queue, exact only when called by the producer or the consumer
+     * @return Number of moves waiting
+     */
+    public int size() {
+        long currentHead = this.head.get();
+        return (int) (this.tail.get() - currentHead);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return this.moves.length;
+    }
+}
@@ -1,6 +1,7 @@
 
 package minesweeper.structures;
 
+import java.util.Arrays;
 import minesweeper.model.Square;
 
 public class SquareSet {
@@ -18,8 +19,33 @@ public class SquareSet {
         this.height = height;
     }
 
+    /**
+     * Create a set for a few squares of a board, such as the neighbours of a
+     * square. The squares are only kept in a list, which grows if needed, so
+     * contains() goes through them instead of looking at a grid of the board.
+     *
+     * @param width Width of the board
+     * @param height Height of the board
+     * @param capacity Number of squares expected in the set
+     */
+    public SquareSet(int width, int height, int capacity) {
+        this.containGrid = null;
+        this.squares = new Square[Math.max(capacity, 1)];
+        this.next = 0;
+        this.width = width;
+        this.height = height;
+    }
+
     public void add(Square square) {
-        if (!containGrid[square.getX()][square.getY()]) {
+        if (containGrid == null) {
+            if (!contains(square)) {
+                if (next == squares.length) {
+                    squares = Arrays.copyOf(squares, 2 * next);
+                }
+                squares[next] = square;
+                next++;
+            }
+        } else if (!containGrid[square.getX()][square.getY()]) {
             containGrid[square.getX()][square.getY()] = true;
             squares[next] = square;
             next++;
@@ -45,23 +71,32 @@ public class SquareSet {
     }
 
     public boolean contains(Square square) {
+        if (containGrid == null) {
+            for (int i = 0; i < next; i++) {
+                if (squares[i].getX() == square.getX() && squares[i].getY() == square.getY()) {
+                    return true;
+                }
+            }
+            return false;
+        }
         return containGrid[square.getX()][square.getY()];
     }
 
     public boolean remove(Square square) {
         if (contains(square)) {
-            Square[] newSquares = new Square[squares.length];
-            int newNext = 0;
-            for (Square s : this.getSquares()) {
-                if (s.equals(square)) {
-                    continue;
+            for (int i = 0; i < next; i++) {
+                // Matched by location like contains(), so an equal Square of another board copy is removed too
+                if (squares[i].getX() == square.getX() && squares[i].getY() == square.getY()) {
+                    // The squares after it move down, keeping the order they were added in
+                    System.arraycopy(squares, i + 1, squares, i, next - i - 1);
+                    next--;
+                    squares[next] = null;
+                    break;
                 }
-                newSquares[newNext] = s;
-                newNext++;
             }
-            this.squares = newSquares;
-            this.next = newNext;
-            this.containGrid[square.getX()][square.getY()] = false;
+            if (this.containGrid != null) {
+                this.containGrid[square.getX()][square.getY()] = false;
+            }
             return true;
         }
         return false;
@@ -73,7 +108,9 @@ public class SquareSet {
         }
         Square last = squares[next - 1];
         next--;
-        containGrid[last.getX()][last.getY()] = false;
+        if (containGrid != null) {
+            containGrid[last.getX()][last.getY()] = false;
+        }
         return last;
     }
 
@@ -99,11 +136,13 @@ public class SquareSet {
         if (this.height != other.height) {
             return false;
         }
-        for (int x = 0; x < this.width; x++) {
-            for (int y = 0; y < this.height; y++) {
-                if (this.containGrid[x][y] != other.containGrid[x][y]) {
-                    return false;
-                }
+        // Either set may keep its squares without a grid
+        if (this.next != other.next) {
+            return false;
+        }
+        for (int i = 0; i < this.next; i++) {
+            if (!other.contains(this.squares[i])) {
+                return false;
             }
         }
         return true;
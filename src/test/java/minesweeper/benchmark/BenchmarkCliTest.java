@@ -0,0 +1,125 @@
+package minesweeper.benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import minesweeper.bot.MyBot;
+
+public class BenchmarkCliTest {
+    private BenchmarkCli cli;
+
+    @Before
+    public void setUp() {
+        cli = new BenchmarkCli();
+    }
+
+    @Test
+    public void presetSetsBoardSize() {
+        cli.parse(new String[] {"--preset", "intermediate"});
+
+        assertEquals(16, cli.width);
+        assertEquals(16, cli.height);
+        assertEquals(40, cli.mines);
+    }
+
+    @Test
+    public void customSizeOverridesPreset() {
+        cli.parse(new String[] {"--preset", "beginner", "--width", "12", "--seed", "5", "--threads", "2"});
+
+        assertEquals(12, cli.width);
+        assertEquals(9, cli.height);
+        assertEquals(5, cli.seed);
+        assertEquals(2, cli.threads);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownOptionIsRejected() {
+        cli.parse(new String[] {"--colour", "blue"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonBotClassIsRejected() {
+        cli.parse(new String[] {"--bot", "java.lang.String"});
+        cli.botFactory();
+    }
+
+    @Test
+    public void lookaheadIsOnlyAcceptedForBotsThatSupportIt() {
+        cli.parse(new String[] {"--lookahead-ms", "20"});
+        assertEquals(20, cli.lookaheadMillis);
+        assertTrue(cli.botFactory().get() instanceof MyBot);
+
+        cli.parse(new String[] {"--bot", "minesweeper.bot.TestBot"});
+        try {
+            cli.botFactory();
+            fail("TestBot has no lookahead constructor");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("--lookahead-ms"));
+        }
+    }
+
+    @Test
+    public void openingBookIsGivenToTheBots() {
+        cli.parse(new String[] {"--opening-book", "opening.book"});
+        assertEquals("opening.book", cli.openingBook);
+        // The book is only read when a game starts
+        assertTrue(cli.botFactory().get() instanceof MyBot);
+
+        cli.parse(new String[] {"--bot", "minesweeper.bot.TestBot"});
+        try {
+            cli.botFactory();
+            fail("TestBot has no opening book constructor");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("--opening-book"));
+        }
+    }
+
+    @Test
+    public void componentCacheIsOnlyUsedWhenAsked() {
+        cli.parse(new String[] {"--preset", "beginner", "--games", "4", "--seed", "3"});
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        cli.run(new PrintStream(new ByteArrayOutputStream()), new PrintStream(log));
+        assertNull(cli.components);
+        assertFalse(log.toString().contains("Component cache"));
+
+        cli.parse(new String[] {"--component-cache-mb", "4"});
+        log.reset();
+        cli.run(new PrintStream(new ByteArrayOutputStream()), new PrintStream(log));
+        assertTrue(cli.components.getLookups() > 0);
+        assertTrue(log.toString().contains("Component cache"));
+    }
+
+    @Test
+    public void csvHasHeaderAndOneRecordPerGameInOrder() {
+        cli.parse(new String[] {"--preset", "beginner", "--games", "12", "--seed", "3", "--threads", "3"});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        cli.run(new PrintStream(bytes), new PrintStream(new ByteArrayOutputStream()));
+
+        String[] lines = bytes.toString().split("\\n");
+        assertEquals(13, lines.length);
+        assertTrue(lines[0].startsWith("game,seed,won"));
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i].startsWith((i - 1) + ","));
+        }
+    }
+
+    @Test
+    public void jsonLinesRecordsContainAllFields() {
+        cli.parse(new String[] {"--preset", "beginner", "--games", "2", "--seed", "3", "--format", "jsonl"});
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        cli.run(new PrintStream(bytes), new PrintStream(new ByteArrayOutputStream()));
+
+        String[] lines = bytes.toString().split("\\n");
+        assertEquals(2, lines.length);
+        for (String field : new String[] {"seed", "won", "moves", "guesses", "bot_cpu_ns", "peak_frontier"}) {
+            assertTrue(lines[0].contains("\"" + field + "\":"));
+        }
+    }
+}
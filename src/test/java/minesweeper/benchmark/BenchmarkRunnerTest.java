@@ -0,0 +1,72 @@
+package minesweeper.benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import minesweeper.bot.ComponentCache;
+import minesweeper.bot.MyBot;
+import minesweeper.model.SolverStats;
+
+public class BenchmarkRunnerTest {
+    private BenchmarkRunner runner;
+
+    @Before
+    public void setUp() {
+        runner = new BenchmarkRunner(9, 9, 10, 3, MyBot::new);
+    }
+
+    @Test
+    public void seedsAreReproducibleFromMasterSeed() {
+        assertArrayEquals(BenchmarkRunner.seeds(20, 1234), BenchmarkRunner.seeds(20, 1234));
+    }
+
+    @Test
+    public void allGamesArePlayedToTheEnd() {
+        BenchmarkResult result = runner.run(30, 42);
+
+        assertEquals(30, result.games.length);
+        for (GameResult game : result.games) {
+            assertTrue(game.moves > 0);
+        }
+        assertTrue(result.getWins() <= 30);
+    }
+
+    @Test
+    public void resultsDoNotDependOnThreadCount() {
+        BenchmarkResult parallel = runner.run(20, 7);
+        BenchmarkResult serial = new BenchmarkRunner(9, 9, 10, 1, MyBot::new).run(20, 7);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(serial.games[i].seed, parallel.games[i].seed);
+            assertEquals(serial.games[i].won, parallel.games[i].won);
+            assertEquals(serial.games[i].moves, parallel.games[i].moves);
+        }
+    }
+
+    @Test
+    public void solverCountsDoNotDependOnEarlierRuns() {
+        SolverStats first = runner.run(20, 7).getSolverStats();
+        SolverStats second = runner.run(20, 7).getSolverStats();
+
+        assertTrue(first.searchNodes > 0);
+        assertEquals(first.searchNodes, second.searchNodes);
+        assertEquals(0, first.componentCacheHits + first.componentCacheMisses);
+    }
+
+    @Test
+    public void componentCacheLookupsAreCounted() {
+        ComponentCache cache = new ComponentCache(ComponentCache.DEFAULT_BUDGET_BYTES);
+        BenchmarkRunner cached = new BenchmarkRunner(9, 9, 10, 1, () -> new MyBot(null, null, null, cache));
+        SolverStats cold = cached.run(20, 7).getSolverStats();
+        SolverStats warm = cached.run(20, 7).getSolverStats();
+
+        assertEquals(cache.getLookups(), cold.componentCacheHits + cold.componentCacheMisses
+                + warm.componentCacheHits + warm.componentCacheMisses);
+        // Every component of the second run was already solved in the first
+        assertEquals(0, warm.componentCacheMisses);
+        assertEquals(0, warm.searchNodes);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.junit.After;
 import org.junit.Before;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -13,6 +14,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import minesweeper.model.Move;
+import minesweeper.structures.MoveRingBuffer;
 import minesweeper.model.Board;
 import minesweeper.generator.MinefieldGenerator;
 
@@ -41,4 +43,29 @@ public class BotExecutorTest {
             fail("Could not find move on the queue");
         }
     }
+
+    @Test
+    public void botExecutorTimesEveryMove() {
+        botEx.run();
+
+        assertEquals(queue.size(), botEx.getMoveTimer().getWallTimes().getCount());
+        assertTrue(botEx.getMoveTimer().getWallTimes().getMax() > 0);
+    }
+
+    @Test
+    public void botExecutorWaitsForRoomInBoundedChannel() throws InterruptedException {
+        MoveRingBuffer channel = new MoveRingBuffer(2, MoveRingBuffer.Backpressure.BLOCK);
+        Board board = new Board(new MinefieldGenerator(42), 10, 10, 10);
+        Thread game = new Thread(new BotExecutor(channel, new MyBot(), board));
+        game.start();
+        int moves = 0;
+        while (game.isAlive() || !channel.isEmpty()) {
+            assertTrue(channel.size() <= channel.capacity());
+            if (channel.poll() != null) {
+                moves++;
+            }
+        }
+        assertTrue(board.gameWon || board.gameLost);
+        assertTrue(moves > 0);
+    }
 }
@@ -1,6 +1,8 @@
 
 package minesweeper.bot;
 
+import java.util.concurrent.CancellationException;
+import minesweeper.model.SolverStats;
 import minesweeper.model.Square;
 import minesweeper.structures.MyList;
 import minesweeper.structures.SquareMap;
@@ -147,4 +149,122 @@ public class CSPTest {
             assertTrue(summary.get(square) > 0 && summary.get(square) < 100);
         }
     }
+
+    @Test
+    public void statsCountSearchAndComponents() {
+        Square[] squares = varSubset.getSquares();
+        SquareSet first = new SquareSet(size, size);
+        SquareSet second = new SquareSet(size, size);
+        for (int i = 0; i < squares.length; i++) {
+            if (i < 3) {
+                first.add(squares[i]);
+            } else {
+                second.add(squares[i]);
+            }
+        }
+        csp.addConstraint(first, 1);
+        csp.addConstraint(second, 1);
+        csp.findSafeSolutions(varSubset);
+
+        SolverStats stats = csp.takeStats();
+        assertEquals(9, stats.solutions);
+        assertEquals(2, stats.constraintCount);
+        assertEquals(2, stats.componentCount);
+        assertEquals(3, stats.largestComponent);
+        assertTrue(stats.searchNodes > stats.solutions);
+        assertTrue(stats.backtracks > 0);
+        assertEquals(0, stats.propagationSteps);
+    }
+
+    @Test
+    public void statsCountPropagatedSquaresAndResetWhenTaken() {
+        csp.addConstraint(varSubset, 0);
+        assertEquals(varSubset.size(), csp.getStats().propagationSteps);
+        csp.takeStats();
+        assertEquals(0, csp.getStats().propagationSteps);
+        assertEquals(0, csp.getStats().searchNodes);
+    }
+
+    @Test
+    public void searchStopsWhenThreadIsInterrupted() {
+        csp.addConstraint(varSubset, 2);
+        Thread.currentThread().interrupt();
+        try {
+            csp.findSafeSolutions(varSubset);
+            fail("An interrupted search should be cancelled");
+        } catch (CancellationException e) {
+            // expected
+        } finally {
+            Thread.interrupted();
+        }
+        // The same csp can be searched again once the interrupt has been cleared
+        assertEquals(varSubset.size(), csp.findSafeSolutions(varSubset).size());
+    }
+
+    private CSP cspOf(Square... squares) {
+        SquareSet squareSet = new SquareSet(size, size);
+        SquareMap<int[]> squareDomains = new SquareMap<>(size, size);
+        for (Square square : squares) {
+            squareSet.add(square);
+            squareDomains.put(square, new int[] {0, 1});
+        }
+        return new CSP(squareSet, squareDomains);
+    }
+
+    private SquareSet setOf(Square... squares) {
+        SquareSet squareSet = new SquareSet(size, size);
+        for (Square square : squares) {
+            squareSet.add(square);
+        }
+        return squareSet;
+    }
+
+    @Test
+    public void componentsAreSolvedSeparately() {
+        Square[] squares = varSubset.getSquares();
+        csp.addConstraint(setOf(squares[0], squares[1]), 1);
+        csp.addConstraint(setOf(squares[2], squares[3], squares[4]), 2);
+        csp.addConstraint(setOf(squares[3], squares[4]), 1);
+        SquareMap<Integer> summary = csp.findSafeSolutions(setOf(squares[0], squares[1], squares[2],
+                squares[3], squares[4]));
+
+        assertEquals(4, (long) csp.getSolutionCount());
+        assertEquals(50, (int) summary.get(squares[0]));
+        assertEquals(100, (int) summary.get(squares[2]));
+        assertEquals(50, (int) summary.get(squares[4]));
+        assertEquals(2, csp.getStats().componentCount);
+    }
+
+    @Test
+    public void cachedComponentIsMappedBackToARotatedComponent() {
+        ComponentCache cache = new ComponentCache(1 << 20);
+        // One mine in the first two squares of a row, and one in all three
+        Square a = new Square(2, 5);
+        Square b = new Square(3, 5);
+        Square c = new Square(4, 5);
+        CSP row = cspOf(a, b, c);
+        row.setComponentCache(cache);
+        row.addConstraint(setOf(a, b), 1);
+        row.addConstraint(setOf(a, b, c), 1);
+        SquareMap<Integer> rowSummary = row.findSafeSolutions(setOf(a, b, c));
+        assertEquals(0, (int) rowSummary.get(c));
+        assertEquals(0, cache.getHits());
+
+        // The same in a column, going upwards
+        Square d = new Square(7, 9);
+        Square e = new Square(7, 8);
+        Square f = new Square(7, 7);
+        CSP column = cspOf(d, e, f);
+        column.setComponentCache(cache);
+        column.addConstraint(setOf(d, e), 1);
+        column.addConstraint(setOf(d, e, f), 1);
+        SquareMap<Integer> columnSummary = column.findSafeSolutions(setOf(d, e, f));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, column.getStats().searchNodes);
+        assertEquals(50, (int) columnSummary.get(d));
+        assertEquals(50, (int) columnSummary.get(e));
+        assertEquals(0, (int) columnSummary.get(f));
+        assertEquals(2, (long) column.getSolutionCount());
+    }
+
 }
@@ -0,0 +1,62 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+import minesweeper.structures.SquareSet;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CanonicalComponentTest {
+
+    private MinesweeperConstraint constraint(int mines, Square... squares) {
+        SquareSet squareSet = new SquareSet(20, 20);
+        for (Square square : squares) {
+            squareSet.add(square);
+        }
+        return new MinesweeperConstraint(mines, squareSet);
+    }
+
+    // A 1-2-1 seen from the side, with the squares in the given order
+    private CanonicalComponent oneTwoOne(Square first, Square second, Square third) {
+        MyList<MinesweeperConstraint> constraints = new MyList<>();
+        constraints.add(constraint(1, first, second));
+        constraints.add(constraint(2, first, second, third));
+        constraints.add(constraint(1, second, third));
+        return new CanonicalComponent(new Square[] {third, first, second}, constraints);
+    }
+
+    @Test
+    public void rotatedReflectedAndMovedGroupsHaveTheSameEncoding() {
+        CanonicalComponent row = oneTwoOne(new Square(0, 0), new Square(1, 0), new Square(2, 0));
+        CanonicalComponent column = oneTwoOne(new Square(9, 12), new Square(9, 11), new Square(9, 10));
+        CanonicalComponent diagonal = oneTwoOne(new Square(3, 3), new Square(4, 4), new Square(5, 5));
+
+        assertArrayEquals(row.encoding, column.encoding);
+        assertNotEquals(row.encoding.length, 0);
+        assertFalse(Arrays.equals(row.encoding, diagonal.encoding));
+    }
+
+    @Test
+    public void squaresAreInTheOrderOfTheEncoding() {
+        CanonicalComponent row = oneTwoOne(new Square(0, 0), new Square(1, 0), new Square(2, 0));
+        CanonicalComponent column = oneTwoOne(new Square(9, 12), new Square(9, 11), new Square(9, 10));
+
+        // The middle squares correspond to each other, whichever way the ends are mapped
+        assertEquals(1, row.squares[1].getX());
+        assertEquals(11, column.squares[1].getY());
+    }
+
+    @Test
+    public void differentMineCountsGiveDifferentEncodings() {
+        Square a = new Square(0, 0);
+        Square b = new Square(1, 0);
+        MyList<MinesweeperConstraint> one = new MyList<>();
+        one.add(constraint(1, a, b));
+        MyList<MinesweeperConstraint> two = new MyList<>();
+        two.add(constraint(2, a, b));
+
+        assertFalse(Arrays.equals(new CanonicalComponent(new Square[] {a, b}, one).encoding,
+                new CanonicalComponent(new Square[] {a, b}, two).encoding));
+    }
+}
@@ -0,0 +1,39 @@
+package minesweeper.bot;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ComponentCacheTest {
+
+    @Test
+    public void resultIsFoundByAnEqualEncoding() {
+        ComponentCache cache = new ComponentCache(1 << 20);
+        cache.put(new int[] {1, 2, 3}, new ComponentCache.Result(new long[] {1}, 2));
+
+        ComponentCache.Result result = cache.get(new int[] {1, 2, 3});
+        assertNotNull(result);
+        assertEquals(2, result.solutionCount);
+        assertNull(cache.get(new int[] {1, 2, 4}));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getLookups());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvictedWithinTheBudget() {
+        long budget = 16 * 1024;
+        ComponentCache cache = new ComponentCache(budget);
+        cache.put(new int[] {0}, new ComponentCache.Result(new long[] {0}, 1));
+        for (int i = 1; i < 10000; i++) {
+            // Keeps the first entry recently used
+            assertNotNull(cache.get(new int[] {0}));
+            cache.put(new int[] {i * 16}, new ComponentCache.Result(new long[] {0}, 1));
+            assertTrue(cache.getBytes() <= budget);
+        }
+        assertNotNull(cache.get(new int[] {0}));
+        assertNull(cache.get(new int[] {16}));
+
+        cache.clear();
+        assertEquals(0, cache.getBytes());
+        assertNull(cache.get(new int[] {0}));
+    }
+}
@@ -0,0 +1,164 @@
+package minesweeper.bot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class EndgameTablebaseTest {
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("endgames", ".tb");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * A 3x2 board with one mine in the middle of the bottom row and a corner
+     * opened next to it, leaving the 1 of the corner to be shared by three
+     * squares. The mine count shows the far column is safe, the 1 does not.
+     */
+    private Board cornerOpened(MyBot bot, boolean mirrored) {
+        Board board = new Board(new MinefieldGenerator(1), 3, 2, 1);
+        if (bot != null) {
+            bot.makeMove(board);
+        }
+        board.firstMove = false;
+        board.getSquareAt(1, 1).setMine();
+        board.incrementAdjacentSquares(1, 1);
+        board.makeMove(new Move(MoveType.OPEN, mirrored ? 2 : 0, 0));
+        return board;
+    }
+
+    @Test
+    public void solutionUsesTheNumberOfMinesLeft() {
+        EndgamePosition position = EndgamePosition.of(cornerOpened(null, false), EndgameTablebase.MAX_SQUARES);
+        EndgameTablebase.Result result = TablebaseGenerator.solve(position);
+
+        assertEquals(5, position.squares.length);
+        assertEquals(3, result.solutions);
+        for (int i = 0; i < position.squares.length; i++) {
+            int expected = position.squares[i].getX() == 2 ? 0 : 1;
+            assertEquals(expected, result.mineSolutions[i]);
+        }
+        assertEquals(0, result.mineSolutions[result.bestGuess]);
+        // The safe squares tell the corner mine apart from the other two, which are left a coin flip
+        assertEquals(2.0 / 3, result.winChance, 1e-9);
+    }
+
+    @Test
+    public void mirroredPositionHasTheSameKey() {
+        EndgamePosition position = EndgamePosition.of(cornerOpened(null, false), EndgameTablebase.MAX_SQUARES);
+        EndgamePosition mirrored = EndgamePosition.of(cornerOpened(null, true), EndgameTablebase.MAX_SQUARES);
+
+        assertArrayEquals(position.key, mirrored.key);
+        assertEquals(2 - position.squares[0].getX(), mirrored.squares[0].getX());
+    }
+
+    @Test
+    public void writtenPositionsAreFoundInTheMappedFile() throws IOException {
+        EndgamePosition position = EndgamePosition.of(cornerOpened(null, false), EndgameTablebase.MAX_SQUARES);
+        TablebaseGenerator generator = new TablebaseGenerator();
+        assertTrue(generator.add(position));
+        assertFalse(generator.add(position));
+        generator.playGames(9, 9, 10, 20, 4);
+        generator.write(file);
+
+        EndgameTablebase tablebase = new EndgameTablebase(file);
+        EndgameTablebase.Result result = tablebase.lookup(position.key);
+        assertNotNull(result);
+        assertEquals(3, result.solutions);
+        int[] unknown = position.key.clone();
+        unknown[unknown.length - 1] = 2;
+        assertNull(tablebase.lookup(unknown));
+    }
+
+    @Test
+    public void fileIsNotReadBeforeTheFirstLookup() {
+        EndgameTablebase tablebase = new EndgameTablebase(file.resolveSibling("missing.tb"));
+        try {
+            tablebase.lookup(new int[] {1});
+            fail("A missing file can not be looked up");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+    }
+
+    private void assertDamaged(byte[] bytes, EndgamePosition position) throws IOException {
+        Files.write(file, bytes);
+        try {
+            new EndgameTablebase(file).lookup(position.key);
+            fail("A damaged file is not a tablebase");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void damagedFilesAreRejected() throws IOException {
+        EndgamePosition position = EndgamePosition.of(cornerOpened(null, false), EndgameTablebase.MAX_SQUARES);
+        TablebaseGenerator generator = new TablebaseGenerator();
+        generator.add(position);
+        generator.write(file);
+        byte[] valid = Files.readAllBytes(file);
+
+        byte[] otherSize = valid.clone();
+        ByteBuffer.wrap(otherSize).putInt(8, EndgameTablebase.MAX_SQUARES + 1);
+        assertDamaged(otherSize, position);
+        byte[] oddSlots = valid.clone();
+        ByteBuffer.wrap(oddSlots).putInt(12, 3);
+        assertDamaged(oddSlots, position);
+        // Cut in the slots, and in the entry
+        assertDamaged(Arrays.copyOf(valid, 20), position);
+        assertDamaged(Arrays.copyOf(valid, valid.length - 1), position);
+    }
+
+    @Test
+    public void botOpensTheSquareTheTablebaseKnowsIsSafe() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator();
+        generator.add(EndgamePosition.of(cornerOpened(null, true), EndgameTablebase.MAX_SQUARES));
+        generator.write(file);
+
+        MyBot bot = new MyBot(null, new EndgameTablebase(file));
+        Board board = cornerOpened(bot, false);
+        Move move = bot.makeMove(board);
+        assertEquals(MoveType.OPEN, move.type);
+        assertEquals(2, move.x);
+        assertFalse(bot.wasGuess);
+    }
+
+    @Test
+    public void botWithTablebaseFinishesGames() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator();
+        generator.playGames(9, 9, 10, 50, 1);
+        generator.write(file);
+        assertTrue(generator.size() > 0);
+
+        EndgameTablebase tablebase = new EndgameTablebase(file);
+        for (long seed = 0; seed < 50; seed++) {
+            MyBot bot = new MyBot(null, tablebase);
+            Board board = new Board(new MinefieldGenerator(seed), 9, 9, 10);
+            while (!board.gameLost && !board.gameWon) {
+                board.makeMove(bot.makeMove(board));
+            }
+            if (board.gameLost) {
+                assertTrue(bot.wasGuess);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package minesweeper.bot;
+
+import java.util.Arrays;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.BoardOverlay;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import minesweeper.model.Square;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FrontierTest {
+    private Board board;
+    private MyBot bot;
+
+    @Before
+    public void setUp() {
+        board = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        board.makeMove(new Move(MoveType.OPEN, 8, 8));
+        bot = new MyBot();
+    }
+
+    private void assertSameSolution(Solution expected, Solution actual) {
+        assertEquals(expected.count, actual.count);
+        assertEquals(expected.squares.length, actual.squares.length);
+        for (int i = 0; i < expected.squares.length; i++) {
+            assertSame(expected.squares[i], actual.squares[i]);
+            assertEquals(expected.percentages[i], actual.percentages[i]);
+        }
+    }
+
+    @Test
+    public void revealsAreSolvedLikeTheBoardWithThem() {
+        Solution start = bot.solve(board);
+        Square first = start.squares[0];
+        Square second = start.squares[start.squares.length - 1];
+        for (int number = 0; number <= 3; number++) {
+            long[] reveals = {
+                (long) board.getSquareId(first.getX(), first.getY()) << 8 | number,
+                (long) board.getSquareId(second.getX(), second.getY()) << 8 | 1
+            };
+            Arrays.sort(reveals);
+            BoardOverlay overlay = new BoardOverlay(board);
+            overlay.open(first.getX(), first.getY(), number);
+            overlay.open(second.getX(), second.getY(), 1);
+
+            assertSameSolution(bot.solve(overlay), bot.solve(Frontier.of(board).reveal(reveals)));
+        }
+    }
+
+    @Test
+    public void frontierKeepsTheRectangleOfItsSquares() {
+        board = new Board(new MinefieldGenerator(3), 200, 150, 6000);
+        board.makeMove(new Move(MoveType.OPEN, 100, 70));
+        Frontier frontier = Frontier.of(board);
+        assertTrue(frontier.width < 20 && frontier.height < 20);
+
+        Solution solution = bot.solve(frontier);
+        assertTrue(solution.count > 0);
+        for (Square square : solution.squares) {
+            assertSame(board.getSquareAt(square.getX(), square.getY()), square);
+            assertTrue(square.getX() >= frontier.originX && square.getX() < frontier.originX + frontier.width);
+            assertTrue(square.getY() >= frontier.originY && square.getY() < frontier.originY + frontier.height);
+        }
+        assertEquals(0, Frontier.of(new Board(new MinefieldGenerator(3), 200, 150, 6000)).width);
+    }
+
+    @Test
+    public void componentsAreSolvedLikeTheWholeFrontier() {
+        Frontier frontier = Frontier.of(board);
+        Frontier[] components = frontier.components();
+        assertEquals(2, components.length);
+        Solution[] parts = new Solution[components.length];
+        int numbers = 0;
+        for (int i = 0; i < components.length; i++) {
+            parts[i] = bot.solve(components[i]);
+            numbers += components[i].numberIds.length;
+        }
+        assertEquals(frontier.numberIds.length, numbers);
+        assertSameSolution(bot.solve(frontier), Solution.combine(parts));
+    }
+}
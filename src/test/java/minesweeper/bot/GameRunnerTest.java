@@ -0,0 +1,100 @@
+package minesweeper.bot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.GameStats;
+import minesweeper.model.Highlight;
+import minesweeper.model.Move;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GameRunnerTest {
+
+    /**
+     * Bot that highlights a square every millisecond and never ends the game
+     */
+    private static class EndlessBot implements Bot {
+        final AtomicInteger moves = new AtomicInteger();
+
+        @Override
+        public Move makeMove(Board board) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            moves.incrementAndGet();
+            return new Move(0, 0, Highlight.GREEN);
+        }
+
+        @Override
+        public ArrayList<Move> getPossibleMoves(Board board) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void setGameStats(GameStats gameStats) {
+        }
+    }
+
+    private BotExecutor game(long seed) {
+        return new BotExecutor(new LinkedBlockingQueue<>(), new MyBot(),
+                new Board(new MinefieldGenerator(seed), 9, 9, 10));
+    }
+
+    private void playAll(GameRunner runner, int games) throws Exception {
+        List<Future<BotExecutor>> futures = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            futures.add(runner.submit(game(i)));
+        }
+        for (Future<BotExecutor> future : futures) {
+            BotExecutor finished = future.get(60, TimeUnit.SECONDS);
+            assertTrue(finished.getMoveTimer().getWallTimes().getCount() > 0);
+        }
+    }
+
+    @Test
+    public void defaultRunnerCompletesEveryGame() throws Exception {
+        try (GameRunner runner = GameRunner.virtualThreads()) {
+            playAll(runner, 200);
+        }
+    }
+
+    @Test
+    public void platformRunnerCompletesEveryGame() throws Exception {
+        try (GameRunner runner = GameRunner.platformThreads(2)) {
+            assertFalse(runner.usesVirtualThreads());
+            playAll(runner, 20);
+        }
+    }
+
+    @Test
+    public void cancelledGameStopsMakingMoves() throws Exception {
+        EndlessBot bot = new EndlessBot();
+        try (GameRunner runner = GameRunner.virtualThreads()) {
+            Future<BotExecutor> future = runner.submit(new BotExecutor(new LinkedBlockingQueue<>(), bot,
+                    new Board(new MinefieldGenerator(1), 9, 9, 10)));
+            while (bot.moves.get() < 5) {
+                Thread.sleep(1);
+            }
+            assertTrue(future.cancel(true));
+            try {
+                future.get();
+                fail("A cancelled game should not complete");
+            } catch (CancellationException e) {
+                // expected
+            }
+            Thread.sleep(50);
+            int movesAfterCancel = bot.moves.get();
+            Thread.sleep(50);
+            assertEquals(movesAfterCancel, bot.moves.get());
+        }
+    }
+}
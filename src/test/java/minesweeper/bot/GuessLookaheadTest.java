@@ -0,0 +1,195 @@
+package minesweeper.bot;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.BoardOverlay;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import minesweeper.model.SolverStats;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+import minesweeper.structures.SquareMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GuessLookaheadTest {
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        this.pool = new ForkJoinPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    private ArrayList<Move> playGame(MyBot bot, long seed) {
+        return playGame(bot, new Board(new MinefieldGenerator(seed), 16, 16, 40));
+    }
+
+    private ArrayList<Move> playGame(MyBot bot, Board game) {
+        ArrayList<Move> moves = new ArrayList<>();
+        while (!game.gameLost && !game.gameWon) {
+            Move move = bot.makeMove(game);
+            moves.add(move);
+            game.makeMove(move);
+        }
+        if (game.gameLost) {
+            assertTrue(bot.wasGuess);
+        }
+        return moves;
+    }
+
+    @Test
+    public void lookaheadBotFinishesGames() {
+        for (long seed = 1; seed <= 5; seed++) {
+            MyBot bot = new MyBot(new GuessLookahead(this.pool, 2, 4, 50));
+            assertFalse(playGame(bot, seed).isEmpty());
+        }
+    }
+
+    @Test
+    public void gamesShareTheirSolvedPositions() {
+        TranspositionTable table = new TranspositionTable(1 << 20);
+        for (long seed = 1; seed <= 20; seed++) {
+            playGame(new MyBot(new GuessLookahead(this.pool, 2, 4, 1000, table)), seed);
+        }
+        assertTrue(table.getCrossGameHits() > 0);
+        assertTrue(table.getCrossGameHits() <= table.getHits());
+    }
+
+    @Test
+    public void withoutTimeTheLeastLikelyMineIsGuessed() {
+        // Expert boards have many ties between the least likely mines
+        for (long seed = 1; seed <= 100; seed++) {
+            ArrayList<Move> plain = playGame(new MyBot(), new Board(new MinefieldGenerator(seed), 30, 16, 99));
+            ArrayList<Move> lookahead = playGame(new MyBot(new GuessLookahead(this.pool, 3, 6, 0)),
+                    new Board(new MinefieldGenerator(seed), 30, 16, 99));
+            assertEquals(plain.size(), lookahead.size());
+            for (int i = 0; i < plain.size(); i++) {
+                assertEquals(plain.get(i).x, lookahead.get(i).x);
+                assertEquals(plain.get(i).y, lookahead.get(i).y);
+            }
+        }
+    }
+
+    @Test
+    public void chosenGuessIsAnUnflaggedPossiblySafeSquare() {
+        MyBot bot = new MyBot();
+        Board game = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        game.makeMove(new Move(MoveType.OPEN, 8, 8));
+        SquareMap<Integer> probabilities = bot.getProbabilities(game);
+        GuessLookahead lookahead = new GuessLookahead(this.pool, 2, 3, 1000);
+
+        MyList<Square> squares = probabilities.keySet();
+        Square leastLikely = squares.get(0);
+        for (int i = 1; i < squares.size(); i++) {
+            if (probabilities.get(squares.get(i)) < probabilities.get(leastLikely)) {
+                leastLikely = squares.get(i);
+            }
+        }
+
+        Square chosen = lookahead.chooseGuess(bot, game.snapshot().toBoard(), probabilities, null, 100, leastLikely);
+        assertNotNull(chosen);
+        assertTrue(probabilities.get(chosen) < 100);
+        assertFalse(chosen.isOpened() || chosen.isFlagged());
+    }
+
+    @Test
+    public void cpuTimeOfThePoolIsAddedToTheStats() {
+        MyBot bot = new MyBot();
+        Board game = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        game.makeMove(new Move(MoveType.OPEN, 8, 8));
+        SquareMap<Integer> probabilities = bot.getProbabilities(game);
+        Square first = probabilities.keySet().get(0);
+        GuessLookahead lookahead = new GuessLookahead(this.pool, 3, 6, 1000);
+
+        SolverStats stats = new SolverStats();
+        lookahead.chooseGuess(bot, game, probabilities, null, 100, first, stats);
+        assertTrue(stats.lookaheadCpuNanos > 0);
+        long measured = stats.lookaheadCpuNanos;
+        lookahead.chooseGuess(bot, game, probabilities, null, 100, first, stats);
+        assertTrue(stats.lookaheadCpuNanos > measured);
+    }
+
+    @Test
+    public void flaggedMineMayBeTheBotsOwnGuess() {
+        // With nothing but certain mines left, the least likely mine may be a flagged one
+        Board game = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        game.makeMove(new Move(MoveType.OPEN, 8, 8));
+        Square flagged = game.getSquareAt(0, 0);
+        Square mystery = game.getSquareAt(15, 15);
+        game.makeMove(new Move(MoveType.FLAG, 0, 0));
+        SquareMap<Integer> probabilities = new SquareMap<>(16, 16);
+        probabilities.put(flagged, 100);
+        GuessLookahead lookahead = new GuessLookahead(this.pool, 2, 3, 1000);
+
+        assertSame(flagged, lookahead.chooseGuess(new MyBot(), game, probabilities, mystery, 100, flagged));
+    }
+
+    @Test
+    public void numbersAreWeightedByTheDensityOfUnconstrainedSquares() {
+        // One neighbour of the guess is a mine in one of two solutions, two others have no constraint.
+        // Counting solutions would give the numbers 1/8, 3/8, 3/8 and 1/8.
+        double[] chances = GuessLookahead.numberChances(new long[] {1, 3, 3, 1}, 2, 0.2);
+        double[] binomial = {0.64, 0.32, 0.04};
+        assertEquals(0.5 * binomial[0], chances[0], 1e-9);
+        assertEquals(0.5 * binomial[1] + 0.5 * binomial[0], chances[1], 1e-9);
+        assertEquals(0.5 * binomial[2] + 0.5 * binomial[1], chances[2], 1e-9);
+        assertEquals(0.5 * binomial[2], chances[3], 1e-9);
+
+        // Without unconstrained neighbours the counts are already comparable
+        assertArrayEquals(new double[] {0.25, 0.75}, GuessLookahead.numberChances(new long[] {1, 3}, 0, 0.2), 1e-9);
+        assertNull(GuessLookahead.numberChances(new long[] {0, 0}, 1, 0.2));
+    }
+
+    @Test
+    public void chancesOfTheNumbersOfAGuessOnABoard() {
+        // A 1 in the corner of a 4x2 board, with a mine next to it and another in the far corner:
+        //   1 . c .
+        //   . . . *
+        // c has the 1's neighbours (1, 0) and (1, 1) around it, which have 0 mines in 1 of the 3
+        // solutions and 1 mine in the other 2, and 3 squares with no constraint
+        Board board = new Board(new MinefieldGenerator(1), 4, 2, 2);
+        board.firstMove = false;
+        board.getSquareAt(1, 0).setMine();
+        board.incrementAdjacentSquares(1, 0);
+        board.getSquareAt(3, 1).setMine();
+        board.incrementAdjacentSquares(3, 1);
+        board.makeMove(new Move(MoveType.OPEN, 0, 0));
+
+        MyBot bot = new MyBot();
+        long[] solutions = new long[6];
+        for (int number = 0; number < solutions.length; number++) {
+            BoardOverlay overlay = new BoardOverlay(board);
+            overlay.open(2, 0, number);
+            solutions[number] = bot.solve(overlay).count;
+        }
+        assertArrayEquals(new long[] {1, 5, 9, 7, 2, 0}, solutions);
+
+        // 2 mines on the 7 unknown squares
+        double density = 2.0 / 7;
+        double[] chances = GuessLookahead.numberChances(solutions, 3, density);
+        for (int number = 0; number < solutions.length; number++) {
+            double expected = (binomial(3, number, density) + 2 * binomial(3, number - 1, density)) / 3;
+            assertEquals(expected, chances[number], 1e-9);
+        }
+    }
+
+    private static double binomial(int squares, int mines, double density) {
+        if (mines < 0 || mines > squares) {
+            return 0;
+        }
+        double ways = 1;
+        for (int k = 1; k <= mines; k++) {
+            ways = ways * (squares - k + 1) / k;
+        }
+        return ways * Math.pow(density, mines) * Math.pow(1 - density, squares - mines);
+    }
+}
@@ -1,13 +1,27 @@
 
 package minesweeper.bot;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import minesweeper.TestApp;
 import minesweeper.generator.MinefieldGenerator;
 import minesweeper.model.Board;
+import minesweeper.model.BoardOverlay;
+import minesweeper.model.Highlight;
 import minesweeper.model.Move;
 import minesweeper.model.MoveType;
+import minesweeper.model.Square;
+import minesweeper.structures.MyList;
+import minesweeper.structures.SquareMap;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
@@ -79,6 +93,82 @@ public class MyBotTest {
         }
     }
 
+    private Set<String> highlights(ArrayList<Move> moves) {
+        Set<String> highlights = new HashSet<>();
+        for (Move move : moves) {
+            highlights.add(move.x + "," + move.y + "," + move.highlight);
+        }
+        return highlights;
+    }
+
+    @Test
+    public void getPossibleMovesReusesResultForUnchangedBoard() {
+        MyBot helper = new MyBot();
+        this.board.makeMove(new Move(MoveType.OPEN, 2, 2));
+        ArrayList<Move> first = helper.getPossibleMoves(board);
+        SquareMap<Integer> probabilities = helper.getHintProbabilities();
+        assertFalse(first.isEmpty());
+
+        // A snapshot of an unchanged board, and a highlight, are the same board state
+        this.board.makeMove(new Move(0, 0, Highlight.GREEN));
+        ArrayList<Move> second = helper.getPossibleMoves(board.snapshot().toBoard());
+        assertSame(probabilities, helper.getHintProbabilities());
+        assertEquals(highlights(first), highlights(second));
+    }
+
+    @Test
+    public void getPossibleMovesFollowingAGameMatchesFreshBot() {
+        MyBot helper = new MyBot();
+        Board game = new Board(new MinefieldGenerator(42), 16, 16, 40);
+        while (!game.gameLost && !game.gameWon) {
+            assertEquals(highlights(new MyBot().getPossibleMoves(game)),
+                    highlights(helper.getPossibleMoves(game.snapshot().toBoard())));
+            game.makeMove(this.bot.makeMove(game));
+        }
+    }
+
+    private Map<String, Integer> probabilityMap(SquareMap<Integer> probabilities) {
+        Map<String, Integer> map = new HashMap<>();
+        MyList<Square> squares = probabilities.keySet();
+        for (int i = 0; i < squares.size(); i++) {
+            map.put(squares.get(i).locationString(), probabilities.get(squares.get(i)));
+        }
+        return map;
+    }
+
+    @Test
+    public void getProbabilitiesOfOverlayMatchesTheRealReveal() {
+        MyBot bot = new MyBot();
+        Board game = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        game.makeMove(new Move(MoveType.OPEN, 8, 8));
+        BoardOverlay overlay = new BoardOverlay(game.snapshot().toBoard());
+        // A square that is certainly safe and has a number, so opening it opens nothing else
+        SquareMap<Integer> probabilities = bot.getProbabilities(game);
+        MyList<Square> frontier = probabilities.keySet();
+        ArrayList<Square> candidates = new ArrayList<>();
+        for (int i = 0; i < frontier.size(); i++) {
+            if (probabilities.get(frontier.get(i)) == 0) {
+                candidates.add(frontier.get(i));
+            }
+        }
+        Square revealed = null;
+        for (Square candidate : candidates) {
+            Board trial = new Board(new MinefieldGenerator(5), 16, 16, 40);
+            trial.makeMove(new Move(MoveType.OPEN, 8, 8));
+            trial.makeMove(new Move(MoveType.OPEN, candidate.getX(), candidate.getY()));
+            if (trial.getSquareAt(candidate.getX(), candidate.getY()).surroundingMines() > 0) {
+                game = trial;
+                revealed = candidate;
+                break;
+            }
+        }
+        assertNotNull(revealed);
+
+        int number = game.getSquareAt(revealed.getX(), revealed.getY()).surroundingMines();
+        overlay.open(revealed.getX(), revealed.getY(), number);
+        assertEquals(probabilityMap(bot.getProbabilities(game)), probabilityMap(bot.getProbabilities(overlay)));
+    }
+
     @Test
     public void allMediumMapLowMineDensityLossesAreGuesses() {
         for (int game = 0; game < 500; game++) {
@@ -127,4 +217,48 @@ public class MyBotTest {
 //            }
 //        }
 //    }
+
+    @Test
+    public void flightRecorderEventsAreRecordedWhenEnabled() throws Exception {
+        Set<String> recorded = recordGame(true);
+        assertTrue(recorded.contains("minesweeper.Generate"));
+        assertTrue(recorded.contains("minesweeper.FloodFill"));
+        assertTrue(recorded.contains("minesweeper.Solve"));
+        assertTrue(recorded.contains("minesweeper.BotPhase"));
+    }
+
+    @Test
+    public void flightRecorderEventsAreDisabledByDefault() throws Exception {
+        for (String name : recordGame(false)) {
+            assertFalse(name.startsWith("minesweeper."));
+        }
+    }
+
+    private Set<String> recordGame(boolean enableEvents) throws Exception {
+        Path file = Files.createTempFile("minesweeper", ".jfr");
+        try (Recording recording = new Recording()) {
+            if (enableEvents) {
+                for (String name : new String[] {"minesweeper.Generate", "minesweeper.FloodFill",
+                    "minesweeper.Solve", "minesweeper.BotPhase"}) {
+                    recording.enable(name).withoutThreshold();
+                }
+            }
+            recording.start();
+            Board game = new Board(new MinefieldGenerator(666), 16, 16, 40);
+            while (!game.gameLost && !game.gameWon) {
+                game.makeMove(this.bot.makeMove(game));
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        Set<String> recorded = new HashSet<>();
+        try {
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                recorded.add(event.getEventType().getName());
+            }
+        } finally {
+            Files.delete(file);
+        }
+        return recorded;
+    }
 }
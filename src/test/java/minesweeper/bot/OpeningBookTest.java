@@ -0,0 +1,170 @@
+package minesweeper.bot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import minesweeper.model.Square;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class OpeningBookTest {
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("opening", ".book");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void squaresArePooledBySymmetry() {
+        assertArrayEquals(new int[] {1, 2}, OpeningBook.canonical(30, 16, 28, 13));
+        assertArrayEquals(new int[] {14, 7}, OpeningBook.canonical(30, 16, 15, 8));
+        // Only a square board can be reflected over its diagonal
+        assertArrayEquals(new int[] {3, 1}, OpeningBook.canonical(30, 16, 3, 1));
+        assertArrayEquals(new int[] {1, 3}, OpeningBook.canonical(9, 9, 3, 1));
+        assertArrayEquals(new int[] {1, 3}, OpeningBook.canonical(9, 9, 7, 5));
+
+        assertEquals(15 * 8, OpeningBook.Configuration.empty(30, 16, 99).xs.length);
+        // The classes of a 9x9 board are the upper triangle of a 5x5 quarter
+        assertEquals(15, OpeningBook.Configuration.empty(9, 9, 10).xs.length);
+    }
+
+    @Test
+    public void winRatesAreBoundedByTheirIntervals() {
+        assertEquals(0.4038, OpeningBook.lowerBound(50, 100), 1e-4);
+        assertEquals(0.5962, OpeningBook.upperBound(50, 100), 1e-4);
+        // Without games nothing is known
+        assertEquals(0, OpeningBook.lowerBound(0, 0), 1e-9);
+        assertEquals(1, OpeningBook.upperBound(0, 0), 1e-9);
+    }
+
+    @Test
+    public void firstMoveMustWinClearlyMoreOften() throws IOException {
+        OpeningBook.Configuration configuration = OpeningBook.Configuration.empty(9, 9, 10);
+        int bot = configuration.classOf(2, 2);
+        int corner = configuration.classOf(0, 0);
+        int edge = configuration.classOf(0, 3);
+        int centre = configuration.classOf(4, 4);
+        configuration.firstGames[bot] = 2000;
+        configuration.firstWins[bot] = 1400;
+        // Won more often, but not by more than chance would
+        configuration.firstGames[corner] = 2000;
+        configuration.firstWins[corner] = 1440;
+        configuration.firstGames[edge] = 2000;
+        configuration.firstWins[edge] = 1500;
+        // Won every game, but too few of them to be trusted
+        configuration.firstGames[centre] = OpeningBook.MIN_GAMES - 1;
+        configuration.firstWins[centre] = OpeningBook.MIN_GAMES - 1;
+        OpeningBook.write(file, Arrays.asList(configuration));
+
+        OpeningBook book = new OpeningBook(file);
+        Square first = book.getFirstMove(9, 9, 10, 2, 2);
+        assertEquals(0, first.getX());
+        assertEquals(3, first.getY());
+        assertNull(book.getFirstMove(9, 9, 10, 3, 0));
+        assertNull(book.getFirstMove(9, 9, 11, 2, 2));
+    }
+
+    @Test
+    public void guessMustWinClearlyMoreOften() throws IOException {
+        OpeningBook.Configuration configuration = OpeningBook.Configuration.empty(9, 9, 10);
+        int centre = configuration.classOf(4, 4);
+        int corner = configuration.classOf(0, 0);
+        configuration.guessGames[centre] = OpeningBook.MIN_GAMES;
+        configuration.guessWins[centre] = OpeningBook.MIN_GAMES * 4 / 10;
+        configuration.guessGames[corner] = OpeningBook.MIN_GAMES;
+        configuration.guessWins[corner] = OpeningBook.MIN_GAMES / 2;
+        OpeningBook.write(file, Arrays.asList(configuration));
+
+        OpeningBook book = new OpeningBook(file);
+        Square[] squares = {new Square(4, 4), new Square(1, 4), new Square(8, 8)};
+        assertSame(squares[2], book.getGuess(9, 9, 10, squares));
+        // Squares of classes without games are never preferred to the first one
+        Square[] unknown = {new Square(4, 4), new Square(1, 4)};
+        assertSame(unknown[0], book.getGuess(9, 9, 10, unknown));
+        assertSame(squares[0], book.getGuess(9, 9, 11, squares));
+    }
+
+    @Test
+    public void fileIsNotReadBeforeTheFirstLookup() {
+        OpeningBook book = new OpeningBook(file.resolveSibling("missing.book"));
+        try {
+            book.getFirstMove(9, 9, 10, 2, 2);
+            fail("A missing file can not be looked up");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Files.write(file, new byte[16]);
+        new OpeningBook(file).getFirstMove(9, 9, 10, 2, 2);
+    }
+
+    @Test
+    public void botOpensTheFirstMoveOfTheBook() throws IOException {
+        OpeningBook.Configuration configuration = OpeningBook.Configuration.empty(9, 9, 10);
+        int near = configuration.classOf(2, 2);
+        int corner = configuration.classOf(0, 0);
+        configuration.firstGames[near] = OpeningBook.MIN_GAMES;
+        configuration.firstWins[near] = OpeningBook.MIN_GAMES / 2;
+        configuration.firstGames[corner] = OpeningBook.MIN_GAMES;
+        configuration.firstWins[corner] = OpeningBook.MIN_GAMES * 3 / 4;
+        OpeningBook.write(file, Arrays.asList(configuration));
+
+        MyBot bot = new MyBot(null, null, new OpeningBook(file));
+        Board board = new Board(new MinefieldGenerator(5), 9, 9, 10);
+        Move move = bot.makeMove(board);
+        assertEquals(MoveType.OPEN, move.type);
+        assertEquals(0, move.x);
+        assertEquals(0, move.y);
+
+        // Boards the book does not know are opened as before
+        Move unknown = bot.makeMove(new Board(new MinefieldGenerator(5), 9, 9, 12));
+        assertEquals(2, unknown.x);
+        assertEquals(2, unknown.y);
+    }
+
+    @Test
+    public void generatedBookIsPlayedToTheEnd() throws IOException {
+        OpeningBookGenerator generator = new OpeningBookGenerator();
+        OpeningBook.Configuration configuration = generator.playGames(9, 9, 10, 60, 2);
+        int games = 0;
+        int guesses = 0;
+        for (int i = 0; i < configuration.xs.length; i++) {
+            games += configuration.firstGames[i];
+            guesses += configuration.guessGames[i];
+            assertTrue(configuration.firstWins[i] <= configuration.firstGames[i]);
+            assertTrue(configuration.guessWins[i] <= configuration.guessGames[i]);
+        }
+        assertEquals(60, games);
+        assertTrue(guesses > 0);
+        generator.write(file);
+
+        OpeningBook book = new OpeningBook(file);
+        for (long seed = 0; seed < 20; seed++) {
+            MyBot bot = new MyBot(null, null, book);
+            Board board = new Board(new MinefieldGenerator(seed), 9, 9, 10);
+            while (!board.gameLost && !board.gameWon) {
+                board.makeMove(bot.makeMove(board));
+            }
+            if (board.gameLost) {
+                assertTrue(bot.wasGuess);
+            }
+        }
+    }
+}
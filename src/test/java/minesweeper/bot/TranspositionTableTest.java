@@ -0,0 +1,150 @@
+package minesweeper.bot;
+
+import java.util.ArrayList;
+import minesweeper.generator.MinefieldGenerator;
+import minesweeper.model.Board;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import minesweeper.model.NeighbourTable;
+import minesweeper.model.Square;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+    private Board board;
+    private Frontier frontier;
+
+    @Before
+    public void setUp() {
+        board = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        board.makeMove(new Move(MoveType.OPEN, 8, 8));
+        board.makeMove(new Move(MoveType.FLAG, 0, 0));
+        frontier = Frontier.of(board);
+    }
+
+    /**
+     * A board where the square at x, y is opened, with the given mines around it
+     */
+    private Board opened(int width, int height, int x, int y, NeighbourTable table, int... mines) {
+        Board opened = table == null ? new Board(new MinefieldGenerator(1), width, height, mines.length / 2)
+                : new Board(new MinefieldGenerator(1), width, height, mines.length / 2, table);
+        opened.firstMove = false;
+        for (int i = 0; i < mines.length; i += 2) {
+            opened.getSquareAt(mines[i], mines[i + 1]).setMine();
+            opened.incrementAdjacentSquares(mines[i], mines[i + 1]);
+        }
+        opened.makeMove(new Move(MoveType.OPEN, x, y));
+        return opened;
+    }
+
+    @Test
+    public void sameFrontierHasTheSameHashAnywhere() {
+        Board small = opened(10, 10, 4, 4, null, 5, 5);
+        Board large = opened(30, 20, 20, 12, null, 20, 11, 0, 0);
+        // Flags and the squares away from the frontier make no difference
+        large.makeMove(new Move(MoveType.FLAG, 0, 0));
+        long hash = TranspositionTable.hash(Frontier.of(small));
+
+        assertEquals(hash, TranspositionTable.hash(Frontier.of(large)));
+        assertNotEquals(hash, TranspositionTable.hash(Frontier.of(opened(10, 10, 4, 4, null, 5, 5, 3, 3))));
+        assertNotEquals(hash, TranspositionTable.hash(Frontier.of(opened(10, 10, 0, 4, null, 1, 5))));
+        assertNotEquals(hash, TranspositionTable.hash(Frontier.of(board)));
+    }
+
+    @Test
+    public void solutionIsFoundForTheSameFrontierInAnotherGame() {
+        Board small = opened(10, 10, 4, 4, null, 5, 5, 6, 5);
+        Board large = opened(30, 20, 20, 12, null, 21, 13, 22, 13);
+        large.makeMove(new Move(MoveType.OPEN, 19, 11));
+        small.makeMove(new Move(MoveType.OPEN, 3, 3));
+        Frontier smallFrontier = Frontier.of(small);
+        Frontier largeFrontier = Frontier.of(large);
+        long hash = TranspositionTable.hash(smallFrontier);
+        assertEquals(hash, TranspositionTable.hash(largeFrontier));
+
+        TranspositionTable table = new TranspositionTable(1 << 20);
+        Solution solution = new MyBot().solve(smallFrontier);
+        table.put(hash, smallFrontier, solution, small.getId());
+        Solution cached = table.get(hash, largeFrontier, large.getId());
+        assertNotNull(cached);
+        assertEquals(solution.count, cached.count);
+        assertEquals(solution.squares.length, cached.squares.length);
+        for (int i = 0; i < cached.squares.length; i++) {
+            Square square = solution.squares[i];
+            assertSame(large.getSquareAt(square.getX() + 16, square.getY() + 8), cached.squares[i]);
+            assertEquals(solution.percentages[i], cached.percentages[i]);
+        }
+        assertNotNull(table.get(hash, smallFrontier, small.getId()));
+        assertNull(table.get(hash ^ 1, largeFrontier, large.getId()));
+        assertEquals(2, table.getHits());
+        assertEquals(1, table.getCrossGameHits());
+        assertEquals(3, table.getLookups());
+    }
+
+    @Test
+    public void boardsThatAreNotGridsAreHashedWithTheirTable() {
+        NeighbourTable grid = NeighbourTable.grid(10, 10);
+        NeighbourTable copy = new NeighbourTable(10, 10, grid.offsets, grid.neighbours);
+        Board onGrid = opened(10, 10, 4, 4, null, 5, 5);
+        Board onCopy = opened(10, 10, 4, 4, copy, 5, 5);
+        Frontier copyFrontier = Frontier.of(onCopy);
+        long hash = TranspositionTable.hash(copyFrontier);
+
+        assertNotEquals(TranspositionTable.hash(Frontier.of(onGrid)), hash);
+        assertEquals(hash, TranspositionTable.hash(Frontier.of(onCopy)));
+        TranspositionTable table = new TranspositionTable(1 << 20);
+        table.put(hash, copyFrontier, new MyBot().solve(copyFrontier), onCopy.getId());
+        Solution cached = table.get(hash, copyFrontier, onCopy.getId());
+        assertEquals(8, cached.squares.length);
+        for (Square square : cached.squares) {
+            assertSame(onCopy.getSquareAt(square.getX(), square.getY()), square);
+        }
+    }
+
+    @Test
+    public void entriesStayWithinTheBudget() {
+        long budget = 16 * 1024;
+        TranspositionTable table = new TranspositionTable(budget);
+        Solution solution = new MyBot().solve(frontier);
+        for (long hash = 0; hash < 10000; hash++) {
+            table.put(hash * 0x9E3779B97F4A7C15L, frontier, solution, board.getId());
+            assertTrue(table.getBytes() <= budget);
+        }
+        assertTrue(table.getBytes() > 0);
+        // The latest entry is always kept
+        assertNotNull(table.get(9999 * 0x9E3779B97F4A7C15L, frontier, board.getId()));
+
+        table.clear();
+        assertEquals(0, table.getBytes());
+    }
+
+    @Test
+    public void threadsShareTheTable() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_BUDGET_BYTES);
+        Square square = board.getSquareAt(frontier.originX, frontier.originY + 1);
+        Solution solution = new Solution(new Square[] {square}, new int[] {25}, 4);
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long first = t * 100;
+            threads.add(new Thread(() -> {
+                for (long hash = first; hash < first + 100; hash++) {
+                    table.put(TranspositionTable.key(16, 16, (int) hash, 0), frontier, solution, board.getId());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (long hash = 0; hash < 400; hash++) {
+            Solution cached = table.get(TranspositionTable.key(16, 16, (int) hash, 0), frontier, board.getId());
+            assertNotNull(cached);
+            assertSame(square, cached.squares[0]);
+            assertEquals(25, cached.percentages[0]);
+        }
+        assertEquals(0, table.getCrossGameHits());
+    }
+}
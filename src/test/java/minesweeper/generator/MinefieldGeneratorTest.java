@@ -28,6 +28,22 @@ public class MinefieldGeneratorTest {
 // empty method
     }
 
+    /**
+     * Open every square of the board and count the mines among them
+     */
+    private int openAllAndCountMines() {
+        int mineCount = 0;
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                board.getSquareAt(x, y).open();
+                if (board.getSquareAt(x, y).isMine()) {
+                    mineCount++;
+                }
+            }
+        }
+        return mineCount;
+    }
+
     @Test
     public void safeAreaAroundFirst() {
         generator.generate(board, 100, 5, 5);
@@ -78,4 +94,102 @@ public class MinefieldGeneratorTest {
         }
 
     }
+
+    @Test
+    public void versionOnePlacementReproducesOldSeeds() {
+        // Mines generated with seed 666 before the placement was versioned
+        int[][] expectedMines = new int[][] {
+            {0, 1}, {0, 4}, {1, 0}, {1, 5}, {1, 6}, {2, 1},
+            {2, 7}, {4, 1}, {5, 3}, {5, 7}, {6, 1}, {6, 2}
+        };
+        board = new Board(new MinefieldGenerator(666, MinefieldGenerator.PLACEMENT_V1), 10, 8, 12);
+        board.makeMove(new Move(MoveType.OPEN, 5, 5));
+
+        assertEquals(expectedMines.length, openAllAndCountMines());
+        for (int[] mine : expectedMines) {
+            assertTrue(board.getSquareAt(mine[0], mine[1]).isMine());
+        }
+    }
+
+    @Test
+    public void latestPlacementIsUsedByDefault() {
+        assertEquals(MinefieldGenerator.LATEST_PLACEMENT, new MinefieldGenerator(666).getVersion());
+        assertEquals(MinefieldGenerator.LATEST_PLACEMENT, new MinefieldGenerator().getVersion());
+    }
+
+    @Test
+    public void placementPlacesExactlyTheGivenNumberOfMines() {
+        board = new Board(new MinefieldGenerator(42), 50, 40, 400);
+        board.makeMove(new Move(MoveType.OPEN, 0, 0));
+
+        assertEquals(400, openAllAndCountMines());
+    }
+
+    @Test
+    public void extraMinesAreIgnored() {
+        board = new Board(new MinefieldGenerator(42), 4, 4, 100);
+        board.makeMove(new Move(MoveType.OPEN, 0, 0));
+
+        assertEquals(16 - 4, openAllAndCountMines());
+    }
+
+    @Test
+    public void tiledGenerationPlacesExactMineCountWithCorrectNumbers() {
+        Minefield field = new MinefieldGenerator(7).generateTiled(50, 37, 400, 10, 10, 8);
+
+        int mineCount = 0;
+        for (int x = 0; x < 50; x++) {
+            for (int y = 0; y < 37; y++) {
+                if (field.isMine(x, y)) {
+                    mineCount++;
+                    continue;
+                }
+                int expected = 0;
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int nx = x + dx;
+                        int ny = y + dy;
+                        if (nx >= 0 && nx < 50 && ny >= 0 && ny < 37 && field.isMine(nx, ny)) {
+                            expected++;
+                        }
+                    }
+                }
+                assertEquals(expected, field.surroundingMines(x, y));
+            }
+        }
+        assertEquals(400, mineCount);
+        assertEquals(400, field.getMineCount());
+    }
+
+    @Test
+    public void tiledGenerationLeavesSafeArea() {
+        Minefield field = new MinefieldGenerator(7).generateTiled(12, 12, 1000, 0, 5, 4);
+
+        for (int x = 0; x <= 1; x++) {
+            for (int y = 4; y <= 6; y++) {
+                assertTrue(!field.isMine(x, y));
+            }
+        }
+        assertEquals(144 - 6, field.getMineCount());
+    }
+
+    @Test
+    public void tiledFieldsWithSameSeedAreEqual() {
+        Minefield field1 = new MinefieldGenerator(666).generateTiled(300, 200, 9000, 5, 5, 16);
+        Minefield field2 = new MinefieldGenerator(666).generateTiled(300, 200, 9000, 5, 5, 16);
+
+        for (int x = 0; x < 300; x++) {
+            for (int y = 0; y < 200; y++) {
+                assertEquals(field1.surroundingMines(x, y), field2.surroundingMines(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void tiledPlacementCanBeUsedOnBoard() {
+        board = new Board(new MinefieldGenerator(3, MinefieldGenerator.PLACEMENT_TILED), 30, 20, 100);
+        assertTrue(board.makeMove(new Move(MoveType.OPEN, 3, 3)));
+
+        assertEquals(100, openAllAndCountMines());
+    }
 }
@@ -0,0 +1,58 @@
+package minesweeper.model;
+
+import minesweeper.generator.MinefieldGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardOverlayTest {
+    private Board base;
+    private BoardOverlay overlay;
+
+    @Before
+    public void setUp() {
+        Board game = new Board(new MinefieldGenerator(5), 16, 16, 40);
+        game.makeMove(new Move(MoveType.OPEN, 8, 8));
+        base = game.snapshot().toBoard();
+        overlay = new BoardOverlay(base);
+    }
+
+    @Test
+    public void overlayReadsThroughToTheBase() {
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 16; y++) {
+                assertSame(base.getSquareAt(x, y), overlay.getSquareAt(x, y));
+            }
+        }
+        int open = 0;
+        for (Square square : overlay.getOpenSquares()) {
+            assertTrue(square.isOpened());
+            open++;
+        }
+        assertEquals(base.getOpenSquares().size(), open);
+        assertEquals(base.getUnflaggedMines(), overlay.getUnflaggedMines());
+    }
+
+    @Test
+    public void hypotheticalChangesLeaveTheBaseAlone() {
+        String before = base.toString();
+        long version = base.getVersion();
+        overlay.open(0, 0, 3);
+        overlay.flag(0, 1);
+
+        assertTrue(overlay.getSquareAt(0, 0).isOpened());
+        assertEquals(3, overlay.getSquareAt(0, 0).surroundingMines());
+        assertTrue(overlay.getSquareAt(0, 1).isFlagged());
+        assertEquals(base.getUnflaggedMines() - 1, overlay.getUnflaggedMines());
+        assertEquals(before, base.toString());
+        assertEquals(version, base.getVersion());
+
+        overlay.clear();
+        assertFalse(overlay.getSquareAt(0, 0).isOpened());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openSquareCanNotBeOpenedAgain() {
+        overlay.open(8, 8, 1);
+    }
+}
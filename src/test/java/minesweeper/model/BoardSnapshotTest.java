@@ -0,0 +1,113 @@
+package minesweeper.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+import minesweeper.generator.MinefieldGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BoardSnapshotTest {
+    private Board board;
+
+    @Before
+    public void setUp() {
+        board = new Board(new MinefieldGenerator(11), 30, 30, 99);
+        board.makeMove(new Move(MoveType.OPEN, 15, 15));
+    }
+
+    @Test
+    public void snapshotShowsOpenedAndFlaggedSquares() {
+        board.makeMove(new Move(MoveType.FLAG, 0, 0));
+        BoardSnapshot snapshot = board.snapshot();
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 30; y++) {
+                Square square = board.getSquareAt(x, y);
+                assertEquals(square.isOpened(), snapshot.isOpened(x, y));
+                assertEquals(square.isFlagged(), snapshot.isFlagged(x, y));
+                if (square.isOpened()) {
+                    assertEquals(square.surroundingMines(), snapshot.surroundingMines(x, y));
+                    assertFalse(snapshot.isMine(x, y));
+                }
+            }
+        }
+        assertEquals(board.getUnopenedSquaresCount(), snapshot.getUnopenedSquaresCount());
+        assertEquals(1, snapshot.getFlaggedSquaresCount());
+        assertEquals(board.getVersion(), snapshot.getVersion());
+    }
+
+    @Test
+    public void snapshotDoesNotChangeWithTheBoard() {
+        BoardSnapshot before = board.snapshot();
+        String shown = before.toBoard().toString();
+        int unopened = before.getUnopenedSquaresCount();
+
+        board.makeMove(new Move(MoveType.FLAG, 0, 0));
+        for (int x = 0; x < 30; x++) {
+            board.makeMove(new Move(MoveType.OPEN, x, 29));
+        }
+
+        assertFalse(before.isFlagged(0, 0));
+        assertEquals(unopened, before.getUnopenedSquaresCount());
+        assertEquals(shown, before.toBoard().toString());
+        assertTrue(board.snapshot().isFlagged(0, 0));
+    }
+
+    @Test
+    public void unchangedBoardReturnsTheSameSnapshot() {
+        BoardSnapshot first = board.snapshot();
+        board.makeMove(new Move(1, 1, Highlight.GREEN));
+        assertSame(first, board.snapshot());
+        board.makeMove(new Move(MoveType.FLAG, 1, 1));
+        assertNotSame(first, board.snapshot());
+    }
+
+    @Test
+    public void hiddenMinesAreNotInTheSnapshot() {
+        Board small = new Board(new MinefieldGenerator(1), 3, 1, 1);
+        Square mine = new Square(0, 0);
+        mine.setMine();
+        small.addSquare(mine, 0, 0);
+        small.firstMove = false;
+        Board copy = small.snapshot().toBoard();
+        copy.getSquareAt(0, 0).open();
+        assertFalse(copy.getSquareAt(0, 0).isMine());
+    }
+
+    @Test
+    public void snapshotsCanBeReadWhileTheBoardChanges() throws InterruptedException {
+        AtomicReference<BoardSnapshot> latest = new AtomicReference<>(board.snapshot());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                // Flags are only added, so a later snapshot never has fewer of them
+                int flagged = 0;
+                while (flagged < latest.get().getUnopenedSquaresCount()) {
+                    BoardSnapshot snapshot = latest.get();
+                    int counted = 0;
+                    for (int x = 0; x < 30; x++) {
+                        for (int y = 0; y < 30; y++) {
+                            counted += snapshot.isFlagged(x, y) ? 1 : 0;
+                        }
+                    }
+                    assertEquals(snapshot.getFlaggedSquaresCount(), counted);
+                    assertTrue(counted >= flagged);
+                    flagged = counted;
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int x = 0; x < 30; x++) {
+            for (int y = 0; y < 30; y++) {
+                if (!board.getSquareAt(x, y).isOpened()) {
+                    board.makeMove(new Move(MoveType.FLAG, x, y));
+                    latest.set(board.snapshot());
+                }
+            }
+        }
+        reader.join(10000);
+        assertFalse(reader.isAlive());
+        assertNull(failure.get());
+    }
+}
@@ -5,13 +5,14 @@ import org.junit.Test;
 import org.junit.After;
 import org.junit.Before;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 import minesweeper.generator.MinefieldGenerator;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.Iterator;
 
 public class BoardTest {
     private Board board;
@@ -327,22 +328,22 @@ public class BoardTest {
     }
 
     @Test
-    public void observedBoardSendsNeededCallbacks(){
+    public void journalRecordsOpenedSquares(){
         this.board = new Board(generator, 2, 2, 0);
         Square[] neededSquares = new Square[]{this.board.board[0][0], this.board.board[0][1], this.board.board[1][0]};
-        ArrayList<Square> gotSquares = new ArrayList<Square>();
-        Function<Square,Void> callback = new Function<Square,Void>() {
-            @Override
-            public Void apply(Square t) {
-                gotSquares.add(t);
-                return null;
-            }
-        };
-        board.setChangeObserver(callback);
+        ChangeJournal.Reader reader = board.getChangeJournal().newReader();
        
         Move move = new Move(MoveType.OPEN, 1, 1);
         board.makeMove(move);
+        int[] records = new int[16];
+        int count = reader.read(records);
+        ArrayList<Square> gotSquares = new ArrayList<Square>();
+        for (int i = 0; i < count; i++) {
+            assertEquals(ChangeJournal.OPENED, ChangeJournal.type(records[i]));
+            gotSquares.add(board.getSquareById(ChangeJournal.squareId(records[i])));
+        }
         assertTrue(gotSquares.containsAll(Arrays.asList(neededSquares)));
+        assertEquals(0, reader.read(records));
     }
 
     @Test
@@ -357,12 +358,63 @@ public class BoardTest {
         assertTrue(board.getUnflaggedMines() == 3);
     }
 
+    @Test
+    public void squareCountersFollowOpensAndFlags() {
+        assertEquals(100, board.getUnopenedSquaresCount());
+        assertEquals(0, board.getFlaggedSquaresCount());
+
+        board.board[0][2].setMine();
+        board.incrementAdjacentSquares(0, 2);
+        board.makeMove(new Move(MoveType.FLAG, 0, 2));
+        board.makeMove(new Move(MoveType.OPEN, 0, 0));
+
+        // Everything except the flagged mine was opened by the flood fill
+        assertEquals(1, board.getFlaggedSquaresCount());
+        assertEquals(1, board.getUnopenedSquaresCount());
+
+        board.makeMove(new Move(MoveType.FLAG, 0, 0));
+        assertEquals(1, board.getFlaggedSquaresCount());
+    }
+
+    @Test
+    public void gameIsWonWhenOnlyMinesRemainUnopened() {
+        board = new Board(generator, 3, 1, 1);
+        board.firstMove = false;
+        board.board[1][0].setMine();
+        board.incrementAdjacentSquares(1, 0);
+
+        board.makeMove(new Move(MoveType.OPEN, 0, 0));
+        assertEquals(false, board.gameWon);
+
+        board.makeMove(new Move(MoveType.OPEN, 2, 0));
+        assertTrue(board.gameWon);
+    }
+
     @Test
     public void survivesXYNotWithinBoardInBFS() {
         board.runBFS(10,10);
         assert (true);
     }
  
+    @Test
+    public void consecutiveFloodFillsOpenSeparateAreas() {
+        // A wall of mines splits the board into two areas
+        for (int y = 0; y < 10; y++) {
+            board.board[4][y].setMine();
+            board.incrementAdjacentSquares(4, y);
+        }
+
+        board.makeMove(new Move(MoveType.OPEN, 0, 0));
+        assertEquals(false, board.board[9][9].isOpened());
+
+        board.makeMove(new Move(MoveType.OPEN, 9, 9));
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                assertEquals(x != 4, board.board[x][y].isOpened());
+            }
+        }
+    }
+
     @Test
     public void toStringWorksToo() {
         String basicOutput = "Field \n" +
@@ -381,4 +433,89 @@ public class BoardTest {
         assertEquals(basicOutput, board.toString());
     }
     
+    @Test
+    public void boardFromSnapshotCopiesStateAndIsIndependent() {
+        Board played = new Board(new MinefieldGenerator(7), 10, 10, 10);
+        played.makeMove(new Move(MoveType.OPEN, 5, 5));
+        played.makeMove(new Move(MoveType.FLAG, 0, 0));
+
+        Board snapshot = played.snapshot().toBoard();
+        assertEquals(played.toString(), snapshot.toString());
+        assertEquals(played.getUnopenedSquaresCount(), snapshot.getUnopenedSquaresCount());
+        assertEquals(played.getFlaggedSquaresCount(), snapshot.getFlaggedSquaresCount());
+        assertEquals(played.getOpenSquares().size(), snapshot.getOpenSquares().size());
+        assertTrue(snapshot.getSquareAt(0, 0).isFlagged());
+
+        snapshot.makeMove(new Move(MoveType.FLAG, 0, 0));
+        assertTrue(played.getSquareAt(0, 0).isFlagged());
+        assertEquals(1, played.getFlaggedSquaresCount());
+        assertEquals(0, snapshot.getFlaggedSquaresCount());
+    }
+
+    @Test
+    public void boardFromSnapshotKeepsTheOrderSquaresWereOpenedIn() {
+        Board played = new Board(new MinefieldGenerator(7), 10, 10, 10);
+        played.makeMove(new Move(MoveType.OPEN, 9, 9));
+        // Safe squares with this seed, outside the area opened first and before it in id order
+        played.makeMove(new Move(MoveType.OPEN, 9, 5));
+        BoardSnapshot snapshot = played.snapshot();
+        // Opened after the snapshot was taken, so not part of it
+        played.makeMove(new Move(MoveType.OPEN, 9, 4));
+
+        Board copy = snapshot.toBoard();
+        Iterator<Square> copied = copy.getOpenSquares().iterator();
+        for (Square square : played.getOpenSquares()) {
+            if (!copied.hasNext()) {
+                break;
+            }
+            assertEquals(square.locationString(), copied.next().locationString());
+        }
+        assertFalse(copied.hasNext());
+        assertTrue(copy.getOpenSquares().size() < played.getOpenSquares().size());
+    }
+
+    @Test
+    public void openedSquaresAreNumberedInTheOrderTheyWereOpened() {
+        Board played = new Board(new MinefieldGenerator(7), 10, 10, 10);
+        played.makeMove(new Move(MoveType.OPEN, 9, 9));
+        int firstCount = played.getOpenCount();
+        played.makeMove(new Move(MoveType.OPEN, 9, 5));
+        Board copy = played.snapshot().toBoard();
+
+        assertEquals(played.getOpenSquares().size(), played.getOpenCount());
+        assertEquals(played.getSquareId(9, 9), played.getOpenedSquareId(0));
+        assertEquals(played.getSquareId(9, 5), played.getOpenedSquareId(firstCount));
+        assertEquals(played.getOpenCount(), copy.getOpenCount());
+        for (int i = 0; i < copy.getOpenCount(); i++) {
+            assertEquals(played.getOpenedSquareId(i), copy.getOpenedSquareId(i));
+            assertTrue(copy.getSquareById(copy.getOpenedSquareId(i)).isOpened());
+        }
+    }
+
+    @Test
+    public void versionCountsModificationsButNotHighlights() {
+        long version = board.getVersion();
+        board.makeMove(new Move(MoveType.FLAG, 1, 1));
+        assertTrue(board.getVersion() > version);
+        version = board.getVersion();
+        board.makeMove(new Move(1, 1, Highlight.GREEN));
+        assertEquals(version, board.getVersion());
+        board.makeMove(new Move(MoveType.OPEN, 5, 5));
+        assertTrue(board.getVersion() > version);
+    }
+
+    @Test
+    public void boardFromSnapshotSharesIdUntilItIsModified() {
+        board.makeMove(new Move(MoveType.FLAG, 1, 1));
+        Board snapshot = board.snapshot().toBoard();
+        assertEquals(board.getId(), snapshot.getId());
+        assertEquals(board.getVersion(), snapshot.getVersion());
+
+        board.makeMove(new Move(MoveType.FLAG, 2, 2));
+        assertEquals(board.getId(), snapshot.getId());
+        snapshot.makeMove(new Move(MoveType.FLAG, 3, 3));
+        assertTrue(board.getId() != snapshot.getId());
+        assertTrue(board.getId() != new Board(generator, 10, 10, 3).getId());
+    }
+
 }
@@ -0,0 +1,89 @@
+package minesweeper.model;
+
+import minesweeper.generator.MinefieldGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ChangeJournalTest {
+    private Board board;
+    private ChangeJournal journal;
+
+    @Before
+    public void setUp() {
+        board = new Board(new MinefieldGenerator(3), 10, 10, 10);
+        journal = board.getChangeJournal();
+    }
+
+    @Test
+    public void flagsAreRecordedWithTheirType() {
+        ChangeJournal.Reader reader = journal.newReader();
+        board.makeMove(new Move(MoveType.FLAG, 3, 4));
+        board.makeMove(new Move(MoveType.FLAG, 3, 4));
+
+        int[] records = new int[4];
+        assertEquals(2, reader.read(records));
+        assertEquals(board.getSquareId(3, 4), ChangeJournal.squareId(records[0]));
+        assertEquals(ChangeJournal.FLAGGED, ChangeJournal.type(records[0]));
+        assertEquals(ChangeJournal.UNFLAGGED, ChangeJournal.type(records[1]));
+        assertFalse(reader.hasChanges());
+    }
+
+    @Test
+    public void readerSeesOnlyChangesMadeAfterItWasCreated() {
+        board.makeMove(new Move(MoveType.FLAG, 0, 0));
+        ChangeJournal.Reader reader = journal.newReader();
+        assertFalse(reader.hasChanges());
+        board.makeMove(new Move(MoveType.FLAG, 1, 0));
+        assertTrue(reader.hasChanges());
+        assertEquals(1, reader.read(new int[4]));
+    }
+
+    @Test
+    public void readsComeInBatchesOfTheTargetSize() {
+        ChangeJournal.Reader reader = journal.newReader();
+        for (int x = 0; x < 10; x++) {
+            board.makeMove(new Move(MoveType.FLAG, x, 0));
+        }
+        int[] records = new int[4];
+        assertEquals(4, reader.read(records));
+        assertEquals(4, reader.read(records));
+        assertEquals(2, reader.read(records));
+        assertEquals(board.getSquareId(9, 0), ChangeJournal.squareId(records[1]));
+        assertEquals(0, reader.read(records));
+    }
+
+    @Test
+    public void slowReaderKeepsItsRecordsWhileFastReaderMovesOn() {
+        ChangeJournal.Reader slow = journal.newReader();
+        ChangeJournal.Reader fast = journal.newReader();
+        int[] records = new int[1];
+        int changes = 0;
+        for (int round = 0; round < 500; round++) {
+            for (int x = 0; x < 10; x++) {
+                board.makeMove(new Move(MoveType.FLAG, x, round % 10));
+                changes++;
+                assertEquals(1, fast.read(records));
+                assertEquals(board.getSquareId(x, round % 10), ChangeJournal.squareId(records[0]));
+            }
+        }
+        int[] all = new int[changes];
+        assertEquals(changes, slow.read(all));
+        assertEquals(board.getSquareId(0, 0), ChangeJournal.squareId(all[0]));
+        assertEquals(board.getSquareId(9, 9), ChangeJournal.squareId(all[changes - 1]));
+        assertEquals(changes, journal.position());
+    }
+
+    @Test
+    public void closedReaderDoesNotHoldRecords() {
+        ChangeJournal.Reader closed = journal.newReader();
+        ChangeJournal.Reader open = journal.newReader();
+        closed.close();
+        int[] records = new int[1];
+        for (int i = 0; i < 1000; i++) {
+            board.makeMove(new Move(MoveType.FLAG, 0, 0));
+            assertEquals(1, open.read(records));
+        }
+        assertEquals(1000, journal.position());
+    }
+}
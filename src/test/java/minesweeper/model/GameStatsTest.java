@@ -4,6 +4,7 @@ package minesweeper.model;
 import org.junit.Test;
 import org.junit.After;
 import org.junit.Before;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class GameStatsTest {
@@ -66,4 +67,23 @@ public class GameStatsTest {
 
         assertTrue(stats.cumulativeEuclidianDistance > 0);
     }
+
+    @Test
+    public void updatingWithMovesAddsSolverStats() {
+        Move first = new Move(MoveType.OPEN, 5, 5);
+        first.solverStats = new SolverStats();
+        first.solverStats.searchNodes = 10;
+        first.solverStats.largestComponent = 4;
+        Move second = new Move(MoveType.OPEN, 6, 5);
+        second.solverStats = new SolverStats();
+        second.solverStats.searchNodes = 5;
+        second.solverStats.largestComponent = 2;
+
+        stats.update(first);
+        stats.update(second);
+        stats.update(new Move(MoveType.FLAG, 7, 5));
+
+        assertEquals(15, stats.solverStats.searchNodes);
+        assertEquals(4, stats.solverStats.largestComponent);
+    }
 }
@@ -0,0 +1,106 @@
+package minesweeper.model;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import minesweeper.generator.MinefieldGenerator;
+
+public class NeighbourTableTest {
+    private NeighbourTable table;
+
+    @Before
+    public void setUp() {
+        table = NeighbourTable.grid(4, 3);
+    }
+
+    @Test
+    public void cornersEdgesAndCentresHaveRightNeighbourCounts() {
+        assertEquals(3, table.count(0 * 3 + 0));
+        assertEquals(3, table.count(3 * 3 + 2));
+        assertEquals(5, table.count(0 * 3 + 1));
+        assertEquals(5, table.count(2 * 3 + 0));
+        assertEquals(8, table.count(1 * 3 + 1));
+    }
+
+    @Test
+    public void offsetsCoverAllNeighbours() {
+        assertEquals(0, table.offsets[0]);
+        assertEquals(table.neighbours.length, table.offsets[4 * 3]);
+    }
+
+    @Test
+    public void neighbourRelationIsSymmetric() {
+        for (int id = 0; id < 4 * 3; id++) {
+            for (int i = table.offsets[id]; i < table.offsets[id + 1]; i++) {
+                int other = table.neighbours[i];
+                assertTrue(other != id);
+                boolean found = false;
+                for (int j = table.offsets[other]; j < table.offsets[other + 1]; j++) {
+                    if (table.neighbours[j] == id) {
+                        found = true;
+                    }
+                }
+                assertTrue(found);
+            }
+        }
+    }
+
+    @Test
+    public void boardUsesSquareIdsOfTheTable() {
+        Board board = new Board(new MinefieldGenerator(), 4, 3, 1);
+        Square square = board.getSquareAt(2, 1);
+
+        assertEquals(square, board.getSquareById(board.getSquareId(2, 1)));
+        assertEquals(8, board.getNeighbourTable().count(board.getSquareId(2, 1)));
+    }
+
+    /**
+     * A board of one row where the first square touches every other one
+     */
+    private NeighbourTable star(int squares) {
+        int[] offsets = new int[squares + 1];
+        int[] neighbours = new int[2 * (squares - 1)];
+        int next = 0;
+        for (int id = 0; id < squares; id++) {
+            offsets[id] = next;
+            if (id == 0) {
+                for (int other = 1; other < squares; other++) {
+                    neighbours[next++] = other;
+                }
+            } else {
+                neighbours[next++] = 0;
+            }
+        }
+        offsets[squares] = next;
+        return new NeighbourTable(squares, 1, offsets, neighbours);
+    }
+
+    @Test
+    public void customTableIsUsedByTheBoard() {
+        NeighbourTable star = star(BoardSnapshot.MAX_NEIGHBOURS + 1);
+        Board board = new Board(new MinefieldGenerator(), BoardSnapshot.MAX_NEIGHBOURS + 1, 1, 1, star);
+
+        assertFalse(star.isGrid());
+        assertTrue(table.isGrid());
+        assertEquals(BoardSnapshot.MAX_NEIGHBOURS, board.getNeighbourTable().maxCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tableOfAnotherSizeIsRejected() {
+        new Board(new MinefieldGenerator(), 4, 4, 1, table);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void numbersMustFitTheStateByte() {
+        new Board(new MinefieldGenerator(), BoardSnapshot.MAX_NEIGHBOURS + 2, 1, 1,
+                star(BoardSnapshot.MAX_NEIGHBOURS + 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tiledPlacementNeedsAGrid() {
+        new Board(new MinefieldGenerator(1, MinefieldGenerator.PLACEMENT_TILED), 5, 1, 1, star(5));
+    }
+}
@@ -0,0 +1,70 @@
+package minesweeper.structures;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void emptyHistogramReturnsZero() {
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(5, histogram.getPercentile(0.5));
+        assertEquals(10, histogram.getPercentile(1.0));
+        assertEquals(55, histogram.getTotal());
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long median = histogram.getPercentile(0.5);
+        long p99 = histogram.getPercentile(0.99);
+        assertTrue(median >= 50000000L && median <= 50000000L * 1.125);
+        assertTrue(p99 >= 99000000L && p99 <= 99000000L * 1.125);
+        assertEquals(100000000L, histogram.getMax());
+    }
+
+    @Test
+    public void percentileNeverExceedsMax() {
+        histogram.record(1000001);
+        assertEquals(1000001, histogram.getPercentile(0.999));
+    }
+
+    @Test
+    public void tailIsNotHiddenByMerging() {
+        LatencyHistogram other = new LatencyHistogram();
+        for (int i = 0; i < 999; i++) {
+            histogram.record(100);
+        }
+        other.record(5000000000L);
+        histogram.merge(other);
+
+        assertEquals(1000, histogram.getCount());
+        assertTrue(histogram.getPercentile(0.5) <= 112);
+        assertEquals(5000000000L, histogram.getPercentile(1.0));
+        assertEquals(5000000000L, histogram.getMax());
+    }
+
+    @Test
+    public void hugeValuesCanBeRecorded() {
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(0.5));
+    }
+}
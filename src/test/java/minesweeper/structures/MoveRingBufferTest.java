@@ -0,0 +1,131 @@
+package minesweeper.structures;
+
+import java.util.ArrayList;
+import java.util.List;
+import minesweeper.model.Highlight;
+import minesweeper.model.Move;
+import minesweeper.model.MoveType;
+import minesweeper.structures.MoveRingBuffer.Backpressure;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MoveRingBufferTest {
+
+    private Move open(int x) {
+        return new Move(MoveType.OPEN, x, 0);
+    }
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new MoveRingBuffer(5, Backpressure.BLOCK).capacity());
+        assertEquals(8, new MoveRingBuffer(8, Backpressure.BLOCK).capacity());
+        assertEquals(1, new MoveRingBuffer(1, Backpressure.BLOCK).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new MoveRingBuffer(0, Backpressure.BLOCK);
+    }
+
+    @Test
+    public void movesComeOutInOrder() {
+        MoveRingBuffer buffer = new MoveRingBuffer(4, Backpressure.BLOCK);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(open(i)));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i, buffer.poll().x);
+            }
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void offerFailsWhenFull() {
+        MoveRingBuffer buffer = new MoveRingBuffer(2, Backpressure.BLOCK);
+        assertTrue(buffer.offer(open(0)));
+        assertTrue(buffer.offer(open(1)));
+        assertFalse(buffer.offer(open(2)));
+        assertEquals(2, buffer.size());
+    }
+
+    @Test
+    public void highlightsAreDroppedWhenFull() throws InterruptedException {
+        MoveRingBuffer buffer = new MoveRingBuffer(1, Backpressure.DROP_HIGHLIGHTS);
+        assertTrue(buffer.put(open(0)));
+        assertFalse(buffer.put(new Move(1, 1, Highlight.GREEN)));
+        assertEquals(0, buffer.poll().x);
+        assertTrue(buffer.put(new Move(1, 1, Highlight.GREEN)));
+    }
+
+    @Test
+    public void drainToTakesAtMostTheGivenNumberOfMoves() {
+        MoveRingBuffer buffer = new MoveRingBuffer(8, Backpressure.BLOCK);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer(open(i));
+        }
+        List<Move> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(2, buffer.drainTo(drained, 10));
+        assertEquals(0, buffer.drainTo(drained, 10));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, drained.get(i).x);
+        }
+    }
+
+    @Test
+    public void blockedProducerIsInterrupted() throws InterruptedException {
+        MoveRingBuffer buffer = new MoveRingBuffer(1, Backpressure.BLOCK);
+        buffer.offer(open(0));
+        boolean[] interrupted = new boolean[1];
+        Thread producer = new Thread(() -> {
+            try {
+                buffer.put(open(1));
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        });
+        producer.start();
+        producer.interrupt();
+        producer.join(5000);
+        assertTrue(interrupted[0]);
+    }
+
+    private void transferInOrder(Backpressure policy) throws InterruptedException {
+        int moves = 100000;
+        MoveRingBuffer buffer = new MoveRingBuffer(16, policy);
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < moves; i++) {
+                    buffer.put(open(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        List<Move> drained = new ArrayList<>();
+        int expected = 0;
+        while (expected < moves) {
+            drained.clear();
+            buffer.drainTo(drained, 5);
+            for (Move move : drained) {
+                assertEquals(expected++, move.x);
+            }
+        }
+        producer.join(5000);
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void blockingProducerDeliversEveryMoveInOrder() throws InterruptedException {
+        transferInOrder(Backpressure.BLOCK);
+    }
+
+    @Test
+    public void spinningProducerDeliversEveryMoveInOrder() throws InterruptedException {
+        transferInOrder(Backpressure.SPIN_THEN_PARK);
+    }
+}
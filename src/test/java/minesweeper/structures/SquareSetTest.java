@@ -115,6 +115,21 @@ public class SquareSetTest {
         assertEquals(squares.length - 1, set.size());
     }
     
+    @Test
+    public void removingKeepsTheOrderOfTheOtherSquares() {
+        for (int i = 0; i < squares.length; i++) {
+            set.add(squares[i]);
+        }
+        assertTrue(set.remove(squares[5]));
+        Square[] left = set.getSquares();
+        assertEquals(squares.length - 1, left.length);
+        for (int i = 0; i < left.length; i++) {
+            assertSame(squares[i < 5 ? i : i + 1], left[i]);
+        }
+        set.add(squares[5]);
+        assertSame(squares[5], set.pop());
+    }
+    
     @Test
     public void containsReturnsFalseForRemovedSquare() {
         set.add(squares[0]);
@@ -178,4 +193,42 @@ public class SquareSetTest {
         other.pop();
         assertFalse(set.equals(other));
     }
+    
+    @Test
+    public void setWithoutGridGrowsPastItsCapacity() {
+        SquareSet sparse = new SquareSet(width, height, 2);
+        for (int i = 0; i < squares.length; i++) {
+            sparse.add(squares[i]);
+            sparse.add(squares[i]);
+        }
+        assertEquals(squares.length, sparse.size());
+        assertTrue(sparse.contains(new Square(squares[5].getX(), squares[5].getY())));
+        assertFalse(sparse.contains(new Square(0, 0)));
+    }
+    
+    @Test
+    public void setWithoutGridRemovesAndPops() {
+        SquareSet sparse = new SquareSet(width, height, squares.length);
+        for (int i = 0; i < squares.length; i++) {
+            sparse.add(squares[i]);
+        }
+        assertTrue(sparse.remove(squares[3]));
+        assertFalse(sparse.contains(squares[3]));
+        assertEquals(squares[squares.length - 1], sparse.pop());
+        assertFalse(sparse.contains(squares[squares.length - 1]));
+        assertEquals(squares.length - 2, sparse.size());
+    }
+    
+    @Test
+    public void setsWithAndWithoutGridAndTheSameSquaresAreEqual() {
+        SquareSet sparse = new SquareSet(width, height, 4);
+        for (int i = squares.length - 1; i >= 0; i--) {
+            set.add(squares[i]);
+            sparse.add(squares[squares.length - 1 - i]);
+        }
+        assertTrue(set.equals(sparse));
+        assertTrue(sparse.equals(set));
+        sparse.pop();
+        assertFalse(set.equals(sparse));
+    }
 }